@@ -0,0 +1,170 @@
+package hirondelle.date4j;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ A calendar of business days, defined by weekend days and a set of holidays.
+
+ <P>Settlement dates and due dates are often found by calling <tt>plusDays(1)</tt> in a loop, checking for weekends
+ and holidays at each step. That takes time proportional to the number of days, and creates an object per step.
+ This class instead builds, once, a bit for every day in the supported range (0001-01-01..9999-12-31), set
+ for business days, along with a running count of business days at the start of every 64 days. Then:
+ <ul>
+ <li>{@link #isBusinessDay(DateTime)} is a shift and a mask.
+ <li>{@link #businessDaysBetween(DateTime, DateTime)} takes constant time: two running counts, each adjusted
+ by counting the bits of a single 64-bit word.
+ <li>{@link #plusBusinessDays(DateTime, int)} does a binary search over the running counts, and takes time
+ proportional to the log of the number of days in the range.
+ </ul>
+ The tables take about 700 kilobytes, and take a few milliseconds to build. A calendar is meant to be built
+ once, and shared.
+
+ <P>Only the year-month-day of each <tt>DateTime</tt> is used to find its day. Methods taking a <tt>DateTime</tt>
+ throw a runtime exception if it has no year-month-day.
+
+ <P>Example:
+ <PRE>
+  BusinessCalendar calendar = BusinessCalendar.forMondayToFriday(holidays);
+  DateTime settlementDate = calendar.plusBusinessDays(tradeDate, 2);
+ </PRE>
+
+ <P>This class is immutable. Later changes to the holidays passed to the constructor have no effect on the calendar.
+*/
+public final class BusinessCalendar {
+
+  /**
+   Factory method for a calendar whose weekend is Saturday and Sunday.
+   @param aHolidays days which are never business days.
+  */
+  public static BusinessCalendar forMondayToFriday(DaySet aHolidays){
+    return new BusinessCalendar(Arrays.asList(SATURDAY, SUNDAY), aHolidays);
+  }
+
+  /**
+   Constructor.
+   @param aWeekendDays the days of the week which are never business days, using the same
+   values as {@link DateTime#getWeekDay()}: 1..7 for Sunday..Saturday.
+   @param aHolidays days which are never business days.
+  */
+  public BusinessCalendar(Collection<Integer> aWeekendDays, DaySet aHolidays){
+    boolean[] isWeekend = new boolean[8];
+    for(Integer weekDay : aWeekendDays){
+      if(weekDay < 1 || weekDay > 7){
+        throw new IllegalArgumentException("Weekend day is not in the range 1..7: " + weekDay);
+      }
+      isWeekend[weekDay] = true;
+    }
+    fWords = new long[DaySet.NUM_WORDS];
+    fRanks = new int[DaySet.NUM_WORDS + 1];
+    int weekDay = FIRST_WEEK_DAY;
+    for(int day = 0; day < DaySet.NUM_DAYS; ++day){
+      if(! isWeekend[weekDay]){
+        fWords[day >>> 6] |= 1L << day;
+      }
+      weekDay = weekDay == 7 ? 1 : weekDay + 1;
+    }
+    for(int word = 0; word < DaySet.NUM_WORDS; ++word){
+      fWords[word] = fWords[word] & ~aHolidays.wordAt(word);
+      fRanks[word + 1] = fRanks[word] + Long.bitCount(fWords[word]);
+    }
+  }
+
+  /** Return <tt>true</tt> only if the day of the given item is a business day. */
+  public boolean isBusinessDay(DateTime aDay){
+    int index = DaySet.indexOf(aDay);
+    return (fWords[index >>> 6] & (1L << index)) != 0;
+  }
+
+  /**
+   Return the number of business days from <tt>aStart</tt> to <tt>aEnd</tt>, counting <tt>aEnd</tt> but not <tt>aStart</tt>.
+   If <tt>aEnd</tt> comes before <tt>aStart</tt>, then the result is negative. For example, from a Friday to the following
+   Monday is 1 business day, and from the Monday back to the Friday is -1 business day.
+
+   <P>This is the inverse of {@link #plusBusinessDays(DateTime, int)}: if <tt>end</tt> is
+   <tt>plusBusinessDays(start, n)</tt>, then <tt>businessDaysBetween(start, end)</tt> is <tt>n</tt>.
+  */
+  public int businessDaysBetween(DateTime aStart, DateTime aEnd){
+    int start = DaySet.indexOf(aStart);
+    int end = DaySet.indexOf(aEnd);
+    return end >= start ? numBusinessDaysUpTo(end) - numBusinessDaysUpTo(start) : numBusinessDaysBefore(end) - numBusinessDaysBefore(start);
+  }
+
+  /**
+   Return the business day which is the given number of business days after the given day.
+
+   <P>The given day itself is never counted, whether it's a business day or not.
+   For example, <tt>plusBusinessDays(saturday, 1)</tt> is the following Monday, and <tt>plusBusinessDays(saturday, -1)</tt>
+   is the day before, Friday (if neither is a holiday). Negative values move back in time. If <tt>aNumDays</tt> is 0, then <tt>aDay</tt> is returned.
+
+   <P>The result has the same time portion as <tt>aDay</tt>, if any.
+   If the result is outside the range of years 1..9999, then a runtime exception is thrown.
+  */
+  public DateTime plusBusinessDays(DateTime aDay, int aNumDays){
+    DateTime result = aDay;
+    if(aNumDays != 0){
+      //the rank of the target among all business days, counting from 1
+      int index = DaySet.indexOf(aDay);
+      long rank = aNumDays > 0 ? (long)numBusinessDaysUpTo(index) + aNumDays : (long)numBusinessDaysBefore(index) + aNumDays + 1;
+      if(rank < 1 || rank > fRanks[DaySet.NUM_WORDS]){
+        throw new DateTime.ItemOutOfRange("Moving " + aNumDays + " business days from " + aDay + " is outside the range of years 1..9999.");
+      }
+      DateTime day = DaySet.toDay(select((int)rank));
+      //both parts are already valid, so no need to validate again
+      result = DateTime.fromValidParts(
+        day.getYear(), day.getMonth(), day.getDay(),
+        aDay.getHour(), aDay.getMinute(), aDay.getSecond(), aDay.getNanoseconds()
+      );
+    }
+    return result;
+  }
+
+  /** Intended for debugging only. */
+  @Override public String toString(){
+    return "BusinessCalendar business days:" + fRanks[DaySet.NUM_WORDS];
+  }
+
+  // PRIVATE
+
+  /** A bit for each day, set for business days; indexed in the same way as DaySet. */
+  private final long[] fWords;
+  /** The number of business days in all words before each index. */
+  private final int[] fRanks;
+
+  private static final Integer SUNDAY = Integer.valueOf(1);
+  private static final Integer SATURDAY = Integer.valueOf(7);
+  /** The week day of 0001-01-01, the day at index 0. */
+  private static final int FIRST_WEEK_DAY = DateTime.forDateOnly(1, 1, 1).getWeekDay();
+
+  /** The number of business days with an index less than or equal to the given index. */
+  private int numBusinessDaysUpTo(int aIndex){
+    return fRanks[aIndex >>> 6] + Long.bitCount(fWords[aIndex >>> 6] & (-1L >>> (63 - (aIndex & 63))));
+  }
+
+  /** The number of business days with an index less than the given index. */
+  private int numBusinessDaysBefore(int aIndex){
+    return fRanks[aIndex >>> 6] + Long.bitCount(fWords[aIndex >>> 6] & ((1L << aIndex) - 1));
+  }
+
+  /** The index of the business day having the given rank, counting from 1. */
+  private int select(int aRank){
+    //the last word having fewer than aRank business days before it
+    int low = 0;
+    int high = DaySet.NUM_WORDS - 1;
+    while(low < high){
+      int middle = (low + high + 1) >>> 1;
+      if(fRanks[middle] < aRank){
+        low = middle;
+      }
+      else {
+        high = middle - 1;
+      }
+    }
+    long word = fWords[low];
+    for(int skip = aRank - fRanks[low] - 1; skip > 0; --skip){
+      //clear the lowest set bit
+      word = word & (word - 1);
+    }
+    return (low << 6) + Long.numberOfTrailingZeros(word);
+  }
+}
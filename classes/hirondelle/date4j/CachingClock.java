@@ -0,0 +1,208 @@
+package hirondelle.date4j;
+
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ Hands out the current date-time with a coarse granularity, sharing one <tt>DateTime</tt> per time zone
+ between all callers within the same time slice.
+
+ <P>{@link DateTime#now(TimeZone)} builds a <tt>GregorianCalendar</tt> and a new <tt>DateTime</tt> on every call,
+ and {@link DateTime#today(TimeZone)} then truncates that result. Code which asks for the current time many
+ thousands of times per second, such as request handlers, can use this class instead. The time line is cut into
+ slices of a fixed size (the granularity). The first call in a slice computes <tt>now</tt> and <tt>today</tt>
+ for the given time zone; all other calls in the same slice return the very same (immutable) objects.
+
+ <P>The millisecond clock is read in one of two ways:
+ <ul>
+ <li>by default, lazily: each call reads <tt>System.currentTimeMillis()</tt>, which is cheap compared to a
+ <tt>Calendar</tt>. The value returned is never older than the granularity.
+ <li>after {@link #startTicker()}: a background daemon thread reads the system clock once per slice, and callers
+ read only a <tt>volatile</tt> field. The value returned can be older than the granularity by the ticker's own
+ scheduling delay.
+ </ul>
+
+ <P>The value returned by <tt>now</tt> is the time at which the slice was first seen, so it may be stale by up to
+ the granularity (plus any ticker delay). Callers needing exact times should use {@link DateTime#now(TimeZone)}.
+
+ <P>{@link #getNumMisses()} is always kept, since a miss is already the slow path. Counting hits and tracking the
+ worst staleness would mean writing to shared fields on every call, from every thread, so those metrics are kept
+ only if asked for in the constructor; they are meant for tuning the granularity, not for production use.
+
+ <P>Example:
+ <PRE>
+  private static final CachingClock CLOCK = new CachingClock(10);
+  ...
+  DateTime now = CLOCK.now(timeZone);
+ </PRE>
+
+ <P>This class is a {@link Clock}, so it can be passed to methods such as {@link DateTime#isInTheFuture(TimeZone, Clock)}.
+
+ <P>This class is thread-safe. Cached values are immutable, and are published without locks. When threads race
+ on a new slice, each may compute the value, and the last one wins.
+*/
+public final class CachingClock implements Clock {
+
+  /**
+   Constructor.
+   @param aGranularityMillis size of each time slice, in milliseconds; 1 or more.
+  */
+  public CachingClock(long aGranularityMillis){
+    this(aGranularityMillis, false);
+  }
+
+  /**
+   Constructor.
+   @param aGranularityMillis size of each time slice, in milliseconds; 1 or more.
+   @param aKeepsHitMetrics if <tt>true</tt>, then {@link #getNumHits()} and {@link #getMaxStalenessMillis()} are kept,
+   at the cost of writing shared fields on every call.
+  */
+  public CachingClock(long aGranularityMillis, boolean aKeepsHitMetrics){
+    if(aGranularityMillis < 1){
+      throw new IllegalArgumentException("Granularity must be 1 millisecond or more: " + aGranularityMillis);
+    }
+    fGranularityMillis = aGranularityMillis;
+    fKeepsHitMetrics = aKeepsHitMetrics;
+  }
+
+  /** Return the size of each time slice, in milliseconds. */
+  public long getGranularityMillis(){
+    return fGranularityMillis;
+  }
+
+  /**
+   Return the current date-time, as in {@link DateTime#now(TimeZone)}, but possibly stale by up to the granularity.
+   Calls in the same time slice, for the same time zone, return the same object.
+  */
+  public DateTime now(TimeZone aTimeZone){
+    return entryFor(aTimeZone).fNow;
+  }
+
+  /**
+   Return the current date, as in {@link DateTime#today(TimeZone)}.
+   Calls in the same time slice, for the same time zone, return the same object.
+  */
+  public DateTime today(TimeZone aTimeZone){
+    return entryFor(aTimeZone).fToday;
+  }
+
+  /**
+   Start a background daemon thread which reads the system clock once per time slice.
+   Has no effect if the ticker is already running.
+  */
+  public synchronized void startTicker(){
+    if(fTicker == null){
+      fTickerMillis = System.currentTimeMillis();
+      fTicker = new Ticker();
+      fTicker.start();
+    }
+  }
+
+  /** Stop the background thread started by {@link #startTicker()}, and return to reading the clock lazily. */
+  public synchronized void stopTicker(){
+    if(fTicker != null){
+      fTicker.fIsRunning = false;
+      fTicker.interrupt();
+      fTicker = null;
+    }
+  }
+
+  /** Return <tt>true</tt> only if the background ticker is running. */
+  public boolean isTickerRunning(){
+    return fTicker != null;
+  }
+
+  /** Return the number of calls answered from the cache. Always 0, unless hit metrics were asked for in the constructor. */
+  public long getNumHits(){
+    return fNumHits.get();
+  }
+
+  /** Return the number of calls which needed to compute a new value. */
+  public long getNumMisses(){
+    return fNumMisses.get();
+  }
+
+  /**
+   Return the largest staleness seen so far by any caller, in milliseconds: the difference between the clock
+   reading for the call and the instant of the value returned. In ticker mode, the clock reading is the ticker's,
+   so any delay in the ticker itself is not included.
+   Always 0, unless hit metrics were asked for in the constructor.
+  */
+  public long getMaxStalenessMillis(){
+    return fMaxStalenessMillis;
+  }
+
+  /** Intended for debugging only. */
+  @Override public String toString(){
+    return "CachingClock granularity:" + fGranularityMillis + "ms ticker:" + isTickerRunning() +
+      " hits:" + getNumHits() + " misses:" + getNumMisses() + " max staleness:" + fMaxStalenessMillis + "ms"
+    ;
+  }
+
+  // PRIVATE
+
+  private final long fGranularityMillis;
+  private final boolean fKeepsHitMetrics;
+  /** Key is the time zone id. */
+  private final ConcurrentMap<String, Entry> fEntries = new ConcurrentHashMap<String, Entry>();
+  private final AtomicLong fNumHits = new AtomicLong();
+  private final AtomicLong fNumMisses = new AtomicLong();
+  /** Written racily; an occasional lost update only makes the metric slightly low. */
+  private volatile long fMaxStalenessMillis;
+  private volatile long fTickerMillis;
+  private volatile Ticker fTicker;
+
+  /** The values shared by all callers in one time slice, for one time zone. Immutable. */
+  private static final class Entry {
+    Entry(long aSlice, long aMillis, DateTime aNow){
+      fSlice = aSlice;
+      fMillis = aMillis;
+      fNow = aNow;
+      fToday = aNow.truncate(DateTime.Unit.DAY);
+    }
+    final long fSlice;
+    final long fMillis;
+    final DateTime fNow;
+    final DateTime fToday;
+  }
+
+  private final class Ticker extends Thread {
+    Ticker(){
+      super("CachingClock-ticker");
+      setDaemon(true);
+    }
+    @Override public void run(){
+      while(fIsRunning){
+        fTickerMillis = System.currentTimeMillis();
+        try {
+          Thread.sleep(fGranularityMillis);
+        }
+        catch(InterruptedException ex){
+          //stopTicker was called
+        }
+      }
+    }
+    volatile boolean fIsRunning = true;
+  }
+
+  private Entry entryFor(TimeZone aTimeZone){
+    long millis = fTicker == null ? System.currentTimeMillis() : fTickerMillis;
+    long slice = millis / fGranularityMillis;
+    Entry result = fEntries.get(aTimeZone.getID());
+    if(result == null || result.fSlice != slice){
+      result = new Entry(slice, millis, DateTime.forInstant(millis, aTimeZone));
+      fEntries.put(aTimeZone.getID(), result);
+      fNumMisses.incrementAndGet();
+    }
+    else if(fKeepsHitMetrics){
+      fNumHits.incrementAndGet();
+      long staleness = millis - result.fMillis;
+      if(staleness > fMaxStalenessMillis){
+        fMaxStalenessMillis = staleness;
+      }
+    }
+    return result;
+  }
+}
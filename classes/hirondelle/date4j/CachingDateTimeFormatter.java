@@ -0,0 +1,231 @@
+package hirondelle.date4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ Formats a {@link DateTime} repeatedly with the same pattern, caching the text rendered for the most recent second.
+
+ <P>Intended for log appenders and similar tools, which format the current time thousands of times per second.
+ {@link DateTime#format(String)} interprets every token of its pattern on each call. This class instead
+ remembers the output for the last second seen. When the next <tt>DateTime</tt> falls in the same second,
+ only the fractional-second digits ('f' tokens) are rendered again, and patched into the cached text.
+ If the pattern has no fractional-second tokens, then the cached <tt>String</tt> itself is returned.
+
+ <P>The output is always the same as that of {@link DateTime#format(String)} (or {@link DateTime#format(String, Locale)}),
+ using the same <a href="DateTime.html#FormattingLanguage">formatting mini-language</a>.
+
+ <P>Example:
+ <PRE>
+  private static final CachingDateTimeFormatter FORMAT = new CachingDateTimeFormatter("YYYY-MM-DD hh:mm:ss.fff");
+  ...
+  String timestamp = FORMAT.format(DateTime.now(timeZone));
+ </PRE>
+
+ <P>This class is thread-safe. The cache is an immutable object, published through a <tt>volatile</tt> field,
+ so no locks are taken. When threads race on a new second, each may render the text for that second, and the
+ last one wins; the output is correct in all cases.
+*/
+public final class CachingDateTimeFormatter {
+
+  /**
+   Constructor for patterns that use only numbers, and no localizable text.
+   @param aFormat uses the syntax described by {@link DateTime#format(String)}.
+  */
+  public CachingDateTimeFormatter(String aFormat){
+    this(aFormat, null);
+  }
+
+  /**
+   Constructor for patterns that use localizable text for months, weekdays, and the AM/PM indicator.
+   @param aFormat uses the syntax described by {@link DateTime#format(String)}.
+   @param aLocale as in {@link DateTime#format(String, Locale)}; may be null if the pattern needs no localized text.
+  */
+  public CachingDateTimeFormatter(String aFormat, Locale aLocale){
+    if(! Util.textHasContent(aFormat)){
+      throw new IllegalArgumentException("DateTime format has no content.");
+    }
+    fFormat = aFormat;
+    fLocale = aLocale;
+    List<String> segments = new ArrayList<String>();
+    List<Integer> widths = new ArrayList<Integer>();
+    splitOnFractionalSeconds(aFormat, segments, widths);
+    fPatternSegments = segments.toArray(new String[segments.size()]);
+    fFractionWidths = new int[widths.size()];
+    for(int idx = 0; idx < fFractionWidths.length; ++idx){
+      fFractionWidths[idx] = widths.get(idx);
+    }
+  }
+
+  /** Format a {@link DateTime}, as in {@link DateTime#format(String)}. */
+  public String format(DateTime aDateTime){
+    Entry entry = fEntry;
+    if(entry == null || ! entry.isFor(aDateTime)){
+      entry = new Entry(aDateTime);
+      fEntry = entry;
+    }
+    String result = null;
+    if(fFractionWidths.length == 0){
+      result = entry.Segments[0];
+    }
+    else {
+      int nanos = aDateTime.getNanoseconds() == null ? 0 : aDateTime.getNanoseconds();
+      StringBuilder builder = new StringBuilder(entry.Length);
+      for(int idx = 0; idx < fFractionWidths.length; ++idx){
+        builder.append(entry.Segments[idx]);
+        appendFraction(nanos, fFractionWidths[idx], builder);
+      }
+      builder.append(entry.Segments[fFractionWidths.length]);
+      result = builder.toString();
+    }
+    return result;
+  }
+
+  /** Return the pattern passed to the constructor. */
+  public String getFormat(){
+    return fFormat;
+  }
+
+  // PRIVATE
+
+  private final String fFormat;
+  private final Locale fLocale;
+
+  /**
+   The pattern, split around its fractional-second tokens.
+   Always has one more item than fFractionWidths; items can be empty.
+  */
+  private final String[] fPatternSegments;
+
+  /** The number of decimals shown by each fractional-second token, 1..9, in order of appearance. */
+  private final int[] fFractionWidths;
+
+  /** The text rendered for the most recent second. */
+  private volatile Entry fEntry;
+
+  private static final Pattern ESCAPED_RANGE = Pattern.compile("\\|[^\\|]*\\|");
+  private static final int MAX_FRACTION_DIGITS = 9;
+  private static final int[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000};
+
+  /**
+   Immutable snapshot of the pattern segments rendered for a single second.
+   Each segment of the pattern is free of fractional-second tokens, so it depends only on year..second.
+  */
+  private final class Entry {
+    Entry(DateTime aDateTime){
+      Year = aDateTime.getYear();
+      Month = aDateTime.getMonth();
+      Day = aDateTime.getDay();
+      Hour = aDateTime.getHour();
+      Minute = aDateTime.getMinute();
+      Second = aDateTime.getSecond();
+      Segments = new String[fPatternSegments.length];
+      int length = 0;
+      for(int idx = 0; idx < fPatternSegments.length; ++idx){
+        Segments[idx] = render(fPatternSegments[idx], aDateTime);
+        length = length + Segments[idx].length();
+      }
+      for(int width : fFractionWidths){
+        length = length + width;
+      }
+      Length = length;
+    }
+    boolean isFor(DateTime aDateTime){
+      return
+        same(Second, aDateTime.getSecond()) && same(Minute, aDateTime.getMinute()) &&
+        same(Hour, aDateTime.getHour()) && same(Day, aDateTime.getDay()) &&
+        same(Month, aDateTime.getMonth()) && same(Year, aDateTime.getYear())
+      ;
+    }
+    final Integer Year;
+    final Integer Month;
+    final Integer Day;
+    final Integer Hour;
+    final Integer Minute;
+    final Integer Second;
+    final String[] Segments;
+    final int Length;
+  }
+
+  /**
+   Find each run of 'f' characters lying outside of an escaped range.
+   As in {@link DateTimeFormatter}, a run longer than 9 characters is read as several tokens,
+   taking 9 characters at a time from the left.
+   @param aSegments receives the text around the tokens; always one more item than <tt>aWidths</tt>.
+   @param aWidths receives the width of each token.
+  */
+  private static void splitOnFractionalSeconds(String aFormat, List<String> aSegments, List<Integer> aWidths){
+    List<Integer> escapeStarts = new ArrayList<Integer>();
+    List<Integer> escapeEnds = new ArrayList<Integer>();
+    Matcher matcher = ESCAPED_RANGE.matcher(aFormat);
+    while (matcher.find()){
+      escapeStarts.add(matcher.start());
+      escapeEnds.add(matcher.end() - 1);
+    }
+    int segmentStart = 0;
+    int idx = 0;
+    while (idx < aFormat.length()){
+      if(aFormat.charAt(idx) == 'f' && ! isEscaped(idx, escapeStarts, escapeEnds)){
+        aSegments.add(aFormat.substring(segmentStart, idx));
+        int width = 0;
+        while(idx < aFormat.length() && aFormat.charAt(idx) == 'f' && width < MAX_FRACTION_DIGITS){
+          ++width;
+          ++idx;
+        }
+        aWidths.add(width);
+        segmentStart = idx;
+      }
+      else {
+        ++idx;
+      }
+    }
+    aSegments.add(aFormat.substring(segmentStart));
+  }
+
+  private static boolean isEscaped(int aIdx, List<Integer> aStarts, List<Integer> aEnds){
+    boolean result = false;
+    for(int i = 0; i < aStarts.size(); ++i){
+      if(aStarts.get(i) <= aIdx && aIdx <= aEnds.get(i)){
+        result = true;
+        break;
+      }
+    }
+    return result;
+  }
+
+  /**
+   Render one segment of the pattern.
+   A new DateTimeFormatter is used each time, since that class is not thread-safe; this happens only once per second.
+   A segment with no content has no tokens to interpret.
+  */
+  private String render(String aPatternSegment, DateTime aDateTime){
+    String result = aPatternSegment;
+    if(Util.textHasContent(aPatternSegment)){
+      DateTimeFormatter formatter = null;
+      if(fLocale == null){
+        formatter = new DateTimeFormatter(aPatternSegment);
+      }
+      else {
+        formatter = new DateTimeFormatter(aPatternSegment, fLocale);
+      }
+      result = formatter.format(aDateTime);
+    }
+    return result;
+  }
+
+  /** Append the leading aWidth digits of the nanoseconds, with no rounding. */
+  private static void appendFraction(int aNanos, int aWidth, StringBuilder aBuilder){
+    int value = aNanos / POWERS_OF_TEN[MAX_FRACTION_DIGITS - aWidth];
+    for(int power = aWidth - 1; power >= 0; --power){
+      int digit = (value / POWERS_OF_TEN[power]) % 10;
+      aBuilder.append((char)('0' + digit));
+    }
+  }
+
+  private static boolean same(Integer aThis, Integer aThat){
+    return aThis == null ? aThat == null : aThis.equals(aThat);
+  }
+}
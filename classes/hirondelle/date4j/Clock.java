@@ -0,0 +1,101 @@
+package hirondelle.date4j;
+
+import java.util.TimeZone;
+
+/**
+ A source of the current date-time.
+
+ <P>{@link DateTime#now(TimeZone)} always reads <tt>System.currentTimeMillis()</tt>. Methods taking a 
+ <tt>Clock</tt> instead, such as {@link DateTime#now(TimeZone, Clock)} and {@link DateTime#isInTheFuture(TimeZone, Clock)}, 
+ let the caller choose the source. This is useful for:
+ <ul>
+ <li>precision: {@link NanoClock} has nanosecond resolution, for tracing sub-millisecond events.
+ <li>speed: {@link CachingClock} shares one value between all callers in a small time slice.
+ <li>testing: {@link FixedClock} always returns the same value.
+ </ul>
+
+ <P>All implementations in this package are thread-safe.
+*/
+public interface Clock {
+
+  /**
+   Return the current date-time in the given time zone. 
+   The result should include all units from year to nanosecond, as in {@link DateTime#now(TimeZone)}.
+  */
+  DateTime now(TimeZone aTimeZone);
+
+  /**
+   Return the current date in the given time zone, having only year-month-day.
+   This is {@link #now(TimeZone)} truncated to the day; implementations may return a shared object.
+  */
+  DateTime today(TimeZone aTimeZone);
+
+  /** The system clock, with millisecond resolution. Returns the same values as {@link DateTime#now(TimeZone)}. */
+  public static final Clock SYSTEM = new SystemClock();
+
+  /** The system clock, with millisecond resolution. See {@link Clock#SYSTEM}. */
+  public static final class SystemClock implements Clock {
+    public DateTime now(TimeZone aTimeZone){
+      return DateTime.forInstant(System.currentTimeMillis(), aTimeZone);
+    }
+    public DateTime today(TimeZone aTimeZone){
+      return now(aTimeZone).truncate(DateTime.Unit.DAY);
+    }
+  }
+
+  /**
+   A clock with nanosecond resolution.
+   
+   <P>At construction, the wall clock (<tt>System.currentTimeMillis()</tt>) is read once, as an anchor. 
+   After that, the time is the anchor plus the time elapsed on <tt>System.nanoTime()</tt>. 
+   So, the values from a single <tt>NanoClock</tt> never go backwards, even if the system clock is reset, 
+   and differences between them are as precise as the platform's <tt>nanoTime</tt>. 
+   
+   <P>The anchor itself is only accurate to the millisecond, and the two system timers may drift apart over long 
+   periods. Long-lived applications may create a new <tt>NanoClock</tt> from time to time, to re-anchor. 
+   Time zone offsets are applied without a <tt>Calendar</tt>. The result must fall within the years 1677..2262.
+  */
+  public static final class NanoClock implements Clock {
+    public NanoClock(){
+      fAnchorNanos = System.currentTimeMillis() * 1000000L;
+      fAnchorNanoTime = System.nanoTime();
+    }
+    public DateTime now(TimeZone aTimeZone){
+      long utcNanos = nowEpochNanoUtc();
+      long offsetMillis = aTimeZone.getOffset(utcNanos / 1000000L);
+      return DateTime.forEpochNanoUtc(utcNanos + offsetMillis * 1000000L);
+    }
+    public DateTime today(TimeZone aTimeZone){
+      return now(aTimeZone).truncate(DateTime.Unit.DAY);
+    }
+    /** The current time as nanoseconds from the epoch, in UTC. Package-private, for callers needing no <tt>DateTime</tt>. */
+    long nowEpochNanoUtc(){
+      return fAnchorNanos + (System.nanoTime() - fAnchorNanoTime);
+    }
+    private final long fAnchorNanos;
+    private final long fAnchorNanoTime;
+  }
+
+  /** A clock which is stopped. For testing. */
+  public static final class FixedClock implements Clock {
+    /** 
+     Constructor. 
+     @param aNow returned by every call to {@link #now(TimeZone)}, whatever the time zone.
+    */
+    public FixedClock(DateTime aNow){
+      if(aNow == null){
+        throw new IllegalArgumentException("DateTime is null.");
+      }
+      fNow = aNow;
+    }
+    /** Return the value passed to the constructor. The time zone is ignored. */
+    public DateTime now(TimeZone aTimeZone){
+      return fNow;
+    }
+    /** Return the value passed to the constructor, truncated to the day. The time zone is ignored. */
+    public DateTime today(TimeZone aTimeZone){
+      return fNow.truncate(DateTime.Unit.DAY);
+    }
+    private final DateTime fNow;
+  }
+}
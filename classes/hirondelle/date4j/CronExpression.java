@@ -0,0 +1,337 @@
+package hirondelle.date4j;
+
+/**
+ A <tt>cron</tt> expression, for finding the times at which a scheduled job fires.
+
+ <P>An expression has 5 fields, separated by white space:
+ <PRE>
+  minute hour day-of-month month day-of-week
+ </PRE>
+ An optional 6th field may be placed first, for the second (0..59). Otherwise, jobs fire at the start of the minute.
+ Each field is a comma-separated list of items:
+ <ul>
+ <li><tt>*</tt> (or <tt>?</tt>) - every value
+ <li><tt>5</tt> - a single value
+ <li><tt>1-5</tt> - a range, including both ends
+ <li><tt>*&#47;15</tt>, <tt>10-40/10</tt>, <tt>5/20</tt> - every n-th value, over all values, a range, or from a value
+ to the end
+ </ul>
+ Months are <tt>1..12</tt> or <tt>JAN..DEC</tt>. Days of the week are <tt>0..7</tt> or <tt>SUN..SAT</tt>, where both
+ 0 and 7 are Sunday. Names are not case-sensitive. As in the classic <tt>cron</tt>, when both the day of the month and
+ the day of the week are restricted (neither is <tt>*</tt>), a day matches if <em>either</em> matches.
+ The macros <tt>@yearly</tt>, <tt>@annually</tt>, <tt>@monthly</tt>, <tt>@weekly</tt>, <tt>@daily</tt>,
+ <tt>@midnight</tt>, and <tt>@hourly</tt> are also accepted.
+
+ <P>Each field is compiled into a bit mask. {@link #nextFireAfter(DateTime)} then finds the next matching time
+ by moving one field at a time, from the month down to the second: when a field doesn't match, it jumps straight to
+ the next set bit of its mask (or carries into the next larger unit), and resets the smaller units. The days of a
+ month are matched with a single mask, built from the month's length and the week day of its first day. So even
+ sparse expressions, such as <tt>0 0 29 2 *</tt> (leap days), take a few steps, instead of a scan over each minute.
+
+ <P>There is no time zone: times are in whatever zone the caller's <tt>DateTime</tt> values are in.
+
+ <P>Example:
+ <PRE>
+  CronExpression weekdayMornings = new CronExpression("30 8 * * MON-FRI");
+  DateTime nextRun = weekdayMornings.nextFireAfter(DateTime.now(timeZone));
+ </PRE>
+
+ <P>This class is immutable.
+*/
+public final class CronExpression {
+
+  /**
+   Constructor.
+   @param aExpression 5 or 6 fields, or a macro, as described above.
+  */
+  public CronExpression(String aExpression){
+    fExpression = aExpression;
+    String[] fields = expandMacro(aExpression.trim()).split("\\s+");
+    if(fields.length != 5 && fields.length != 6){
+      throw new IllegalArgumentException("Cron expression must have 5 or 6 fields: " + Util.quote(aExpression));
+    }
+    int first = fields.length - 5;
+    fSeconds = first == 0 ? 1L : parseField(fields[0], SECOND);
+    fMinutes = parseField(fields[first], MINUTE);
+    fHours = parseField(fields[first + 1], HOUR);
+    fDaysOfMonth = parseField(fields[first + 2], DAY_OF_MONTH);
+    fMonths = parseField(fields[first + 3], MONTH);
+    long daysOfWeek = parseField(fields[first + 4], DAY_OF_WEEK);
+    //0 and 7 are both Sunday; store Sunday..Saturday as bits 1..7, as in DateTime.getWeekDay()
+    fDaysOfWeek = ((daysOfWeek | daysOfWeek >>> 7) & 0x7F) << 1;
+    fIsDayOfMonthRestricted = ! isWildcard(fields[first + 2]);
+    fIsDayOfWeekRestricted = ! isWildcard(fields[first + 4]);
+  }
+
+  /** Return <tt>true</tt> only if the given time matches this expression. Units absent from <tt>aDateTime</tt> are taken as 0. */
+  public boolean matches(DateTime aDateTime){
+    int year = aDateTime.getYear();
+    int month = aDateTime.getMonth();
+    int day = aDateTime.getDay();
+    int firstJD = DateTime.julianDayNumberAtNoon(year, month, 1);
+    long days = dayMask(firstJD, DateTime.getNumDaysInMonth(year, month));
+    return
+      isSet(fMonths, month) && isSet(days, day - 1) &&
+      isSet(fHours, valueOf(aDateTime.getHour())) && isSet(fMinutes, valueOf(aDateTime.getMinute())) &&
+      isSet(fSeconds, valueOf(aDateTime.getSecond())) && valueOf(aDateTime.getNanoseconds()) == 0
+    ;
+  }
+
+  /**
+   Return the first time after the given moment at which this expression fires, or <tt>null</tt> if there is none
+   up to the end of the year 9999.
+   @param aAfter must have year-month-day; absent time units are taken as 0.
+   @return a <tt>DateTime</tt> having all units, with 0 nanoseconds.
+  */
+  public DateTime nextFireAfter(DateTime aAfter){
+    int year = aAfter.getYear();
+    int month = aAfter.getMonth();
+    int day = aAfter.getDay();
+    int hour = valueOf(aAfter.getHour());
+    int minute = valueOf(aAfter.getMinute());
+    //the smallest candidate is the next whole second
+    int second = valueOf(aAfter.getSecond()) + 1;
+    DateTime result = null;
+    boolean isDone = false;
+    while(! isDone && year <= MAX_YEAR){
+      //each step either finds all fields matching, or moves ahead, resetting the smaller fields
+      if(second > 59 || nextSetBit(fSeconds, second) < 0){
+        second = 0;
+        ++minute;
+      }
+      else if(minute > 59 || nextSetBit(fMinutes, minute) < 0){
+        minute = 0;
+        second = 0;
+        ++hour;
+      }
+      else if(hour > 23 || nextSetBit(fHours, hour) < 0){
+        hour = 0;
+        minute = 0;
+        second = 0;
+        ++day;
+      }
+      else if(month > 12 || nextSetBit(fMonths, month) < 0){
+        month = 1;
+        day = 1;
+        hour = 0;
+        minute = 0;
+        second = 0;
+        ++year;
+      }
+      else if(nextSetBit(fMonths, month) != month){
+        month = nextSetBit(fMonths, month);
+        day = 1;
+        hour = 0;
+        minute = 0;
+        second = 0;
+      }
+      else {
+        int length = DateTime.getNumDaysInMonth(year, month);
+        long days = day > length ? 0 : dayMask(DateTime.julianDayNumberAtNoon(year, month, 1), length);
+        int nextDay = day > length ? -1 : nextSetBit(days, day - 1) + 1;
+        if(nextDay <= 0){
+          ++month;
+          day = 1;
+          hour = 0;
+          minute = 0;
+          second = 0;
+        }
+        else if(nextDay != day){
+          day = nextDay;
+          hour = 0;
+          minute = 0;
+          second = 0;
+        }
+        else if(nextSetBit(fHours, hour) != hour){
+          hour = nextSetBit(fHours, hour);
+          minute = 0;
+          second = 0;
+        }
+        else if(nextSetBit(fMinutes, minute) != minute){
+          minute = nextSetBit(fMinutes, minute);
+          second = 0;
+        }
+        else if(nextSetBit(fSeconds, second) != second){
+          second = nextSetBit(fSeconds, second);
+        }
+        else {
+          result = DateTime.fromValidParts(year, month, day, hour, minute, second, 0);
+          isDone = true;
+        }
+      }
+    }
+    return result;
+  }
+
+  /** Return the expression passed to the constructor. */
+  @Override public String toString(){
+    return fExpression;
+  }
+
+  // PRIVATE
+
+  private final String fExpression;
+  /** Bit n is set if the value n matches. */
+  private final long fSeconds;
+  private final long fMinutes;
+  private final long fHours;
+  /** Bits 1..31. */
+  private final long fDaysOfMonth;
+  /** Bits 1..12. */
+  private final long fMonths;
+  /** Bits 1..7, for Sunday..Saturday. */
+  private final long fDaysOfWeek;
+  private final boolean fIsDayOfMonthRestricted;
+  private final boolean fIsDayOfWeekRestricted;
+
+  private static final int MAX_YEAR = 9999;
+  /** Bits 0, 7, 14, 21, 28: a week day repeating through a month. */
+  private static final long EVERY_7TH_DAY = 0x10204081L;
+
+  /** The allowed values of a field. */
+  private static final class Field {
+    Field(String aName, int aMin, int aMax, String... aNames){
+      fName = aName;
+      fMin = aMin;
+      fMax = aMax;
+      fNames = aNames;
+    }
+    final String fName;
+    final int fMin;
+    final int fMax;
+    /** Names for the values fMin, fMin+1, and so on. */
+    final String[] fNames;
+  }
+
+  private static final Field SECOND = new Field("second", 0, 59);
+  private static final Field MINUTE = new Field("minute", 0, 59);
+  private static final Field HOUR = new Field("hour", 0, 23);
+  private static final Field DAY_OF_MONTH = new Field("day of the month", 1, 31);
+  private static final Field MONTH = new Field("month", 1, 12, "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC");
+  private static final Field DAY_OF_WEEK = new Field("day of the week", 0, 7, "SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT");
+
+  private static String expandMacro(String aExpression){
+    String result = aExpression;
+    String macro = aExpression.toLowerCase();
+    if("@yearly".equals(macro) || "@annually".equals(macro)){
+      result = "0 0 1 1 *";
+    }
+    else if("@monthly".equals(macro)){
+      result = "0 0 1 * *";
+    }
+    else if("@weekly".equals(macro)){
+      result = "0 0 * * 0";
+    }
+    else if("@daily".equals(macro) || "@midnight".equals(macro)){
+      result = "0 0 * * *";
+    }
+    else if("@hourly".equals(macro)){
+      result = "0 * * * *";
+    }
+    return result;
+  }
+
+  private static boolean isWildcard(String aField){
+    return "*".equals(aField) || "?".equals(aField);
+  }
+
+  private static long parseField(String aText, Field aField){
+    long result = 0;
+    for(String item : aText.split(",")){
+      int step = 1;
+      String range = item;
+      int slash = item.indexOf('/');
+      if(slash >= 0){
+        step = parseValue(item.substring(slash + 1), aField, true);
+        range = item.substring(0, slash);
+      }
+      int low = aField.fMin;
+      int high = aField.fMax;
+      if(! isWildcard(range)){
+        int dash = range.indexOf('-');
+        if(dash > 0){
+          low = parseValue(range.substring(0, dash), aField, false);
+          high = parseValue(range.substring(dash + 1), aField, false);
+        }
+        else {
+          low = parseValue(range, aField, false);
+          //'5/20' runs from 5 to the end; '5' is just 5
+          high = slash >= 0 ? aField.fMax : low;
+        }
+      }
+      if(low > high || step < 1){
+        throw new IllegalArgumentException("Invalid " + aField.fName + " in cron expression: " + Util.quote(item));
+      }
+      for(int value = low; value <= high; value = value + step){
+        result = result | 1L << value;
+      }
+    }
+    return result;
+  }
+
+  /** A number, or a name. Steps are plain positive numbers. */
+  private static int parseValue(String aText, Field aField, boolean aIsStep){
+    int result = -1;
+    String text = aText.trim().toUpperCase();
+    if(! aIsStep){
+      for(int idx = 0; idx < aField.fNames.length; ++idx){
+        if(aField.fNames[idx].equals(text)){
+          result = aField.fMin + idx;
+        }
+      }
+    }
+    if(result == -1){
+      try {
+        result = Integer.parseInt(text);
+      }
+      catch(NumberFormatException ex){
+        throw new IllegalArgumentException("Invalid " + aField.fName + " in cron expression: " + Util.quote(aText));
+      }
+      int max = aIsStep ? aField.fMax + 1 : aField.fMax;
+      int min = aIsStep ? 1 : aField.fMin;
+      if(result < min || result > max){
+        throw new IllegalArgumentException("The " + aField.fName + " is not in the range " + min + ".." + max + ": " + Util.quote(aText));
+      }
+    }
+    return result;
+  }
+
+  /** The days of a month which match: day d is bit d-1. */
+  private long dayMask(int aFirstJD, int aLength){
+    long all = (1L << aLength) - 1;
+    long daysOfMonth = (fDaysOfMonth >>> 1) & all;
+    long daysOfWeek = 0;
+    int firstWeekDay = (aFirstJD + 1) % 7 + 1;
+    for(int weekDay = 1; weekDay <= 7; ++weekDay){
+      if(isSet(fDaysOfWeek, weekDay)){
+        daysOfWeek = daysOfWeek | EVERY_7TH_DAY << ((weekDay - firstWeekDay + 7) % 7);
+      }
+    }
+    daysOfWeek = daysOfWeek & all;
+    long result = all;
+    if(fIsDayOfMonthRestricted && fIsDayOfWeekRestricted){
+      result = daysOfMonth | daysOfWeek;
+    }
+    else if(fIsDayOfMonthRestricted){
+      result = daysOfMonth;
+    }
+    else if(fIsDayOfWeekRestricted){
+      result = daysOfWeek;
+    }
+    return result;
+  }
+
+  private static boolean isSet(long aMask, int aBit){
+    return (aMask & 1L << aBit) != 0;
+  }
+
+  /** The lowest set bit at or above the given bit, or -1 if none. */
+  private static int nextSetBit(long aMask, int aFrom){
+    long bits = aMask & (-1L << aFrom);
+    return bits == 0 ? -1 : Long.numberOfTrailingZeros(bits);
+  }
+
+  private static int valueOf(Integer aValue){
+    return aValue == null ? 0 : aValue.intValue();
+  }
+}
@@ -625,6 +625,86 @@ public final class DateTime implements Comparable<DateTime>, Serializable {
     //the adjustment for nanos is always positive, toward the future:
     return baseResult + nanosRemaining;
   }
+
+  /**
+   Return the number of days from the epoch used by {@link java.util.Date} (1970-01-01) to the date portion 
+   of this <tt>DateTime</tt>. 
+   
+   <P>This is a simple offset of the {@link #getModifiedJulianDayNumber()}. No time zone is involved, since 
+   the calculation counts calendar days, not instants.
+   <P>Requires year-month-day to be present; if not, a runtime exception is thrown.
+   */
+  public long toEpochDay(){
+    ensureHasYearMonthDay();
+    return calculateJulianDayNumberAtNoon() - EPOCH_DAY_JD;
+  }
+  
+  /**
+   Return the number of seconds from the Java epoch, treating this <tt>DateTime</tt> as being in UTC.
+   
+   <P>For values already known to be in UTC, this is a cheap alternative to {@link #getMilliseconds(TimeZone)}, 
+   which needs to build a <tt>Calendar</tt>. Missing time units are treated as 0, and any nanoseconds are ignored.
+   <P>Requires year-month-day to be present; if not, a runtime exception is thrown.
+   */
+  public long toEpochSecondUtc(){
+    return toEpochDay() * 86400L + numSecondsInTimePortion();
+  }
+  
+  /**
+   Return the number of nanoseconds from the Java epoch, treating this <tt>DateTime</tt> as being in UTC.
+   
+   <P>As in {@link #toEpochSecondUtc()}, but with nanosecond precision. A <tt>long</tt> can hold nanoseconds 
+   only for about 292 years on either side of the epoch, so this method applies only to the years 1677..2262. 
+   Outside of that range, a runtime exception is thrown.
+   <P>Requires year-month-day to be present; if not, a runtime exception is thrown.
+   */
+  public long toEpochNanoUtc(){
+    long seconds = toEpochSecondUtc();
+    int nanos = nanosecondsOrZero();
+    boolean isOutOfRange = false;
+    long result = 0;
+    if (seconds >= 0) {
+      isOutOfRange = seconds > MAX_SECONDS_FOR_NANOS || seconds * BILLION > Long.MAX_VALUE - nanos;
+      result = seconds * BILLION + nanos;
+    }
+    else {
+      //start from the following second, and go back towards the past
+      isOutOfRange = seconds + 1 < -MAX_SECONDS_FOR_NANOS || (seconds + 1) * BILLION < Long.MIN_VALUE + (BILLION - nanos);
+      result = (seconds + 1) * BILLION - (BILLION - nanos);
+    }
+    if (isOutOfRange) {
+      throw new ItemOutOfRange("DateTime can't be expressed in nanoseconds from the epoch, as a long: " + this);
+    }
+    return result;
+  }
+  
+  /**
+   Factory method returning the date having the given number of days from the epoch used by {@link java.util.Date}.
+   The inverse of {@link #toEpochDay()}. The return value has only year-month-day.
+   @param aEpochDay must correspond to a date in the range of years 1..9999.
+   */
+  public static DateTime forEpochDay(long aEpochDay){
+    return fromEpochDay(aEpochDay, null, null, null, null);
+  }
+  
+  /**
+   Factory method returning the <tt>DateTime</tt> for the given number of seconds from the Java epoch, in UTC.
+   The inverse of {@link #toEpochSecondUtc()}. The return value has all 7 units, with 0 nanoseconds.
+   @param aEpochSecond must correspond to a date in the range of years 1..9999.
+   */
+  public static DateTime forEpochSecondUtc(long aEpochSecond){
+    return fromEpochSecond(aEpochSecond, 0);
+  }
+  
+  /**
+   Factory method returning the <tt>DateTime</tt> for the given number of nanoseconds from the Java epoch, in UTC.
+   The inverse of {@link #toEpochNanoUtc()}. The return value has all 7 units. 
+   Unlike {@link #forInstantNanos(long, TimeZone)}, no <tt>Calendar</tt> is involved.
+   @param aEpochNano any value.
+   */
+  public static DateTime forEpochNanoUtc(long aEpochNano){
+    return fromEpochSecond(Util.floorDiv(aEpochNano, BILLION), (int)Util.floorMod(aEpochNano, BILLION));
+  }
   
   /**
    Return the raw date-time String passed to the {@link #DateTime(String)} constructor.
@@ -866,22 +946,22 @@ public final class DateTime implements Comparable<DateTime>, Serializable {
       throw new IllegalArgumentException("It makes no sense to truncate to nanosecond precision, since that's the highest precision available.");
     }
     else if (Unit.SECOND == aPrecision) {
-      result = new DateTime(fYear, fMonth, fDay, fHour, fMinute, fSecond, null);
+      result = fromValidParts(fYear, fMonth, fDay, fHour, fMinute, fSecond, null);
     }
     else if (Unit.MINUTE == aPrecision) {
-      result = new DateTime(fYear, fMonth, fDay, fHour, fMinute, null, null);
+      result = fromValidParts(fYear, fMonth, fDay, fHour, fMinute, null, null);
     }
     else if (Unit.HOUR == aPrecision) {
-      result = new DateTime(fYear, fMonth, fDay, fHour, null, null, null);
+      result = fromValidParts(fYear, fMonth, fDay, fHour, null, null, null);
     }
     else if (Unit.DAY == aPrecision) {
-      result = new DateTime(fYear, fMonth, fDay, null, null, null, null);
+      result = fromValidParts(fYear, fMonth, fDay, null, null, null, null);
     }
     else if (Unit.MONTH == aPrecision) {
-      result = new DateTime(fYear, fMonth, null, null, null, null, null);
+      result = fromValidParts(fYear, fMonth, null, null, null, null, null);
     }
     else if (Unit.YEAR == aPrecision) {
-      result = new DateTime(fYear, null, null, null, null, null, null);
+      result = fromValidParts(fYear, null, null, null, null, null, null);
     }
     return result;
   }
@@ -1065,10 +1145,8 @@ public final class DateTime implements Comparable<DateTime>, Serializable {
    */
   public DateTime plusDays(Integer aNumDays) {
     ensureHasYearMonthDay();
-    int thisJDAtNoon = getModifiedJulianDayNumber() + 1 + EPOCH_MODIFIED_JD;
-    int resultJD = thisJDAtNoon + aNumDays;
-    DateTime datePortion = fromJulianDayNumberAtNoon(resultJD);
-    return new DateTime(datePortion.getYear(), datePortion.getMonth(), datePortion.getDay(), fHour, fMinute, fSecond, fNanosecond);
+    int resultJD = calculateJulianDayNumberAtNoon() + aNumDays;
+    return fromJulianDayNumberAtNoon(resultJD, fHour, fMinute, fSecond, fNanosecond);
   }
 
   /**
@@ -1081,6 +1159,74 @@ public final class DateTime implements Comparable<DateTime>, Serializable {
     return plusDays(-1 * aNumDays);
   }
 
+  /**
+   Return a new <tt>DateTime</tt> by adding a signed number of seconds to this one.
+   
+   <P>Unlike {@link #plus(Integer, Integer, Integer, Integer, Integer, Integer, Integer, DayOverflow)}, the size of the 
+   change isn't limited to 0..9999, and its sign can be negative. The calculation takes the same time, whatever the 
+   size of the change. Any offset is allowed, as long as the result stays within the years <tt>1..9999</tt>.
+   
+   <P>As with the <tt>plus</tt> method, this <tt>DateTime</tt> must have year-month-day, or hour-minute-second, or both. 
+   The return value always has all 7 units: a missing time portion is treated as <tt>00:00:00.0</tt>, 
+   and a missing date portion is treated as <tt>0001-01-01</tt>.
+   @param aNumSeconds either sign.
+   */
+  public DateTime plusSeconds(long aNumSeconds) {
+    DateTimeInterval interval = new DateTimeInterval(this, DayOverflow.Abort);
+    return interval.plusSeconds(aNumSeconds, 0);
+  }
+
+  /**
+   Return a new <tt>DateTime</tt> by subtracting a signed number of seconds from this one.
+   <P>See {@link #plusSeconds(long)}.
+   @param aNumSeconds either sign.
+   */
+  public DateTime minusSeconds(long aNumSeconds) {
+    DateTimeInterval interval = new DateTimeInterval(this, DayOverflow.Abort);
+    //-Long.MIN_VALUE overflows to itself, which is rejected as out of range
+    return interval.plusSeconds(-aNumSeconds, 0);
+  }
+
+  /**
+   Return a new <tt>DateTime</tt> by adding a signed number of milliseconds to this one.
+   <P>See {@link #plusSeconds(long)}.
+   @param aNumMilliseconds either sign.
+   */
+  public DateTime plusMillis(long aNumMilliseconds) {
+    DateTimeInterval interval = new DateTimeInterval(this, DayOverflow.Abort);
+    return interval.plusSeconds(aNumMilliseconds / 1000, (aNumMilliseconds % 1000) * MILLION);
+  }
+
+  /**
+   Return a new <tt>DateTime</tt> by subtracting a signed number of milliseconds from this one.
+   <P>See {@link #plusSeconds(long)}.
+   @param aNumMilliseconds either sign.
+   */
+  public DateTime minusMillis(long aNumMilliseconds) {
+    DateTimeInterval interval = new DateTimeInterval(this, DayOverflow.Abort);
+    return interval.plusSeconds(-(aNumMilliseconds / 1000), -(aNumMilliseconds % 1000) * MILLION);
+  }
+
+  /**
+   Return a new <tt>DateTime</tt> by adding a signed number of nanoseconds to this one.
+   <P>See {@link #plusSeconds(long)}.
+   @param aNumNanoseconds either sign.
+   */
+  public DateTime plusNanos(long aNumNanoseconds) {
+    DateTimeInterval interval = new DateTimeInterval(this, DayOverflow.Abort);
+    return interval.plusSeconds(0, aNumNanoseconds);
+  }
+
+  /**
+   Return a new <tt>DateTime</tt> by subtracting a signed number of nanoseconds from this one.
+   <P>See {@link #plusSeconds(long)}.
+   @param aNumNanoseconds either sign.
+   */
+  public DateTime minusNanos(long aNumNanoseconds) {
+    DateTimeInterval interval = new DateTimeInterval(this, DayOverflow.Abort);
+    return interval.plusSeconds(-(aNumNanoseconds / BILLION), -(aNumNanoseconds % BILLION));
+  }
+
   /**  
    The whole number of days between this <tt>DateTime</tt> and the given parameter. 
    <P>Requires year-month-day to be present, both for this <tt>DateTime</tt> and for the <tt>aThat</tt> 
@@ -1100,12 +1246,87 @@ public final class DateTime implements Comparable<DateTime>, Serializable {
     long result = 0;
     aThat.ensureParsed(); //since the boolean test may short-circuit for aThat
     if(hasYearMonthDay() && aThat.hasYearMonthDay()){
-      result = numDaysFrom(aThat) * 86400; //intermediate value, just the day portion
+      result = numDaysFrom(aThat) * 86400L; //intermediate value, just the day portion
     }
     result = result - this.numSecondsInTimePortion() + aThat.numSecondsInTimePortion();
     return result;
   }
 
+  /**
+    The number of nanoseconds between this <tt>DateTime</tt> and the given argument.
+    
+    <P>The rules for missing items are the same as for {@link #numSecondsFrom(DateTime)}; in addition, 
+    missing nanoseconds are treated as 0. The result is calculated directly from the date-time units, 
+    without involving a time zone or a <tt>Calendar</tt>.
+    <P>A <tt>long</tt> can hold about 292 years of nanoseconds. If the difference is larger than that, then a 
+    runtime exception is thrown; use {@link #numMillisFrom(DateTime)} instead.
+  */
+  public long numNanosecondsFrom(DateTime aThat) {
+    long seconds = numSecondsFrom(aThat);
+    if (seconds <= -MAX_SECONDS_FOR_NANOS || seconds >= MAX_SECONDS_FOR_NANOS) {
+      throw new ItemOutOfRange("Difference is too large to express in nanoseconds. Num seconds: " + seconds);
+    }
+    return seconds * BILLION + aThat.nanosecondsOrZero() - this.nanosecondsOrZero();
+  }
+  
+  /**
+    The number of milliseconds between this <tt>DateTime</tt> and the given argument.
+    
+    <P>The rules for missing items are the same as for {@link #numNanosecondsFrom(DateTime)}. 
+    Any fraction of a millisecond is truncated towards 0, not rounded. 
+    Unlike nanoseconds, any two <tt>DateTime</tt> objects can have their difference expressed in milliseconds.
+  */
+  public long numMillisFrom(DateTime aThat) {
+    long seconds = numSecondsFrom(aThat);
+    int nanos = aThat.nanosecondsOrZero() - this.nanosecondsOrZero();
+    long result = seconds * 1000 + nanos / MILLION;
+    int nanosRemaining = nanos % MILLION;
+    //the two parts may have different signs; truncate the total towards 0
+    if (result > 0 && nanosRemaining < 0) {
+      result = result - 1;
+    }
+    else if (result < 0 && nanosRemaining > 0) {
+      result = result + 1;
+    }
+    return result;
+  }
+  
+  /**
+    Calculate {@link #numNanosecondsFrom(DateTime)} for many pairs of <tt>DateTime</tt> objects at once.
+    
+    <P>For each index <tt>i</tt>, sets <tt>aResults[i]</tt> to <tt>aStarts[i].numNanosecondsFrom(aEnds[i])</tt>.
+    The results are placed in an array supplied by the caller, so that the same array can be reused for 
+    each batch. Consecutive items sharing the same date don't repeat the day calculation.
+    
+    @param aStarts the start of each pair; the same length as <tt>aEnds</tt>.
+    @param aEnds the end of each pair.
+    @param aResults receives the results; at least as long as <tt>aStarts</tt>.
+  */
+  public static void numNanosecondsFrom(DateTime[] aStarts, DateTime[] aEnds, long[] aResults) {
+    if (aStarts.length != aEnds.length || aResults.length < aStarts.length) {
+      throw new IllegalArgumentException(
+        "Array lengths don't match. Starts: " + aStarts.length + " Ends: " + aEnds.length + " Results: " + aResults.length
+      );
+    }
+    DayCache starts = new DayCache();
+    DayCache ends = new DayCache();
+    for (int idx = 0; idx < aStarts.length; ++idx) {
+      DateTime start = aStarts[idx];
+      DateTime end = aEnds[idx];
+      start.ensureParsed();
+      end.ensureParsed();
+      long seconds = 0;
+      if (start.hasYearMonthDay() && end.hasYearMonthDay()) {
+        seconds = (ends.julianDayNumberOf(end) - starts.julianDayNumberOf(start)) * 86400L;
+      }
+      seconds = seconds - start.numSecondsInTimePortion() + end.numSecondsInTimePortion();
+      if (seconds <= -MAX_SECONDS_FOR_NANOS || seconds >= MAX_SECONDS_FOR_NANOS) {
+        throw new ItemOutOfRange("Difference at index " + idx + " is too large to express in nanoseconds. Num seconds: " + seconds);
+      }
+      aResults[idx] = seconds * BILLION + end.nanosecondsOrZero() - start.nanosecondsOrZero();
+    }
+  }
+
   /**
    Output this <tt>DateTime</tt> as a formatted String using numbers, with no localizable text.
    
@@ -1181,6 +1402,34 @@ public final class DateTime implements Comparable<DateTime>, Serializable {
   public boolean isInThePast(TimeZone aTimeZone) {
     return now(aTimeZone).gt(this);
   }
+
+  /**
+   Return the current date-time, as read from the given {@link Clock}. 
+   <P>As in {@link #now(TimeZone)}, but the caller chooses the source of the time; for example, 
+   a clock with nanosecond resolution, a cached clock, or a fixed clock for testing.
+  */
+  public static DateTime now(TimeZone aTimeZone, Clock aClock) {
+    return aClock.now(aTimeZone);
+  }
+
+  /** 
+   Return the current date, as read from the given {@link Clock}.
+   <P>As in {@link #now(TimeZone, Clock)}, but truncates the time portion, leaving only year-month-day.
+   Delegates to {@link Clock#today(TimeZone)}, so a {@link CachingClock} can return its shared value.
+  */
+  public static DateTime today(TimeZone aTimeZone, Clock aClock) {
+    return aClock.today(aTimeZone);
+  }
+
+  /** Return <tt>true</tt> only if this date is in the future, with respect to {@link #now(TimeZone, Clock)}. */
+  public boolean isInTheFuture(TimeZone aTimeZone, Clock aClock) {
+    return now(aTimeZone, aClock).lt(this);
+  }
+
+  /** Return <tt>true</tt> only if this date is in the past, with respect to {@link #now(TimeZone, Clock)}. */
+  public boolean isInThePast(TimeZone aTimeZone, Clock aClock) {
+    return now(aTimeZone, aClock).gt(this);
+  }
   
   /**
     Return a <tt>DateTime</tt> corresponding to a change from one {@link TimeZone} to another.
@@ -1430,6 +1679,14 @@ DateTime newDt = oldDt.changeTimeZone(fromUK, toIndonesia);
   }
 
   static DateTime fromJulianDayNumberAtNoon(int aJDAtNoon) {
+    return fromJulianDayNumberAtNoon(aJDAtNoon, null, null, null, null);
+  }
+
+  /**
+   Return the <tt>DateTime</tt> for the given Julian Day Number, combined with the given (already valid) time units.
+   The year-month-day calculated here is always valid, except that it can fall outside the range of years 1..9999.
+   */
+  static DateTime fromJulianDayNumberAtNoon(int aJDAtNoon, Integer aHour, Integer aMinute, Integer aSecond, Integer aNanosecond) {
     //http://www.hermetic.ch/cal_stud/jdn.htm
     int l = aJDAtNoon + 68569;
     int n = (4 * l) / 146097;
@@ -1441,7 +1698,62 @@ DateTime newDt = oldDt.changeTimeZone(fromUK, toIndonesia);
     l = j / 11;
     int m = j + 2 - (12 * l);
     int y = 100 * (n - 49) + i + l;
-    return DateTime.forDateOnly(y, m, d);
+    checkYearRange(y);
+    return fromValidParts(y, m, d, aHour, aMinute, aSecond, aNanosecond);
+  }
+
+  /**
+   Factory method for values which are already known to be valid, such as the results of calculations on other 
+   <tt>DateTime</tt> objects. No validation is performed. 
+   
+   <P>Validation is performed only where data enters this library from the outside; once inside, calculations 
+   on valid values don't need to pay for it again. <b>Never pass unchecked data to this method.</b>
+   */
+  static DateTime fromValidParts(Integer aYear, Integer aMonth, Integer aDay, Integer aHour, Integer aMinute, Integer aSecond, Integer aNanoseconds) {
+    DateTime result = new DateTime();
+    result.fYear = aYear;
+    result.fMonth = aMonth;
+    result.fDay = aDay;
+    result.fHour = aHour;
+    result.fMinute = aMinute;
+    result.fSecond = aSecond;
+    result.fNanosecond = aNanoseconds;
+    return result;
+  }
+
+  /**
+   As in {@link #fromValidParts(Integer, Integer, Integer, Integer, Integer, Integer, Integer)}, but for 
+   values in which only the year-month-day is known to be valid. The time units are validated.
+   */
+  static DateTime fromValidDate(Integer aYear, Integer aMonth, Integer aDay, Integer aHour, Integer aMinute, Integer aSecond, Integer aNanoseconds) {
+    DateTime result = fromValidParts(aYear, aMonth, aDay, aHour, aMinute, aSecond, aNanoseconds);
+    result.validateTimeState();
+    return result;
+  }
+
+  /** Throw an {@link ItemOutOfRange} if the year is not in the range 1..9999. Package-private, needed for calculations. */
+  static void checkYearRange(int aYear) {
+    if (aYear < 1 || aYear > 9999){
+      throw new ItemOutOfRange("Year is not in the range 1..9999. Value is:" + aYear);
+    }
+  }
+
+  /**
+   Return the Julian Day Number at noon of the given year-month-day, as a whole number.
+   Package-private, needed by DateTimeCursor.
+   */
+  static int julianDayNumberAtNoon(int aYear, int aMonth, int aDay) {
+    //http://www.hermetic.ch/cal_stud/jdn.htm
+    int y = aYear;
+    int m = aMonth;
+    int d = aDay;
+    int result = (1461 * (y + 4800 + (m - 14) / 12)) / 4 + (367 * (m - 2 - 12 * ((m - 14) / 12))) / 12 - (3 * ((y + 4900 + (m - 14) / 12) / 100)) / 4 + d - 32075;
+    return result;
+  }
+
+  /** Return the date-only <tt>DateTime</tt> having the given Modified Julian Day Number. Package-private, needed for ranges. */
+  static DateTime fromModifiedJulianDayNumber(int aMJD) {
+    return fromJulianDayNumberAtNoon(aMJD + 1 + EPOCH_MODIFIED_JD);
   }
 
   // PRIVATE
@@ -1481,21 +1793,31 @@ DateTime newDt = oldDt.changeTimeZone(fromUK, toIndonesia);
   
   private static int EPOCH_MODIFIED_JD = 2400000;
 
+  /** The Julian Day Number at noon of 1970-01-01, the epoch used by java.util.Date. */
+  private static final int EPOCH_DAY_JD = 2440588;
+  private static final long MIN_EPOCH_DAY = julianDayNumberAtNoon(1, 1, 1) - EPOCH_DAY_JD;
+  private static final long MAX_EPOCH_DAY = julianDayNumberAtNoon(9999, 12, 31) - EPOCH_DAY_JD;
+
   private static final int MILLION = 1000000;
+
+  private static final long BILLION = 1000000000L;
+  
+  /** Differences of this many seconds, or more, overflow a <tt>long</tt> when expressed in nanoseconds. */
+  private static final long MAX_SECONDS_FOR_NANOS = Long.MAX_VALUE / BILLION;
   
   private static final long serialVersionUID =  -1300068157085493891L; 
+  
+  /** For internal use by {@link #fromValidParts}, which populates the fields directly. */
+  private DateTime() {
+    fIsAlreadyParsed = true;
+  }
     
   /**
    Return a the whole number, with no fraction.
    The JD at noon is 1 more than the JD at midnight. 
    */
   private int calculateJulianDayNumberAtNoon() {
-    //http://www.hermetic.ch/cal_stud/jdn.htm
-    int y = fYear;
-    int m = fMonth;
-    int d = fDay;
-    int result = (1461 * (y + 4800 + (m - 14) / 12)) / 4 + (367 * (m - 2 - 12 * ((m - 14) / 12))) / 12 - (3 * ((y + 4900 + (m - 14) / 12) / 100)) / 4 + d - 32075;
-    return result;
+    return julianDayNumberAtNoon(fYear, fMonth, fDay);
   }
 
   private void ensureHasYearMonthDay() {
@@ -1505,6 +1827,42 @@ DateTime newDt = oldDt.changeTimeZone(fromUK, toIndonesia);
     }
   }
 
+  /** @param aNanos 0..999,999,999 */
+  private static DateTime fromEpochSecond(long aEpochSecond, int aNanos){
+    long epochDay = Util.floorDiv(aEpochSecond, 86400L);
+    int secondOfDay = (int)Util.floorMod(aEpochSecond, 86400L);
+    return fromEpochDay(epochDay, secondOfDay / 3600, (secondOfDay % 3600) / 60, secondOfDay % 60, aNanos);
+  }
+  
+  private static DateTime fromEpochDay(long aEpochDay, Integer aHour, Integer aMinute, Integer aSecond, Integer aNanosecond){
+    if (aEpochDay < MIN_EPOCH_DAY || aEpochDay > MAX_EPOCH_DAY) {
+      throw new ItemOutOfRange("Epoch day is not in the range of years 1..9999. Value is:" + aEpochDay);
+    }
+    return fromJulianDayNumberAtNoon((int)(aEpochDay + EPOCH_DAY_JD), aHour, aMinute, aSecond, aNanosecond);
+  }
+  
+  /** Remembers the Julian Day Number of the most recent date, for runs of items having the same date. */
+  private static final class DayCache {
+    int julianDayNumberOf(DateTime aDateTime){
+      if (fJulianDayNumber == 0 || fYear != aDateTime.fYear || fMonth != aDateTime.fMonth || fDay != aDateTime.fDay) {
+        fYear = aDateTime.fYear;
+        fMonth = aDateTime.fMonth;
+        fDay = aDateTime.fDay;
+        fJulianDayNumber = julianDayNumberAtNoon(fYear, fMonth, fDay);
+      }
+      return fJulianDayNumber;
+    }
+    private int fYear;
+    private int fMonth;
+    private int fDay;
+    private int fJulianDayNumber;
+  }
+  
+  private int nanosecondsOrZero() {
+    ensureParsed();
+    return fNanosecond == null ? 0 : fNanosecond;
+  }
+
   /** Return the number of seconds in any existing time portion of the date. */
   private int numSecondsInTimePortion() {
     int result = 0;
@@ -1524,11 +1882,15 @@ DateTime newDt = oldDt.changeTimeZone(fromUK, toIndonesia);
     checkRange(fYear, 1, 9999, "Year");
     checkRange(fMonth, 1, 12, "Month");
     checkRange(fDay, 1, 31, "Day");
+    validateTimeState();
+    checkNumDaysInMonth(fYear, fMonth, fDay);
+  }
+
+  private void validateTimeState() {
     checkRange(fHour, 0, 23, "Hour");
     checkRange(fMinute, 0, 59, "Minute");
     checkRange(fSecond, 0, 59, "Second");
     checkRange(fNanosecond, 0, 999999999, "Nanosecond");
-    checkNumDaysInMonth(fYear, fMonth, fDay);
   }
 
   private void checkRange(Integer aValue, int aMin, int aMax, String aName) {
@@ -1560,7 +1922,7 @@ DateTime newDt = oldDt.changeTimeZone(fromUK, toIndonesia);
     fMinute = dateTime.fMinute;
     fSecond = dateTime.fSecond;
     fNanosecond = dateTime.fNanosecond;
-    validateState();
+    //no need to validate again: the parser's DateTime has already been validated by its constructor
   }
 
   private boolean hasYearMonthDay(Integer aYear, Integer aMonth, Integer aDay) {
@@ -1603,7 +1965,7 @@ DateTime newDt = oldDt.changeTimeZone(fromUK, toIndonesia);
 
   private DateTime getStartEndDateTime(Integer aDay, Integer aHour, Integer aMinute, Integer aSecond, Integer aNanosecond) {
     ensureHasYearMonthDay();
-    return new DateTime(fYear, fMonth, aDay, aHour, aMinute, aSecond, aNanosecond);
+    return fromValidParts(fYear, fMonth, aDay, aHour, aMinute, aSecond, aNanosecond);
   }
   
   private String calcToStringFormat(){
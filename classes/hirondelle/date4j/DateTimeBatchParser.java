@@ -0,0 +1,186 @@
+package hirondelle.date4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ Parse large batches of date-time Strings into {@link DateTime} objects, using several threads.
+
+ <P>The batch is cut into contiguous chunks, and each chunk is parsed by a separate task.
+ Within a chunk, items are parsed in order with an {@link IncrementalDateTimeParser}, so sorted data
+ (the usual case for timestamp columns) parses only the time part of most items.
+
+ <P>A bad item doesn't abort the batch. Its position in the result is left <tt>null</tt>, and the exception
+ is recorded against its index. See {@link Result}.
+
+ <P>Example:
+ <PRE>
+  DateTimeBatchParser parser = new DateTimeBatchParser(Runtime.getRuntime().availableProcessors());
+  DateTimeBatchParser.Result result = parser.parse(column);
+  DateTime[] values = result.getDateTimes();
+  for(Integer index : result.getErrors().keySet()){
+    log("Bad value at row " + index + ": " + column[index]);
+  }
+ </PRE>
+
+ <P>The tasks can be run by an <tt>ExecutorService</tt> of the caller's choosing. On JDK 7 and above, this can be
+ a <tt>ForkJoinPool</tt>. Otherwise, a pool of daemon threads is created for each call to <tt>parse</tt>, and shut down
+ when the call completes.
+
+ <P>This class is thread-safe.
+*/
+public final class DateTimeBatchParser {
+
+  /**
+   Constructor which creates its own threads for each batch.
+   @param aParallelism the number of threads to use, 1 or more. If 1, then all work is done in the calling thread.
+  */
+  public DateTimeBatchParser(int aParallelism){
+    this(null, aParallelism);
+  }
+
+  /**
+   Constructor which runs its tasks on the given executor.
+   @param aExecutor runs the parsing tasks; it is never shut down by this class. If null, then threads are created
+   for each batch, as in {@link #DateTimeBatchParser(int)}.
+   @param aParallelism the number of tasks a batch is split into is proportional to this value; 1 or more.
+  */
+  public DateTimeBatchParser(ExecutorService aExecutor, int aParallelism){
+    if(aParallelism < 1){
+      throw new IllegalArgumentException("Parallelism must be 1 or more: " + aParallelism);
+    }
+    fExecutor = aExecutor;
+    fParallelism = aParallelism;
+  }
+
+  /**
+   The outcome of parsing a batch.
+   <P>The items of {@link #getDateTimes()} correspond one-to-one with the items of the batch.
+  */
+  public static final class Result {
+    /** Return the parsed values. Any item that failed to parse is <tt>null</tt>. */
+    public DateTime[] getDateTimes(){
+      return fDateTimes;
+    }
+    /** Return the failures, keyed by the index of the item in the batch. Empty if all items parsed successfully. */
+    public SortedMap<Integer, RuntimeException> getErrors(){
+      return Collections.unmodifiableSortedMap(fErrors);
+    }
+    /** Return <tt>true</tt> only if every item was parsed successfully. */
+    public boolean isSuccess(){
+      return fErrors.isEmpty();
+    }
+    private Result(DateTime[] aDateTimes, SortedMap<Integer, RuntimeException> aErrors){
+      fDateTimes = aDateTimes;
+      fErrors = aErrors;
+    }
+    private final DateTime[] fDateTimes;
+    private final SortedMap<Integer, RuntimeException> fErrors;
+  }
+
+  /**
+   Parse each item of the given batch, as in {@link DateTime#DateTime(String)}.
+   Unlike that constructor, each item is parsed immediately.
+   @param aDateTimes any item may be null, in which case it's recorded as an error.
+  */
+  public Result parse(String[] aDateTimes){
+    DateTime[] dateTimes = new DateTime[aDateTimes.length];
+    SortedMap<Integer, RuntimeException> errors = new TreeMap<Integer, RuntimeException>();
+    if(fParallelism == 1 || aDateTimes.length < MIN_PARALLEL_BATCH){
+      errors.putAll(parseChunk(aDateTimes, dateTimes, 0, aDateTimes.length));
+    }
+    else {
+      runInParallel(aDateTimes, dateTimes, errors);
+    }
+    return new Result(dateTimes, errors);
+  }
+
+  /** As in {@link #parse(String[])}, for a <tt>List</tt>. */
+  public Result parse(List<String> aDateTimes){
+    return parse(aDateTimes.toArray(new String[aDateTimes.size()]));
+  }
+
+  // PRIVATE
+
+  private final ExecutorService fExecutor;
+  private final int fParallelism;
+
+  /** Below this size, the cost of handing off work to other threads isn't worth paying. */
+  private static final int MIN_PARALLEL_BATCH = 4096;
+
+  /** More chunks than threads, to even out the load when some chunks run slower than others. */
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private void runInParallel(final String[] aDateTimes, final DateTime[] aResults, SortedMap<Integer, RuntimeException> aErrors){
+    ExecutorService executor = fExecutor;
+    if(executor == null){
+      executor = Executors.newFixedThreadPool(fParallelism, DAEMON_THREADS);
+    }
+    try {
+      int numChunks = Math.min(fParallelism * CHUNKS_PER_THREAD, aDateTimes.length);
+      List<Future<SortedMap<Integer, RuntimeException>>> futures = new ArrayList<Future<SortedMap<Integer, RuntimeException>>>();
+      for(int chunk = 0; chunk < numChunks; ++chunk){
+        //long arithmetic avoids overflow for very large batches
+        final int start = (int)((long)aDateTimes.length * chunk / numChunks);
+        final int end = (int)((long)aDateTimes.length * (chunk + 1) / numChunks);
+        futures.add(executor.submit(new Callable<SortedMap<Integer, RuntimeException>>() {
+          public SortedMap<Integer, RuntimeException> call() {
+            return parseChunk(aDateTimes, aResults, start, end);
+          }
+        }));
+      }
+      for(Future<SortedMap<Integer, RuntimeException>> future : futures){
+        aErrors.putAll(waitFor(future));
+      }
+    }
+    finally {
+      if(fExecutor == null){
+        executor.shutdown();
+      }
+    }
+  }
+
+  private static SortedMap<Integer, RuntimeException> parseChunk(String[] aDateTimes, DateTime[] aResults, int aStart, int aEnd){
+    SortedMap<Integer, RuntimeException> result = new TreeMap<Integer, RuntimeException>();
+    IncrementalDateTimeParser parser = new IncrementalDateTimeParser();
+    for(int idx = aStart; idx < aEnd; ++idx){
+      try {
+        aResults[idx] = parser.parse(aDateTimes[idx]);
+      }
+      catch(RuntimeException ex){
+        result.put(idx, ex);
+      }
+    }
+    return result;
+  }
+
+  private static <T> T waitFor(Future<T> aFuture){
+    try {
+      return aFuture.get();
+    }
+    catch(InterruptedException ex){
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while parsing a batch of date-times.", ex);
+    }
+    catch(ExecutionException ex){
+      throw new RuntimeException("Unexpected failure while parsing a batch of date-times.", ex.getCause());
+    }
+  }
+
+  private static final ThreadFactory DAEMON_THREADS = new ThreadFactory() {
+    public Thread newThread(Runnable aRunnable) {
+      Thread result = new Thread(aRunnable, "date4j-batch-parser");
+      result.setDaemon(true);
+      return result;
+    }
+  };
+}
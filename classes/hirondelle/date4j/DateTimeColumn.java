@@ -0,0 +1,221 @@
+package hirondelle.date4j;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ A column of <tt>DateTime</tt> values, stored with dictionary encoding.
+
+ <P>Large batches of rows often hold only a few distinct values; for example, dates made by
+ {@link DateTime#forDateOnly(Integer, Integer, Integer)} or {@link DateTime#truncate(DateTime.Unit)}.
+ This class stores each distinct value once, in a sorted dictionary, and stores each row as a small integer
+ code: its index in the dictionary. Codes take 2 bytes per row when there are at most 65,535 distinct values,
+ and 4 bytes otherwise.
+
+ <P>Since the dictionary is sorted, the order of the codes is the order of the values, as defined by
+ {@link DateTime#compareTo(DateTime)}. So, comparisons, grouping, and range filters work directly on the codes,
+ without touching the <tt>DateTime</tt> objects. The bounds of a range filter are looked up in the dictionary
+ just once.
+
+ <P>Rows may be <tt>null</tt>. A <tt>null</tt> row has the code {@link #NULL_CODE}, which comes before all
+ other codes.
+
+ <P>Example, counting rows per day:
+ <PRE>
+  DateTimeColumn column = new DateTimeColumn(days);
+  int[] counts = column.countByCode();
+  for(int code = 0; code < counts.length; ++code){
+    log(column.getValue(code) + ": " + counts[code]);
+  }
+ </PRE>
+
+ <P>This class is immutable.
+*/
+public final class DateTimeColumn {
+
+  /** The code for a <tt>null</tt> row. Less than all other codes. */
+  public static final int NULL_CODE = -1;
+
+  /**
+   Constructor.
+   @param aRows the values of the column, in row order; may contain <tt>null</tt> items. The array is not retained.
+  */
+  public DateTimeColumn(DateTime[] aRows){
+    fDictionary = distinctValues(aRows);
+    Map<DateTime, Integer> codes = new HashMap<DateTime, Integer>();
+    for(int code = 0; code < fDictionary.length; ++code){
+      codes.put(fDictionary[code], Integer.valueOf(code));
+    }
+    fSize = aRows.length;
+    if(fDictionary.length <= MAX_SHORT_CODES){
+      fShortCodes = new char[fSize];
+      fIntCodes = null;
+    }
+    else {
+      fShortCodes = null;
+      fIntCodes = new int[fSize];
+    }
+    for(int row = 0; row < fSize; ++row){
+      int storedCode = aRows[row] == null ? 0 : codes.get(aRows[row]).intValue() + 1;
+      if(fShortCodes != null){
+        fShortCodes[row] = (char)storedCode;
+      }
+      else {
+        fIntCodes[row] = storedCode;
+      }
+    }
+  }
+
+  /** Constructor. See {@link #DateTimeColumn(DateTime[])}. */
+  public DateTimeColumn(Collection<DateTime> aRows){
+    this(aRows.toArray(new DateTime[aRows.size()]));
+  }
+
+  /** Return the number of rows. */
+  public int size(){
+    return fSize;
+  }
+
+  /** Return the number of distinct non-<tt>null</tt> values, which is also the number of codes, not counting {@link #NULL_CODE}. */
+  public int getNumDistinct(){
+    return fDictionary.length;
+  }
+
+  /** Return the code for the given row: an index into the dictionary, or {@link #NULL_CODE}. */
+  public int getCode(int aRow){
+    return storedCode(aRow) - 1;
+  }
+
+  /** Return the value for the given code: 0..getNumDistinct()-1. Returns <tt>null</tt> for {@link #NULL_CODE}. */
+  public DateTime getValue(int aCode){
+    return aCode == NULL_CODE ? null : fDictionary[aCode];
+  }
+
+  /** Return the value in the given row. Rows having the same value share the same object. */
+  public DateTime get(int aRow){
+    return getValue(getCode(aRow));
+  }
+
+  /**
+   Return the code for the given value, if present in the dictionary.
+   As in <tt>Arrays.binarySearch</tt>, if the value isn't present, then returns <tt>(-(insertion point) - 1)</tt>.
+   Returns {@link #NULL_CODE} for <tt>null</tt>.
+  */
+  public int findCode(DateTime aValue){
+    return aValue == null ? NULL_CODE : Arrays.binarySearch(fDictionary, aValue);
+  }
+
+  /** Compare the values of two rows, in the same way as {@link DateTime#compareTo(DateTime)}, with <tt>null</tt> first. */
+  public int compareRows(int aRow, int aOtherRow){
+    int thisCode = storedCode(aRow);
+    int thatCode = storedCode(aOtherRow);
+    return thisCode < thatCode ? -1 : (thisCode == thatCode ? 0 : 1);
+  }
+
+  /**
+   Return the number of rows for each value, indexed by code. The number of <tt>null</tt> rows is
+   not included; see {@link #countNulls()}.
+  */
+  public int[] countByCode(){
+    int[] counts = new int[fDictionary.length + 1];
+    for(int row = 0; row < fSize; ++row){
+      ++counts[codeAt(row)];
+    }
+    int[] result = new int[fDictionary.length];
+    System.arraycopy(counts, 1, result, 0, result.length);
+    return result;
+  }
+
+  /** Return the number of <tt>null</tt> rows. */
+  public int countNulls(){
+    int result = 0;
+    for(int row = 0; row < fSize; ++row){
+      if(codeAt(row) == 0){
+        ++result;
+      }
+    }
+    return result;
+  }
+
+  /**
+   Return the rows whose value is in the given range, as a set of row indexes.
+   Rows whose value is <tt>null</tt> are never included.
+   @param aLow the lowest value included in the range; <tt>null</tt> for no lower bound.
+   @param aHigh the highest value included in the range; <tt>null</tt> for no upper bound.
+  */
+  public BitSet rowsInRange(DateTime aLow, DateTime aHigh){
+    //stored codes are 1 more than codes
+    int lowCode = aLow == null ? 1 : ceilingCode(aLow) + 1;
+    int highCode = aHigh == null ? fDictionary.length : floorCode(aHigh) + 1;
+    BitSet result = new BitSet(fSize);
+    if(lowCode <= highCode){
+      for(int row = 0; row < fSize; ++row){
+        int code = codeAt(row);
+        if(code >= lowCode && code <= highCode){
+          result.set(row);
+        }
+      }
+    }
+    return result;
+  }
+
+  /** Intended for debugging only. */
+  @Override public String toString(){
+    return "DateTimeColumn rows:" + fSize + " distinct values:" + fDictionary.length;
+  }
+
+  // PRIVATE
+
+  /** Sorted, with no duplicates and no nulls. */
+  private final DateTime[] fDictionary;
+  private final int fSize;
+  /** Code + 1 for each row, with 0 for null; used for dictionaries of up to 65,535 items. */
+  private final char[] fShortCodes;
+  /** Code + 1 for each row, with 0 for null; used for larger dictionaries. */
+  private final int[] fIntCodes;
+
+  /** The stored code for the last item must fit in a char. */
+  private static final int MAX_SHORT_CODES = Character.MAX_VALUE;
+
+  /** Return the distinct non-null values, sorted. */
+  private static DateTime[] distinctValues(DateTime[] aRows){
+    Set<DateTime> distinct = new HashSet<DateTime>();
+    for(DateTime row : aRows){
+      if(row != null){
+        distinct.add(row);
+      }
+    }
+    DateTime[] result = distinct.toArray(new DateTime[distinct.size()]);
+    Arrays.sort(result);
+    return result;
+  }
+
+  private int storedCode(int aRow){
+    if(aRow < 0 || aRow >= fSize){
+      throw new IndexOutOfBoundsException("Row " + aRow + " is not in the range 0.." + (fSize - 1));
+    }
+    return codeAt(aRow);
+  }
+
+  /** As in storedCode, but with no check on the index, for internal loops. */
+  private int codeAt(int aRow){
+    return fShortCodes != null ? fShortCodes[aRow] : fIntCodes[aRow];
+  }
+
+  /** The code of the smallest value greater than or equal to the given value; may be the number of codes. */
+  private int ceilingCode(DateTime aValue){
+    int result = Arrays.binarySearch(fDictionary, aValue);
+    return result >= 0 ? result : -result - 1;
+  }
+
+  /** The code of the largest value less than or equal to the given value; may be -1. */
+  private int floorCode(DateTime aValue){
+    int result = Arrays.binarySearch(fDictionary, aValue);
+    return result >= 0 ? result : -result - 2;
+  }
+}
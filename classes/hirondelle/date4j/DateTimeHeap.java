@@ -0,0 +1,264 @@
+package hirondelle.date4j;
+
+import java.util.NoSuchElementException;
+
+/**
+ A priority queue of items keyed by {@link DateTime}, with the earliest key first.
+
+ <P>A <tt>PriorityQueue&lt;DateTime&gt;</tt> holds a reference to each item, and orders them by calling
+ {@link DateTime#compareTo(DateTime)}, which compares up to seven <tt>Integer</tt> objects at each step.
+ This class instead packs each key, once, into a pair of primitives whose order is the same as <tt>compareTo</tt>
+ (as in {@link DateTimeIndex}), and keeps the keys in a 4-ary heap of parallel primitive arrays.
+ A 4-ary heap is shallower than a binary heap, and the children of each node sit next to each other in memory,
+ so each level of a sift costs about one cache miss.
+
+ <P>Each item pushed onto the heap is given an <tt>int</tt> handle, which identifies it until it is popped.
+ The handle is used to move the item forward with {@link #decreaseKey(int, DateTime)}, in <tt>O(log n)</tt> time.
+ Handles are reused after their items are popped, so a handle must not be used after its item has left the heap.
+
+ <P>Once the heap has grown to its largest size, {@link #push(DateTime, Object)}, {@link #pop()},
+ {@link #peek()} and {@link #decreaseKey(int, DateTime)} allocate nothing.
+
+ <P>Items having the same key are popped in no particular order.
+
+ <P>Example:
+ <PRE>
+  DateTimeHeap&lt;Event&gt; events = new DateTimeHeap&lt;Event&gt;(1024);
+  int handle = events.push(event.getTime(), event);
+  ...
+  events.decreaseKey(handle, earlierTime);
+  ...
+  while(! events.isEmpty() && events.peekKey().lteq(watermark)){
+    process(events.pop());
+  }
+ </PRE>
+
+ <P>This class is mutable, and is not thread-safe.
+*/
+public final class DateTimeHeap<T> {
+
+  /**
+   Constructor.
+   @param aInitialCapacity the number of items the heap holds before it needs to grow; 1 or more.
+  */
+  public DateTimeHeap(int aInitialCapacity){
+    if(aInitialCapacity < 1){
+      throw new IllegalArgumentException("Initial capacity must be 1 or more: " + aInitialCapacity);
+    }
+    allocate(aInitialCapacity);
+  }
+
+  /** Return the number of items in the heap. */
+  public int size(){
+    return fSize;
+  }
+
+  /** Return <tt>true</tt> only if the heap has no items. */
+  public boolean isEmpty(){
+    return fSize == 0;
+  }
+
+  /**
+   Add an item to the heap.
+   @param aKey the key of the item; must not be <tt>null</tt>.
+   @param aItem may be <tt>null</tt>.
+   @return the handle of the item, for use with {@link #decreaseKey(int, DateTime)}, until the item is popped.
+  */
+  public int push(DateTime aKey, T aItem){
+    if(aKey == null){
+      throw new IllegalArgumentException("Key is null.");
+    }
+    if(fSize == fHigh.length){
+      allocate(2 * fHigh.length);
+    }
+    int handle = fNumFreeHandles > 0 ? fFreeHandles[--fNumFreeHandles] : fSize;
+    fKeys[handle] = aKey;
+    fItems[handle] = aItem;
+    siftUp(fSize, DateTimeKey.high(aKey), DateTimeKey.low(aKey), handle);
+    ++fSize;
+    return handle;
+  }
+
+  /** Return the item having the earliest key, without removing it. The heap must not be empty. */
+  public T peek(){
+    return fItems[peekHandle()];
+  }
+
+  /** Return the earliest key. The heap must not be empty. */
+  public DateTime peekKey(){
+    return fKeys[peekHandle()];
+  }
+
+  /** Return the handle of the item having the earliest key. The heap must not be empty. */
+  public int peekHandle(){
+    checkNotEmpty();
+    return fHandles[0];
+  }
+
+  /** Remove and return the item having the earliest key. The heap must not be empty. */
+  public T pop(){
+    int handle = peekHandle();
+    T result = fItems[handle];
+    fKeys[handle] = null;
+    fItems[handle] = null;
+    fPositions[handle] = NOT_IN_HEAP;
+    fFreeHandles[fNumFreeHandles++] = handle;
+    --fSize;
+    if(fSize > 0){
+      siftDown(0, fHigh[fSize], fLow[fSize], fHandles[fSize]);
+    }
+    return result;
+  }
+
+  /**
+   Move an item forward, by giving it an earlier key.
+   @param aHandle returned by {@link #push(DateTime, Object)}, for an item still in the heap.
+   @param aKey not later than the item's current key.
+  */
+  public void decreaseKey(int aHandle, DateTime aKey){
+    if(aHandle < 0 || aHandle >= fPositions.length || fPositions[aHandle] == NOT_IN_HEAP){
+      throw new IllegalArgumentException("No item in the heap has the handle " + aHandle);
+    }
+    if(aKey == null || aKey.gt(fKeys[aHandle])){
+      throw new IllegalArgumentException("New key " + Util.quote(aKey) + " is later than the current key " + Util.quote(fKeys[aHandle]));
+    }
+    fKeys[aHandle] = aKey;
+    siftUp(fPositions[aHandle], DateTimeKey.high(aKey), DateTimeKey.low(aKey), aHandle);
+  }
+
+  /** Return <tt>true</tt> only if the given handle belongs to an item in the heap. */
+  public boolean contains(int aHandle){
+    return aHandle >= 0 && aHandle < fPositions.length && fPositions[aHandle] != NOT_IN_HEAP;
+  }
+
+  /** Remove all items. Keeps the capacity. */
+  public void clear(){
+    for(int idx = 0; idx < fKeys.length; ++idx){
+      fKeys[idx] = null;
+      fItems[idx] = null;
+      fPositions[idx] = NOT_IN_HEAP;
+    }
+    fSize = 0;
+    fNumFreeHandles = 0;
+  }
+
+  /** Intended for debugging only. */
+  @Override public String toString(){
+    return "DateTimeHeap size:" + fSize + (fSize > 0 ? " earliest:" + peekKey() : "");
+  }
+
+  // PRIVATE
+
+  /* Indexed by position in the heap. */
+  private long[] fHigh;
+  private int[] fLow;
+  private int[] fHandles;
+
+  /* Indexed by handle. */
+  private DateTime[] fKeys;
+  private T[] fItems;
+  /** The position of each item in the heap, or NOT_IN_HEAP. */
+  private int[] fPositions;
+
+  /** A stack of handles freed by pop, for reuse. Handles beyond fSize + fNumFreeHandles have never been used. */
+  private int[] fFreeHandles;
+  private int fNumFreeHandles;
+  private int fSize;
+
+  private static final int ARITY_BITS = 2;
+  private static final int ARITY = 1 << ARITY_BITS;
+  private static final int NOT_IN_HEAP = -1;
+
+  /** Grow all arrays to the given capacity, keeping their contents. */
+  @SuppressWarnings("unchecked")
+  private void allocate(int aCapacity){
+    int oldCapacity = fHigh == null ? 0 : fHigh.length;
+    fHigh = grow(fHigh, aCapacity);
+    fLow = grow(fLow, aCapacity);
+    fHandles = grow(fHandles, aCapacity);
+    fPositions = grow(fPositions, aCapacity);
+    fFreeHandles = grow(fFreeHandles, aCapacity);
+    for(int idx = oldCapacity; idx < aCapacity; ++idx){
+      fPositions[idx] = NOT_IN_HEAP;
+    }
+    DateTime[] keys = new DateTime[aCapacity];
+    Object[] items = new Object[aCapacity];
+    if(oldCapacity > 0){
+      System.arraycopy(fKeys, 0, keys, 0, oldCapacity);
+      System.arraycopy(fItems, 0, items, 0, oldCapacity);
+    }
+    fKeys = keys;
+    fItems = (T[])items;
+  }
+
+  private static long[] grow(long[] aArray, int aCapacity){
+    long[] result = new long[aCapacity];
+    if(aArray != null){
+      System.arraycopy(aArray, 0, result, 0, aArray.length);
+    }
+    return result;
+  }
+
+  private static int[] grow(int[] aArray, int aCapacity){
+    int[] result = new int[aCapacity];
+    if(aArray != null){
+      System.arraycopy(aArray, 0, result, 0, aArray.length);
+    }
+    return result;
+  }
+
+  private void checkNotEmpty(){
+    if(fSize == 0){
+      throw new NoSuchElementException("Heap is empty.");
+    }
+  }
+
+  private static boolean isBefore(long aHigh, int aLow, long aThatHigh, int aThatLow){
+    return aHigh < aThatHigh || (aHigh == aThatHigh && aLow < aThatLow);
+  }
+
+  private void place(int aPosition, long aHigh, int aLow, int aHandle){
+    fHigh[aPosition] = aHigh;
+    fLow[aPosition] = aLow;
+    fHandles[aPosition] = aHandle;
+    fPositions[aHandle] = aPosition;
+  }
+
+  /** Put the given entry at the given position, or above it, moving later parents down. */
+  private void siftUp(int aPosition, long aHigh, int aLow, int aHandle){
+    int position = aPosition;
+    while(position > 0){
+      int parent = (position - 1) >>> ARITY_BITS;
+      if(! isBefore(aHigh, aLow, fHigh[parent], fLow[parent])){
+        break;
+      }
+      place(position, fHigh[parent], fLow[parent], fHandles[parent]);
+      position = parent;
+    }
+    place(position, aHigh, aLow, aHandle);
+  }
+
+  /** Put the given entry at the given position, or below it, moving earlier children up. */
+  private void siftDown(int aPosition, long aHigh, int aLow, int aHandle){
+    int position = aPosition;
+    while(true){
+      int firstChild = (position << ARITY_BITS) + 1;
+      if(firstChild >= fSize){
+        break;
+      }
+      int lastChild = Math.min(firstChild + ARITY, fSize);
+      int earliest = firstChild;
+      for(int child = firstChild + 1; child < lastChild; ++child){
+        if(isBefore(fHigh[child], fLow[child], fHigh[earliest], fLow[earliest])){
+          earliest = child;
+        }
+      }
+      if(! isBefore(fHigh[earliest], fLow[earliest], aHigh, aLow)){
+        break;
+      }
+      place(position, fHigh[earliest], fLow[earliest], fHandles[earliest]);
+      position = earliest;
+    }
+    place(position, aHigh, aLow, aHandle);
+  }
+}
@@ -0,0 +1,155 @@
+package hirondelle.date4j;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ An immutable, sorted index of {@link DateTime} values, answering floor, ceiling, and range queries in <tt>O(log n)</tt> time.
+
+ <P>Queries such as 'all events between t1 and t2' are often written as a scan, calling <tt>lt</tt> and <tt>gteq</tt>
+ on each item. This class sorts the values once, and packs each one into a key of primitives whose order is the same as
+ {@link DateTime#compareTo(DateTime)} (see {@link DateTimeKeyCodec}). Each query then packs its argument in the same way,
+ and does a binary search over the keys, with no further calls to <tt>compareTo</tt>.
+
+ <P>The binary search has no early exit, and its loop body chooses between two values instead of branching on the
+ comparison; a modern JVM compiles that choice to a conditional move.
+ This avoids the branch mispredictions of an ordinary binary search. The keys are kept in sorted order
+ (rather than a layout such as Eytzinger's), so that the items of a range are contiguous.
+
+ <P>The query methods allocate nothing, except for {@link #range(DateTime, DateTime)}, which returns a light-weight view.
+ Ranges are <em>inclusive</em> of both ends, in the same way as {@link DateTimeColumn#rowsInRange(DateTime, DateTime)}.
+
+ <P>Example:
+ <PRE>
+  DateTimeIndex index = new DateTimeIndex(eventTimes);
+  int numEvents = index.countInRange(startOfDay, endOfDay);
+  for(int idx = index.ceilingIndex(startOfDay); idx <= index.floorIndex(endOfDay); ++idx){
+    DateTime eventTime = index.get(idx);
+    ...
+  }
+ </PRE>
+
+ <P>This class is immutable.
+*/
+public final class DateTimeIndex {
+
+  /**
+   Constructor.
+   @param aDateTimes in any order, and possibly with duplicates; must not contain <tt>null</tt> items.
+   The array is not changed, and not retained.
+  */
+  public DateTimeIndex(DateTime[] aDateTimes){
+    fDateTimes = aDateTimes.clone();
+    if(! isSorted(fDateTimes)){
+      new DateTimeSorter(1).sort(fDateTimes);
+    }
+    fHigh = new long[fDateTimes.length];
+    fLow = new int[fDateTimes.length];
+    for(int idx = 0; idx < fDateTimes.length; ++idx){
+      fHigh[idx] = DateTimeKey.high(fDateTimes[idx]);
+      fLow[idx] = DateTimeKey.low(fDateTimes[idx]);
+    }
+    fList = Collections.unmodifiableList(Arrays.asList(fDateTimes));
+  }
+
+  /** Return the number of items in the index. */
+  public int size(){
+    return fDateTimes.length;
+  }
+
+  /** Return the item at the given index, in ascending order. */
+  public DateTime get(int aIndex){
+    return fDateTimes[aIndex];
+  }
+
+  /** Return the index of the first item greater than or equal to the given value; returns <tt>size()</tt> if there is none. */
+  public int ceilingIndex(DateTime aValue){
+    return lowerBound(DateTimeKey.high(aValue), DateTimeKey.low(aValue));
+  }
+
+  /** Return the index of the last item less than or equal to the given value; returns <tt>-1</tt> if there is none. */
+  public int floorIndex(DateTime aValue){
+    return upperBound(DateTimeKey.high(aValue), DateTimeKey.low(aValue)) - 1;
+  }
+
+  /** Return the least item greater than or equal to the given value; returns <tt>null</tt> if there is none. */
+  public DateTime ceiling(DateTime aValue){
+    int idx = ceilingIndex(aValue);
+    return idx < fDateTimes.length ? fDateTimes[idx] : null;
+  }
+
+  /** Return the greatest item less than or equal to the given value; returns <tt>null</tt> if there is none. */
+  public DateTime floor(DateTime aValue){
+    int idx = floorIndex(aValue);
+    return idx >= 0 ? fDateTimes[idx] : null;
+  }
+
+  /** Return the number of items in the range <tt>aLow..aHigh</tt>, including both ends. */
+  public int countInRange(DateTime aLow, DateTime aHigh){
+    return Math.max(0, floorIndex(aHigh) + 1 - ceilingIndex(aLow));
+  }
+
+  /**
+   Return the items in the range <tt>aLow..aHigh</tt>, including both ends, in ascending order.
+   The result is an unmodifiable view backed by this index; the items are not copied.
+  */
+  public List<DateTime> range(DateTime aLow, DateTime aHigh){
+    int start = ceilingIndex(aLow);
+    int end = Math.max(start, floorIndex(aHigh) + 1);
+    return fList.subList(start, end);
+  }
+
+  /** Intended for debugging only. */
+  @Override public String toString(){
+    String result = "[]";
+    if(fDateTimes.length > 0){
+      result = "[" + fDateTimes[0] + ".." + fDateTimes[fDateTimes.length - 1] + ", " + fDateTimes.length + " items]";
+    }
+    return result;
+  }
+
+  // PRIVATE
+
+  /** Sorted. */
+  private final DateTime[] fDateTimes;
+  private final long[] fHigh;
+  private final int[] fLow;
+  private final List<DateTime> fList;
+
+  private static boolean isSorted(DateTime[] aDateTimes){
+    boolean result = true;
+    for(int idx = 1; idx < aDateTimes.length && result; ++idx){
+      result = aDateTimes[idx - 1].compareTo(aDateTimes[idx]) <= 0;
+    }
+    return result;
+  }
+
+  /** The index of the first key greater than or equal to the given key. */
+  private int lowerBound(long aHigh, int aLow){
+    int first = 0;
+    int length = fHigh.length;
+    while(length > 0){
+      int half = length >>> 1;
+      int middle = first + half;
+      boolean isLess = fHigh[middle] < aHigh | (fHigh[middle] == aHigh & fLow[middle] < aLow);
+      first = isLess ? middle + 1 : first;
+      length = isLess ? length - half - 1 : half;
+    }
+    return first;
+  }
+
+  /** The index of the first key strictly greater than the given key. */
+  private int upperBound(long aHigh, int aLow){
+    int first = 0;
+    int length = fHigh.length;
+    while(length > 0){
+      int half = length >>> 1;
+      int middle = first + half;
+      boolean isLessOrEqual = fHigh[middle] < aHigh | (fHigh[middle] == aHigh & fLow[middle] <= aLow);
+      first = isLessOrEqual ? middle + 1 : first;
+      length = isLessOrEqual ? length - half - 1 : half;
+    }
+    return first;
+  }
+}
@@ -31,6 +31,30 @@ final class DateTimeInterval {
     return plusOrMinus(MINUS, aYear, aMonth, aDay, aHour, aMinute, aSecond, aNanosecond);
   }
   
+  /**
+   Add a signed number of seconds and nanoseconds, in constant time.
+   Unlike the odometer-style calculations, the time is converted into a count of seconds from a Julian Day Number, 
+   and the sum is converted back.
+   @param aNumSeconds either sign.
+   @param aNumNanoseconds either sign; any size.
+  */
+  DateTime plusSeconds(long aNumSeconds, long aNumNanoseconds){
+    if(aNumSeconds < -MAX_SECONDS || aNumSeconds > MAX_SECONDS){
+      throw new DateTime.ItemOutOfRange("Number of seconds is too large for the range of years 1..9999: " + aNumSeconds);
+    }
+    long nanos = fNanosecond + aNumNanoseconds % BILLION;
+    long seconds = aNumSeconds + aNumNanoseconds / BILLION + Util.floorDiv(nanos, BILLION);
+    nanos = Util.floorMod(nanos, BILLION);
+    long secondOfDay = fHour * 3600L + fMinute * 60L + fSecond + seconds % SECONDS_PER_DAY;
+    long jd = DateTime.julianDayNumberAtNoon(fYear, fMonth, fDay) + seconds / SECONDS_PER_DAY + Util.floorDiv(secondOfDay, SECONDS_PER_DAY);
+    secondOfDay = Util.floorMod(secondOfDay, SECONDS_PER_DAY);
+    if(jd < FIRST_JD || jd > LAST_JD){
+      throw new DateTime.ItemOutOfRange("Year is not in the range 1..9999. Julian Day Number is:" + jd);
+    }
+    int second = (int)secondOfDay;
+    return DateTime.fromJulianDayNumberAtNoon((int)jd, second / 3600, (second % 3600) / 60, second % 60, (int)nanos);
+  }
+  
   // PRIVATE 
   
   //the base date to which the interval is calculated
@@ -64,6 +88,13 @@ final class DateTimeInterval {
   private static final boolean PLUS = true;
   private static final boolean MINUS = false;
 
+  private static final long BILLION = 1000000000L;
+  private static final long SECONDS_PER_DAY = 86400L;
+  private static final int FIRST_JD = DateTime.julianDayNumberAtNoon(1, 1, 1);
+  private static final int LAST_JD = DateTime.julianDayNumberAtNoon(9999, 12, 31);
+  /** More than the number of seconds between the earliest and latest DateTime. */
+  private static final long MAX_SECONDS = (LAST_JD - FIRST_JD + 1) * SECONDS_PER_DAY;
+
   private void checkUnits(){
     boolean success = false;
     if(fFrom.unitsAllPresent(Unit.YEAR, Unit.MONTH, Unit.DAY, Unit.HOUR, Unit.MINUTE, Unit.SECOND) ){
@@ -110,7 +141,9 @@ final class DateTimeInterval {
     changeSecond();
     changeNanosecond();
     
-    return new DateTime(fYear, fMonth, fDay, fHour, fMinute, fSecond, fNanosecond);
+    //stepping always leaves a valid month, day, and time; only the year can go out of range
+    DateTime.checkYearRange(fYear);
+    return DateTime.fromValidParts(fYear, fMonth, fDay, fHour, fMinute, fSecond, fNanosecond);
   }
 
   private void checkRange(Integer aValue, String aName) {
@@ -132,7 +165,7 @@ final class DateTimeInterval {
     else {
       fYear = fFrom.getYear() - fYearIncr;
     }
-    //the DateTime ctor will check the range of the year 
+    //the range of the year is checked at the end of the calculation
   }
   
   private void changeMonth(){
@@ -0,0 +1,75 @@
+package hirondelle.date4j;
+
+/**
+ Packs the units of a {@link DateTime} into a pair of primitives, whose natural order is the same as
+ {@link DateTime#compareTo(DateTime)}.
+
+ <P>Each unit is stored as its value plus 1, with 0 standing for a missing (<tt>null</tt>) unit. This keeps
+ the nulls-first ordering of <tt>compareTo</tt>, and lets the <tt>DateTime</tt> be recovered exactly, including
+ which of its units are present.
+ <ul>
+ <li>the high part is a <tt>long</tt> of 41 bits: year (14 bits), month (4), day (6), hour (5), minute (6), second (6).
+ <li>the low part is an <tt>int</tt> of 30 bits: the nanoseconds.
+ </ul>
+ Comparing the high parts, and then the low parts, orders keys exactly as their <tt>DateTime</tt> objects.
+ Both parts are never negative.
+
+ <P>Package-private, shared by the binary encodings in this package.
+*/
+final class DateTimeKey {
+
+  /** Number of significant bits in the high part. */
+  static final int HIGH_BITS = 41;
+
+  /** Number of significant bits in the low part. */
+  static final int LOW_BITS = 30;
+
+  /** Return the high part of the key for the given <tt>DateTime</tt>. */
+  static long high(DateTime aDateTime){
+    long result = plusOne(aDateTime.getYear());
+    result = (result << 4) | plusOne(aDateTime.getMonth());
+    result = (result << 6) | plusOne(aDateTime.getDay());
+    result = (result << 5) | plusOne(aDateTime.getHour());
+    result = (result << 6) | plusOne(aDateTime.getMinute());
+    result = (result << 6) | plusOne(aDateTime.getSecond());
+    return result;
+  }
+
+  /** Return the low part of the key for the given <tt>DateTime</tt>. */
+  static int low(DateTime aDateTime){
+    return plusOne(aDateTime.getNanoseconds());
+  }
+
+  /**
+   Return the <tt>DateTime</tt> having the given key.
+   Keys may come from outside the library, so the result is fully validated; a corrupt key causes a runtime exception.
+  */
+  static DateTime toDateTime(long aHigh, int aLow){
+    if(aHigh < 0 || aHigh >= (1L << HIGH_BITS) || aLow < 0 || aLow >= (1 << LOW_BITS)){
+      throw new IllegalArgumentException("Not a valid DateTime key: " + aHigh + "/" + aLow);
+    }
+    return new DateTime(
+      minusOne((int)(aHigh >>> 27)),
+      minusOne((int)(aHigh >>> 23) & 0xF),
+      minusOne((int)(aHigh >>> 17) & 0x3F),
+      minusOne((int)(aHigh >>> 12) & 0x1F),
+      minusOne((int)(aHigh >>> 6) & 0x3F),
+      minusOne((int)aHigh & 0x3F),
+      minusOne(aLow)
+    );
+  }
+
+  // PRIVATE
+
+  private DateTimeKey(){
+    //prevent construction
+  }
+
+  private static int plusOne(Integer aValue){
+    return aValue == null ? 0 : aValue.intValue() + 1;
+  }
+
+  private static Integer minusOne(int aValue){
+    return aValue == 0 ? null : Integer.valueOf(aValue - 1);
+  }
+}
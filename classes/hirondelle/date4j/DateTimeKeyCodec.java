@@ -0,0 +1,129 @@
+package hirondelle.date4j;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ Encodes a {@link DateTime} as a fixed-width binary key, whose byte order is the same as {@link DateTime#compareTo(DateTime)}.
+
+ <P>Key-value stores usually order their keys by comparing bytes, as unsigned values, from first to last
+ (like the C function <tt>memcmp</tt>). The text form of a <tt>DateTime</tt> is long, and sorts incorrectly
+ when units are missing. The keys made by this class are always {@link #LENGTH} bytes long, and sort exactly as
+ <tt>compareTo</tt>, including the 'nulls first' rule for missing units. Decoding recovers the <tt>DateTime</tt>
+ exactly, including which units are present.
+
+ <P>The key holds 7 unsigned fields, each storing its unit plus 1 (0 for a missing unit), packed big-endian
+ into 71 bits: year (14 bits), month (4), day (6), hour (5), minute (6), second (6), and nanosecond (30).
+ The first bit of the 9 bytes is always 0.
+
+ <P>Keys can be written to and read from a <tt>byte[]</tt>, a <tt>ByteBuffer</tt> (whatever its byte order),
+ or a <tt>DataOutput</tt>/<tt>DataInput</tt>. Decoding validates the <tt>DateTime</tt>, so that corrupt data
+ causes a runtime exception.
+*/
+public final class DateTimeKeyCodec {
+
+  /** The number of bytes in a key. */
+  public static final int LENGTH = 9;
+
+  /**
+   Write the key for a <tt>DateTime</tt> into an array.
+   @param aDest receives {@link #LENGTH} bytes, starting at <tt>aOffset</tt>.
+  */
+  public static void encode(DateTime aDateTime, byte[] aDest, int aOffset){
+    long high = DateTimeKey.high(aDateTime);
+    aDest[aOffset] = firstByte(high);
+    long rest = remainingBytes(high, DateTimeKey.low(aDateTime));
+    for(int idx = 1; idx < LENGTH; ++idx){
+      aDest[aOffset + idx] = (byte)(rest >>> (64 - 8 * idx));
+    }
+  }
+
+  /** Return the key for a <tt>DateTime</tt>, as a new array. */
+  public static byte[] encode(DateTime aDateTime){
+    byte[] result = new byte[LENGTH];
+    encode(aDateTime, result, 0);
+    return result;
+  }
+
+  /** Write the key for a <tt>DateTime</tt> at the current position of the buffer, and advance the position. */
+  public static void encode(DateTime aDateTime, ByteBuffer aDest){
+    long high = DateTimeKey.high(aDateTime);
+    aDest.put(firstByte(high));
+    long rest = remainingBytes(high, DateTimeKey.low(aDateTime));
+    for(int idx = 1; idx < LENGTH; ++idx){
+      aDest.put((byte)(rest >>> (64 - 8 * idx)));
+    }
+  }
+
+  /** Write the key for a <tt>DateTime</tt> to a <tt>DataOutput</tt>. */
+  public static void encode(DateTime aDateTime, DataOutput aDest) throws IOException {
+    long high = DateTimeKey.high(aDateTime);
+    aDest.writeByte(firstByte(high));
+    aDest.writeLong(remainingBytes(high, DateTimeKey.low(aDateTime)));
+  }
+
+  /**
+   Return the <tt>DateTime</tt> for the key in an array.
+   @param aSource holds {@link #LENGTH} bytes, starting at <tt>aOffset</tt>.
+  */
+  public static DateTime decode(byte[] aSource, int aOffset){
+    long rest = 0;
+    for(int idx = 1; idx < LENGTH; ++idx){
+      rest = (rest << 8) | (aSource[aOffset + idx] & 0xFF);
+    }
+    return toDateTime(aSource[aOffset], rest);
+  }
+
+  /** Return the <tt>DateTime</tt> for the key at the current position of the buffer, and advance the position. */
+  public static DateTime decode(ByteBuffer aSource){
+    byte first = aSource.get();
+    long rest = 0;
+    for(int idx = 1; idx < LENGTH; ++idx){
+      rest = (rest << 8) | (aSource.get() & 0xFF);
+    }
+    return toDateTime(first, rest);
+  }
+
+  /** Return the <tt>DateTime</tt> for the key read from a <tt>DataInput</tt>. */
+  public static DateTime decode(DataInput aSource) throws IOException {
+    byte first = aSource.readByte();
+    return toDateTime(first, aSource.readLong());
+  }
+
+  /**
+   Compare two keys held in arrays, as unsigned bytes.
+   The result has the same sign as <tt>compareTo</tt> applied to the corresponding <tt>DateTime</tt> objects.
+  */
+  public static int compare(byte[] aThis, int aThisOffset, byte[] aThat, int aThatOffset){
+    int result = 0;
+    for(int idx = 0; idx < LENGTH && result == 0; ++idx){
+      result = (aThis[aThisOffset + idx] & 0xFF) - (aThat[aThatOffset + idx] & 0xFF);
+    }
+    return result;
+  }
+
+  // PRIVATE
+
+  /** The bits of the high part of the key which follow its first byte. */
+  private static final int HIGH_REST_BITS = 64 - DateTimeKey.LOW_BITS;
+
+  private DateTimeKeyCodec(){
+    //prevent construction
+  }
+
+  private static byte firstByte(long aHigh){
+    return (byte)(aHigh >>> HIGH_REST_BITS);
+  }
+
+  /** The rest of the high part, followed by the low part. */
+  private static long remainingBytes(long aHigh, int aLow){
+    return (aHigh << DateTimeKey.LOW_BITS) | aLow;
+  }
+
+  private static DateTime toDateTime(byte aFirst, long aRest){
+    long high = ((long)(aFirst & 0xFF) << HIGH_REST_BITS) | (aRest >>> DateTimeKey.LOW_BITS);
+    return DateTimeKey.toDateTime(high, (int)(aRest & ((1 << DateTimeKey.LOW_BITS) - 1)));
+  }
+}
@@ -42,6 +42,18 @@ final class DateTimeParser  {
     return result;
   }
   
+  /**
+   Parse only the time part of a date-time, and attach it to a year-month-day which has already been 
+   parsed and validated. Used by {@link IncrementalDateTimeParser}, when the date part of the text hasn't changed.
+   Only the time units are validated.
+   @param aTimePart the text following the date-time separator.
+  */
+  DateTime parseTimeForDate(String aTimePart, Integer aYear, Integer aMonth, Integer aDay) {
+    parseTime(aTimePart);
+    DateTime result = DateTime.fromValidDate(aYear, aMonth, aDay, fHour, fMinute, fSecond, fNanosecond);
+    return result;
+  }
+  
   // PRIVATE
   
   /** 
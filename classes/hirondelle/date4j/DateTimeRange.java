@@ -0,0 +1,237 @@
+package hirondelle.date4j;
+
+import hirondelle.date4j.DateTime.Unit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ A sequence of <tt>DateTime</tt> values, from a start to an end, separated by a fixed step.
+
+ <P>Example, all days in January 2011 :
+ <PRE>
+  DateTimeRange january = new DateTimeRange(DateTime.forDateOnly(2011,1,1), DateTime.forDateOnly(2011,1,31), 1, Unit.DAY);
+  for(DateTime day : january){
+    ...
+  }
+ </PRE>
+
+ <P>The items are <tt>start</tt>, <tt>start + step</tt>, <tt>start + 2*step</tt>, and so on, up to and including
+ the last item which doesn't come after <tt>end</tt>. If <tt>end</tt> comes before <tt>start</tt>, the range is empty.
+ The step is a positive number of days, hours, minutes, or seconds.
+
+ <P>Any item can be computed directly from its index, in constant time, using a count of seconds from the start.
+ This lets a range be cut into parts of equal size with {@link #split(int)}, without iterating.
+ The parts can then be handed to separate threads, for example to spread per-day report generation across cores.
+
+ <P>The start and end must have year-month-day. For ranges stepping by {@link Unit#DAY}, each item keeps the same
+ time units as the start, in the same way as {@link DateTime#plusDays(Integer)}. For ranges stepping by
+ hours, minutes or seconds, each item has year-month-day and hour-minute-second; missing time units in the start are
+ treated as 0, and the nanoseconds of the start (if any) are kept on each item.
+
+ <P>This class is immutable. Its iterators are not thread-safe, and don't support <tt>remove</tt>.
+*/
+public final class DateTimeRange implements Iterable<DateTime> {
+
+  /**
+   Constructor.
+   @param aStart first item in the range; must have year-month-day.
+   @param aEnd no item in the range comes after this value; must have year-month-day. Missing time units are treated as 0.
+   @param aStepSize positive number of units between items.
+   @param aStepUnit one of {@link Unit#DAY}, {@link Unit#HOUR}, {@link Unit#MINUTE}, {@link Unit#SECOND}.
+  */
+  public DateTimeRange(DateTime aStart, DateTime aEnd, int aStepSize, Unit aStepUnit){
+    if(aStepSize < 1){
+      throw new IllegalArgumentException("Step size must be positive: " + aStepSize);
+    }
+    fStart = aStart;
+    fIsDayStep = Unit.DAY == aStepUnit;
+    fStepSeconds = aStepSize * secondsIn(aStepUnit);
+    fStartSeconds = secondsFromEpoch(aStart);
+    fNanos = aStart.getNanoseconds();
+    long diffSeconds = secondsFromEpoch(aEnd) - fStartSeconds;
+    if(nanosOf(aEnd) < nanosOf(aStart)){
+      //the end falls short of the whole number of seconds
+      diffSeconds = diffSeconds - 1;
+    }
+    fFirstIndex = 0;
+    fSize = diffSeconds < 0 ? 0 : diffSeconds / fStepSeconds + 1;
+  }
+
+  /** Return the number of items in this range. */
+  public long size(){
+    return fSize;
+  }
+
+  /** Return <tt>true</tt> only if this range has no items. */
+  public boolean isEmpty(){
+    return fSize == 0;
+  }
+
+  /**
+   Return the item at the given index, in constant time.
+   @param aIndex 0..size()-1
+  */
+  public DateTime get(long aIndex){
+    if(aIndex < 0 || aIndex >= fSize){
+      throw new IndexOutOfBoundsException("Index " + aIndex + " is not in the range 0.." + (fSize - 1));
+    }
+    long seconds = fStartSeconds + (fFirstIndex + aIndex) * fStepSeconds;
+    int mjd = (int)(seconds / SECONDS_PER_DAY) + MJD_OF_0001_01_01;
+    return itemFor(DateTime.fromModifiedJulianDayNumber(mjd), (int)(seconds % SECONDS_PER_DAY));
+  }
+
+  /**
+   Return the items at index <tt>aFromIndex</tt> (inclusive) to <tt>aToIndex</tt> (exclusive), as a new range.
+   Runs in constant time.
+  */
+  public DateTimeRange subRange(long aFromIndex, long aToIndex){
+    if(aFromIndex < 0 || aToIndex > fSize || aFromIndex > aToIndex){
+      throw new IndexOutOfBoundsException("Sub-range " + aFromIndex + ".." + aToIndex + " is not within 0.." + fSize);
+    }
+    return new DateTimeRange(this, fFirstIndex + aFromIndex, aToIndex - aFromIndex);
+  }
+
+  /**
+   Split this range into parts of nearly equal size, for processing in parallel.
+   The parts are returned in order, and together contain all items of this range.
+   Fewer parts are returned if this range has fewer items than <tt>aNumParts</tt>.
+   @param aNumParts 1 or more.
+  */
+  public List<DateTimeRange> split(int aNumParts){
+    if(aNumParts < 1){
+      throw new IllegalArgumentException("Number of parts must be positive: " + aNumParts);
+    }
+    List<DateTimeRange> result = new ArrayList<DateTimeRange>();
+    long numParts = Math.max(1, Math.min(aNumParts, fSize));
+    for(long part = 0; part < numParts; ++part){
+      result.add(subRange(fSize * part / numParts, fSize * (part + 1) / numParts));
+    }
+    return result;
+  }
+
+  /**
+   Return the items of this range in order.
+   Consecutive items on the same day share the calculation of year-month-day.
+  */
+  public Iterator<DateTime> iterator(){
+    return new Iterator<DateTime>(){
+      public boolean hasNext() {
+        return fNext < fSize;
+      }
+      public DateTime next() {
+        if(! hasNext()){
+          throw new NoSuchElementException();
+        }
+        long seconds = fStartSeconds + (fFirstIndex + fNext) * fStepSeconds;
+        int mjd = (int)(seconds / SECONDS_PER_DAY) + MJD_OF_0001_01_01;
+        if(fDate == null || mjd != fMjd){
+          fDate = DateTime.fromModifiedJulianDayNumber(mjd);
+          fMjd = mjd;
+        }
+        ++fNext;
+        return itemFor(fDate, (int)(seconds % SECONDS_PER_DAY));
+      }
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+      private long fNext;
+      private DateTime fDate;
+      private int fMjd;
+    };
+  }
+
+  /** Intended for debugging only. */
+  @Override public String toString(){
+    String result = "[]";
+    if(fSize > 0){
+      result = "[" + get(0) + ".." + get(fSize - 1) + ", " + fSize + " items]";
+    }
+    return result;
+  }
+
+  // PRIVATE
+
+  private final DateTime fStart;
+  private final boolean fIsDayStep;
+  private final long fStepSeconds;
+  /** Seconds from 0001-01-01 00:00:00 to the start. */
+  private final long fStartSeconds;
+  private final Integer fNanos;
+  /** For sub-ranges, the index of the first item, with respect to the start. */
+  private final long fFirstIndex;
+  private final long fSize;
+
+  private static final long SECONDS_PER_DAY = 86400;
+
+  /** Counting from the first day supported by DateTime keeps all second counts positive. */
+  private static final int MJD_OF_0001_01_01 = DateTime.forDateOnly(1, 1, 1).getModifiedJulianDayNumber();
+
+  /** Constructor for sub-ranges. */
+  private DateTimeRange(DateTimeRange aRange, long aFirstIndex, long aSize){
+    fStart = aRange.fStart;
+    fIsDayStep = aRange.fIsDayStep;
+    fStepSeconds = aRange.fStepSeconds;
+    fStartSeconds = aRange.fStartSeconds;
+    fNanos = aRange.fNanos;
+    fFirstIndex = aFirstIndex;
+    fSize = aSize;
+  }
+
+  private static long secondsIn(Unit aUnit){
+    long result = 0;
+    if(Unit.DAY == aUnit){
+      result = SECONDS_PER_DAY;
+    }
+    else if (Unit.HOUR == aUnit){
+      result = 3600;
+    }
+    else if (Unit.MINUTE == aUnit){
+      result = 60;
+    }
+    else if (Unit.SECOND == aUnit){
+      result = 1;
+    }
+    else {
+      throw new IllegalArgumentException("Step unit must be DAY, HOUR, MINUTE, or SECOND: " + aUnit);
+    }
+    return result;
+  }
+
+  /** Seconds from 0001-01-01 00:00:00. Requires year-month-day. */
+  private static long secondsFromEpoch(DateTime aDateTime){
+    long result = (aDateTime.getModifiedJulianDayNumber() - MJD_OF_0001_01_01) * SECONDS_PER_DAY;
+    if(aDateTime.getHour() != null){
+      result = result + 3600 * aDateTime.getHour();
+    }
+    if(aDateTime.getMinute() != null){
+      result = result + 60 * aDateTime.getMinute();
+    }
+    if(aDateTime.getSecond() != null){
+      result = result + aDateTime.getSecond();
+    }
+    return result;
+  }
+
+  private static int nanosOf(DateTime aDateTime){
+    return aDateTime.getNanoseconds() == null ? 0 : aDateTime.getNanoseconds();
+  }
+
+  private DateTime itemFor(DateTime aDate, int aSecondsInDay){
+    DateTime result = null;
+    if(fIsDayStep){
+      result = DateTime.fromValidParts(
+        aDate.getYear(), aDate.getMonth(), aDate.getDay(),
+        fStart.getHour(), fStart.getMinute(), fStart.getSecond(), fNanos
+      );
+    }
+    else {
+      result = DateTime.fromValidParts(
+        aDate.getYear(), aDate.getMonth(), aDate.getDay(),
+        aSecondsInDay / 3600, (aSecondsInDay % 3600) / 60, aSecondsInDay % 60, fNanos
+      );
+    }
+    return result;
+  }
+}
@@ -0,0 +1,302 @@
+package hirondelle.date4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ Sorts large arrays of {@link DateTime} objects with a radix sort, optionally using several threads.
+
+ <P><tt>Arrays.sort</tt> calls {@link DateTime#compareTo(DateTime)} about <tt>n log n</tt> times, and each call
+ compares up to 7 boxed units. This class instead reads the units of each <tt>DateTime</tt> just once, packing
+ them into a 71-bit key whose order is the same as <tt>compareTo</tt> (including the 'nulls first' rule for missing
+ units; see {@link DateTimeKeyCodec}). The keys are then sorted with a least-significant-digit radix sort, 11 bits
+ at a time. Digits which are the same for all items (the year, in many data sets, or the nanoseconds, for
+ date-only values) are detected, and skipped.
+
+ <P>The sort is stable: equal items keep their original order, as with <tt>Arrays.sort</tt>.
+ Small arrays are simply passed to <tt>Arrays.sort</tt>.
+
+ <P>When more than one thread is used, the array is cut into chunks. The keys of each chunk are built by a separate task,
+ and each radix pass counts and moves the items of each chunk in a separate task. The tasks can be run by an
+ <tt>ExecutorService</tt> of the caller's choosing; otherwise, a pool of daemon threads is created for each call,
+ and shut down when the call completes.
+
+ <P>This class can also sort arrays of <tt>long</tt> values, such as the results of {@link DateTime#toEpochNanoUtc()}.
+
+ <P>This class is thread-safe.
+*/
+public final class DateTimeSorter {
+
+  /**
+   Constructor which creates its own threads for each sort.
+   @param aParallelism the number of threads to use, 1 or more. If 1, then all work is done in the calling thread.
+  */
+  public DateTimeSorter(int aParallelism){
+    this(null, aParallelism);
+  }
+
+  /**
+   Constructor which runs its tasks on the given executor.
+   @param aExecutor runs the sorting tasks; it is never shut down by this class. If null, then threads are created
+   for each sort, as in {@link #DateTimeSorter(int)}.
+   @param aParallelism the number of chunks an array is split into; 1 or more.
+  */
+  public DateTimeSorter(ExecutorService aExecutor, int aParallelism){
+    if(aParallelism < 1){
+      throw new IllegalArgumentException("Parallelism must be 1 or more: " + aParallelism);
+    }
+    fExecutor = aExecutor;
+    fParallelism = aParallelism;
+  }
+
+  /**
+   Sort the given array into ascending order, as defined by {@link DateTime#compareTo(DateTime)}.
+   @param aDateTimes must not contain <tt>null</tt> items.
+  */
+  public void sort(DateTime[] aDateTimes){
+    if(aDateTimes.length < MIN_RADIX_SORT){
+      Arrays.sort(aDateTimes);
+    }
+    else {
+      final DateTime[] original = aDateTimes.clone();
+      final Keys keys = new Keys(aDateTimes.length, true);
+      ExecutorService executor = startExecutor(aDateTimes.length);
+      try {
+        run(executor, new ChunkTask(){
+          void run(int aChunk, int aStart, int aEnd) {
+            for(int idx = aStart; idx < aEnd; ++idx){
+              keys.fHigh[idx] = DateTimeKey.high(original[idx]);
+              keys.fLow[idx] = DateTimeKey.low(original[idx]);
+              keys.fIndex[idx] = idx;
+            }
+          }
+        }, aDateTimes.length);
+        for(int shift = 0; shift < DateTimeKey.LOW_BITS; shift = shift + DIGIT_BITS){
+          radixPass(executor, keys, false, shift);
+        }
+        for(int shift = 0; shift < DateTimeKey.HIGH_BITS; shift = shift + DIGIT_BITS){
+          radixPass(executor, keys, true, shift);
+        }
+      }
+      finally {
+        stopExecutor(executor);
+      }
+      for(int idx = 0; idx < aDateTimes.length; ++idx){
+        aDateTimes[idx] = original[keys.fIndex[idx]];
+      }
+    }
+  }
+
+  /** Sort the given array into ascending (signed) order. */
+  public void sort(long[] aValues){
+    if(aValues.length < MIN_RADIX_SORT){
+      Arrays.sort(aValues);
+    }
+    else {
+      final Keys keys = new Keys(aValues.length, false);
+      //flipping the sign bit makes the unsigned order of the keys the same as the signed order of the values
+      for(int idx = 0; idx < aValues.length; ++idx){
+        keys.fHigh[idx] = aValues[idx] ^ Long.MIN_VALUE;
+      }
+      ExecutorService executor = startExecutor(aValues.length);
+      try {
+        for(int shift = 0; shift < 64; shift = shift + DIGIT_BITS){
+          radixPass(executor, keys, true, shift);
+        }
+      }
+      finally {
+        stopExecutor(executor);
+      }
+      for(int idx = 0; idx < aValues.length; ++idx){
+        aValues[idx] = keys.fHigh[idx] ^ Long.MIN_VALUE;
+      }
+    }
+  }
+
+  // PRIVATE
+
+  private final ExecutorService fExecutor;
+  private final int fParallelism;
+
+  /** Below this size, Arrays.sort is used. */
+  private static final int MIN_RADIX_SORT = 256;
+
+  /** Below this size, the cost of handing off work to other threads isn't worth paying. */
+  private static final int MIN_PARALLEL_SORT = 65536;
+
+  private static final int DIGIT_BITS = 11;
+  private static final int NUM_BUCKETS = 1 << DIGIT_BITS;
+
+  /** The keys being sorted, and a second set of arrays of the same size, as the destination of each pass. */
+  private static final class Keys {
+    Keys(int aSize, boolean aHasLowAndIndex){
+      fHigh = new long[aSize];
+      fHighTemp = new long[aSize];
+      if(aHasLowAndIndex){
+        fLow = new int[aSize];
+        fLowTemp = new int[aSize];
+        fIndex = new int[aSize];
+        fIndexTemp = new int[aSize];
+      }
+    }
+    void swap(){
+      long[] high = fHigh;
+      fHigh = fHighTemp;
+      fHighTemp = high;
+      if(fLow != null){
+        int[] low = fLow;
+        fLow = fLowTemp;
+        fLowTemp = low;
+        int[] index = fIndex;
+        fIndex = fIndexTemp;
+        fIndexTemp = index;
+      }
+    }
+    int size(){
+      return fHigh.length;
+    }
+    long[] fHigh;
+    long[] fHighTemp;
+    int[] fLow;
+    int[] fLowTemp;
+    int[] fIndex;
+    int[] fIndexTemp;
+  }
+
+  /** Work on a range of indexes. */
+  private static abstract class ChunkTask {
+    abstract void run(int aChunk, int aStart, int aEnd);
+  }
+
+  /** Stable counting sort of the keys, on the digit at the given position. */
+  private void radixPass(ExecutorService aExecutor, final Keys aKeys, final boolean aIsHigh, final int aShift){
+    final int numChunks = numChunks(aKeys.size());
+    final int[][] counts = new int[numChunks][NUM_BUCKETS];
+    run(aExecutor, new ChunkTask(){
+      void run(int aChunk, int aStart, int aEnd) {
+        int[] chunkCounts = counts[aChunk];
+        for(int idx = aStart; idx < aEnd; ++idx){
+          ++chunkCounts[digit(aKeys, aIsHigh, aShift, idx)];
+        }
+      }
+    }, aKeys.size());
+    if(! isAllSameDigit(counts, aKeys.size())){
+      //where each chunk starts writing items having each digit
+      int next = 0;
+      for(int digit = 0; digit < NUM_BUCKETS; ++digit){
+        for(int chunk = 0; chunk < numChunks; ++chunk){
+          int count = counts[chunk][digit];
+          counts[chunk][digit] = next;
+          next = next + count;
+        }
+      }
+      run(aExecutor, new ChunkTask(){
+        void run(int aChunk, int aStart, int aEnd) {
+          int[] positions = counts[aChunk];
+          for(int idx = aStart; idx < aEnd; ++idx){
+            int position = positions[digit(aKeys, aIsHigh, aShift, idx)]++;
+            aKeys.fHighTemp[position] = aKeys.fHigh[idx];
+            if(aKeys.fLow != null){
+              aKeys.fLowTemp[position] = aKeys.fLow[idx];
+              aKeys.fIndexTemp[position] = aKeys.fIndex[idx];
+            }
+          }
+        }
+      }, aKeys.size());
+      aKeys.swap();
+    }
+  }
+
+  private static int digit(Keys aKeys, boolean aIsHigh, int aShift, int aIndex){
+    long result = aIsHigh ? aKeys.fHigh[aIndex] >>> aShift : aKeys.fLow[aIndex] >>> aShift;
+    return (int)result & (NUM_BUCKETS - 1);
+  }
+
+  /** Return true only if every item has the same digit, in which case the pass can be skipped. */
+  private static boolean isAllSameDigit(int[][] aCounts, int aSize){
+    boolean result = false;
+    for(int digit = 0; digit < NUM_BUCKETS && ! result; ++digit){
+      int total = 0;
+      for(int[] chunkCounts : aCounts){
+        total = total + chunkCounts[digit];
+      }
+      result = total == aSize;
+    }
+    return result;
+  }
+
+  private int numChunks(int aSize){
+    return (fParallelism == 1 || aSize < MIN_PARALLEL_SORT) ? 1 : fParallelism;
+  }
+
+  private static int chunkStart(int aSize, int aChunk, int aNumChunks){
+    //long arithmetic avoids overflow for very large arrays
+    return (int)((long)aSize * aChunk / aNumChunks);
+  }
+
+  /** Return null if the work is to be done in the calling thread. */
+  private ExecutorService startExecutor(int aSize){
+    ExecutorService result = fExecutor;
+    if(result == null && numChunks(aSize) > 1){
+      result = Executors.newFixedThreadPool(fParallelism, DAEMON_THREADS);
+    }
+    return result;
+  }
+
+  private void stopExecutor(ExecutorService aExecutor){
+    if(fExecutor == null && aExecutor != null){
+      aExecutor.shutdown();
+    }
+  }
+
+  /** Run the task on each chunk of the given size, and wait for all chunks to complete. */
+  private void run(ExecutorService aExecutor, final ChunkTask aTask, int aSize){
+    int numChunks = numChunks(aSize);
+    if(numChunks == 1){
+      aTask.run(0, 0, aSize);
+    }
+    else {
+      List<Future<?>> futures = new ArrayList<Future<?>>();
+      for(int chunk = 0; chunk < numChunks; ++chunk){
+        final int index = chunk;
+        final int start = chunkStart(aSize, chunk, numChunks);
+        final int end = chunkStart(aSize, chunk + 1, numChunks);
+        futures.add(aExecutor.submit(new Runnable() {
+          public void run() {
+            aTask.run(index, start, end);
+          }
+        }));
+      }
+      for(Future<?> future : futures){
+        waitFor(future);
+      }
+    }
+  }
+
+  private static void waitFor(Future<?> aFuture){
+    try {
+      aFuture.get();
+    }
+    catch(InterruptedException ex){
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while sorting.", ex);
+    }
+    catch(ExecutionException ex){
+      throw new RuntimeException("Unexpected failure while sorting.", ex.getCause());
+    }
+  }
+
+  private static final ThreadFactory DAEMON_THREADS = new ThreadFactory() {
+    public Thread newThread(Runnable aRunnable) {
+      Thread result = new Thread(aRunnable, "date4j-sorter");
+      result.setDaemon(true);
+      return result;
+    }
+  };
+}
@@ -0,0 +1,92 @@
+package hirondelle.date4j;
+
+/**
+ A span of time between two {@link DateTime} values, which includes its start but not its end.
+
+ <P>Half-open spans fit together without gaps or overlaps: a booking from 10:00 to 11:00 and another from 11:00 to 12:00
+ don't overlap. A span whose start equals its end is empty; it contains nothing, and overlaps nothing.
+
+ <P>The start and end are compared with {@link DateTime#compareTo(DateTime)}, so they are usually expected to have the
+ same units; for example, both having year-month-day and hour-minute-second.
+
+ <P>To find the spans in a large collection which overlap a given span, or contain a given moment, see
+ {@link DateTimeSpanTree}.
+
+ <P>This class is immutable.
+*/
+public final class DateTimeSpan implements Comparable<DateTimeSpan> {
+
+  /**
+   Constructor.
+   @param aStart included in the span; not null.
+   @param aEnd not included in the span; not null, and not less than <tt>aStart</tt>.
+  */
+  public DateTimeSpan(DateTime aStart, DateTime aEnd){
+    if(aStart == null || aEnd == null){
+      throw new IllegalArgumentException("Start and end of a span must not be null. Start: " + aStart + " End: " + aEnd);
+    }
+    if(aStart.compareTo(aEnd) > 0){
+      throw new IllegalArgumentException("Start of a span must not come after its end. Start: " + aStart + " End: " + aEnd);
+    }
+    fStart = aStart;
+    fEnd = aEnd;
+  }
+
+  /** Return the start of the span, which is included in the span. */
+  public DateTime getStart(){
+    return fStart;
+  }
+
+  /** Return the end of the span, which is not included in the span. */
+  public DateTime getEnd(){
+    return fEnd;
+  }
+
+  /** Return <tt>true</tt> only if the start equals the end. */
+  public boolean isEmpty(){
+    return fStart.compareTo(fEnd) == 0;
+  }
+
+  /** Return <tt>true</tt> only if <tt>start &lt;= aDateTime &lt; end</tt>. */
+  public boolean contains(DateTime aDateTime){
+    return fStart.compareTo(aDateTime) <= 0 && aDateTime.compareTo(fEnd) < 0;
+  }
+
+  /** Return <tt>true</tt> only if the two spans have at least one moment in common. An empty span overlaps nothing. */
+  public boolean overlaps(DateTimeSpan aThat){
+    return ! isEmpty() && ! aThat.isEmpty() && fStart.compareTo(aThat.fEnd) < 0 && aThat.fStart.compareTo(fEnd) < 0;
+  }
+
+  /** Order by start, then by end. */
+  public int compareTo(DateTimeSpan aThat){
+    int result = fStart.compareTo(aThat.fStart);
+    if(result == 0){
+      result = fEnd.compareTo(aThat.fEnd);
+    }
+    return result;
+  }
+
+  /** Equality of both the start and the end. */
+  @Override public boolean equals(Object aThat){
+    Boolean result = ModelUtil.quickEquals(this, aThat);
+    if (result == null){
+      DateTimeSpan that = (DateTimeSpan)aThat;
+      result = fStart.equals(that.fStart) && fEnd.equals(that.fEnd);
+    }
+    return result;
+  }
+
+  @Override public int hashCode(){
+    return ModelUtil.hashCodeFor(fStart, fEnd);
+  }
+
+  /** Intended for debugging only. Example: <tt>[2012-01-01 10:00..2012-01-01 11:00)</tt>. */
+  @Override public String toString(){
+    return "[" + fStart + ".." + fEnd + ")";
+  }
+
+  // PRIVATE
+
+  private final DateTime fStart;
+  private final DateTime fEnd;
+}
@@ -0,0 +1,202 @@
+package hirondelle.date4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ An immutable interval tree of {@link DateTimeSpan} objects, for finding spans which overlap a given span,
+ or which contain a given moment.
+
+ <P>Finding overlaps by scanning all spans takes time proportional to the number of spans. This tree answers the same
+ questions in <tt>O(min(n, (k + 1) log n))</tt> time, where <tt>k</tt> is the number of spans found: each span found
+ can cost a descent from the root. That is close to <tt>O(log n)</tt> when few spans are found, as is typical for
+ clash checks, and never worse than a scan. {@link #hasOverlap(DateTimeSpan)} stops at the first span found, so it takes
+ <tt>O(log n)</tt> time.
+
+ <P>The tree is built in one step, from a collection of spans. The spans are sorted by start (if they aren't sorted
+ already), and kept in an array; the tree is implicit in the array, with the middle item of each sub-range as the
+ root of that sub-range. Each node is augmented with the greatest end found in its sub-tree. A query skips any
+ sub-tree whose greatest end is not after the query's start, and any right sub-tree whose least start is not before
+ the query's end.
+
+ <P>The start and end of each span are packed into keys of primitives whose order is the same as
+ {@link DateTime#compareTo(DateTime)} (see {@link DateTimeKeyCodec}), so a query makes no calls to <tt>compareTo</tt>.
+
+ <P>Example:
+ <PRE>
+  DateTimeSpanTree bookings = new DateTimeSpanTree(allBookings);
+  List&lt;DateTimeSpan&gt; clashes = bookings.findOverlapping(requested);
+ </PRE>
+
+ <P>This class is immutable.
+*/
+public final class DateTimeSpanTree {
+
+  /**
+   Constructor.
+   @param aSpans in any order; must not contain <tt>null</tt> items. Spans which are already sorted by start and end
+   are loaded in linear time. Duplicates are kept.
+  */
+  public DateTimeSpanTree(Collection<DateTimeSpan> aSpans){
+    List<DateTimeSpan> spans = new ArrayList<DateTimeSpan>(aSpans);
+    if(! isSorted(spans)){
+      Collections.sort(spans);
+    }
+    fSpans = spans.toArray(new DateTimeSpan[spans.size()]);
+    int size = fSpans.length;
+    fStartHigh = new long[size];
+    fStartLow = new int[size];
+    fEndHigh = new long[size];
+    fEndLow = new int[size];
+    fMaxEndHigh = new long[size];
+    fMaxEndLow = new int[size];
+    for(int idx = 0; idx < size; ++idx){
+      fStartHigh[idx] = DateTimeKey.high(fSpans[idx].getStart());
+      fStartLow[idx] = DateTimeKey.low(fSpans[idx].getStart());
+      fEndHigh[idx] = DateTimeKey.high(fSpans[idx].getEnd());
+      fEndLow[idx] = DateTimeKey.low(fSpans[idx].getEnd());
+    }
+    augment(0, size);
+  }
+
+  /** Return the number of spans in the tree. */
+  public int size(){
+    return fSpans.length;
+  }
+
+  /** Return the spans having at least one moment in common with the given span, ordered by start. */
+  public List<DateTimeSpan> findOverlapping(DateTimeSpan aSpan){
+    List<DateTimeSpan> result = new ArrayList<DateTimeSpan>();
+    if(! aSpan.isEmpty()){
+      find(new Query(aSpan.getStart(), aSpan.getEnd(), false), 0, fSpans.length, result);
+    }
+    return result;
+  }
+
+  /** Return the spans which contain the given moment, ordered by start. A 'stabbing query'. */
+  public List<DateTimeSpan> findContaining(DateTime aDateTime){
+    List<DateTimeSpan> result = new ArrayList<DateTimeSpan>();
+    find(new Query(aDateTime, aDateTime, true), 0, fSpans.length, result);
+    return result;
+  }
+
+  /** Return <tt>true</tt> only if at least one span overlaps the given span. */
+  public boolean hasOverlap(DateTimeSpan aSpan){
+    return ! aSpan.isEmpty() && find(new Query(aSpan.getStart(), aSpan.getEnd(), false), 0, fSpans.length, null);
+  }
+
+  /** Intended for debugging only. */
+  @Override public String toString(){
+    return "DateTimeSpanTree size:" + fSpans.length;
+  }
+
+  // PRIVATE
+
+  /** Sorted by start, then by end. */
+  private final DateTimeSpan[] fSpans;
+  private final long[] fStartHigh;
+  private final int[] fStartLow;
+  private final long[] fEndHigh;
+  private final int[] fEndLow;
+  /** The greatest end in the sub-tree rooted at each index. */
+  private final long[] fMaxEndHigh;
+  private final int[] fMaxEndLow;
+
+  /** A span or a moment, as packed keys. */
+  private static final class Query {
+    Query(DateTime aStart, DateTime aEnd, boolean aIsMoment){
+      fStartHigh = DateTimeKey.high(aStart);
+      fStartLow = DateTimeKey.low(aStart);
+      fEndHigh = DateTimeKey.high(aEnd);
+      fEndLow = DateTimeKey.low(aEnd);
+      fIsMoment = aIsMoment;
+    }
+    final long fStartHigh;
+    final int fStartLow;
+    final long fEndHigh;
+    final int fEndLow;
+    /** A moment is contained in spans having start &lt;= moment &lt; end. */
+    final boolean fIsMoment;
+  }
+
+  private static boolean isSorted(List<DateTimeSpan> aSpans){
+    boolean result = true;
+    for(int idx = 1; idx < aSpans.size() && result; ++idx){
+      result = aSpans.get(idx - 1).compareTo(aSpans.get(idx)) <= 0;
+    }
+    return result;
+  }
+
+  /** Fill in the greatest end for the sub-tree over the range aStart..aEnd-1. Returns the root of the sub-tree, or -1. */
+  private int augment(int aStart, int aEnd){
+    int result = -1;
+    if(aStart < aEnd){
+      int middle = (aStart + aEnd) >>> 1;
+      long maxHigh = fEndHigh[middle];
+      int maxLow = fEndLow[middle];
+      int left = augment(aStart, middle);
+      int right = augment(middle + 1, aEnd);
+      for(int child : new int[]{left, right}){
+        if(child >= 0 && compare(fMaxEndHigh[child], fMaxEndLow[child], maxHigh, maxLow) > 0){
+          maxHigh = fMaxEndHigh[child];
+          maxLow = fMaxEndLow[child];
+        }
+      }
+      fMaxEndHigh[middle] = maxHigh;
+      fMaxEndLow[middle] = maxLow;
+      result = middle;
+    }
+    return result;
+  }
+
+  /**
+   Add the matching spans of the sub-tree over the range aStart..aEnd-1, in order.
+   If aResult is null, then nothing is added, and the search stops at the first match.
+   Returns true only if the search stopped at a match.
+  */
+  private boolean find(Query aQuery, int aStart, int aEnd, List<DateTimeSpan> aResult){
+    boolean isStopped = false;
+    if(aStart < aEnd){
+      int middle = (aStart + aEnd) >>> 1;
+      //skip the sub-tree if every span in it ends at or before the query starts
+      if(compare(fMaxEndHigh[middle], fMaxEndLow[middle], aQuery.fStartHigh, aQuery.fStartLow) > 0){
+        isStopped = find(aQuery, aStart, middle, aResult);
+        int startVersusEnd = compare(fStartHigh[middle], fStartLow[middle], aQuery.fEndHigh, aQuery.fEndLow);
+        //spans to the right start no earlier than this one
+        boolean canMatchRight = aQuery.fIsMoment ? startVersusEnd <= 0 : startVersusEnd < 0;
+        if(! isStopped && canMatchRight){
+          //an empty span overlaps nothing, and contains nothing
+          if(compare(fEndHigh[middle], fEndLow[middle], aQuery.fStartHigh, aQuery.fStartLow) > 0 && ! isEmpty(middle)){
+            if(aResult == null){
+              isStopped = true;
+            }
+            else {
+              aResult.add(fSpans[middle]);
+            }
+          }
+          if(! isStopped){
+            isStopped = find(aQuery, middle + 1, aEnd, aResult);
+          }
+        }
+      }
+    }
+    return isStopped;
+  }
+
+  private boolean isEmpty(int aIndex){
+    return fStartHigh[aIndex] == fEndHigh[aIndex] && fStartLow[aIndex] == fEndLow[aIndex];
+  }
+
+  private static int compare(long aThisHigh, int aThisLow, long aThatHigh, int aThatLow){
+    int result = 0;
+    if(aThisHigh != aThatHigh){
+      result = aThisHigh < aThatHigh ? -1 : 1;
+    }
+    else if (aThisLow != aThatLow){
+      result = aThisLow < aThatLow ? -1 : 1;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,337 @@
+package hirondelle.date4j;
+
+import java.util.Collection;
+
+/**
+ A set of days, such as holidays or blackout days, stored as bits.
+
+ <P>A set of days is often a <tt>HashSet&lt;DateTime&gt;</tt>, where each lookup pays for hashing, and each
+ day for a separate object. But the supported range of dates, 0001-01-01..9999-12-31, has only about 3.65 million
+ days. This class gives each of those days a single bit, at an index derived from its
+ {@link DateTime#getModifiedJulianDayNumber()}. Membership is then a shift and a mask, and set operations,
+ searches, and counts work on 64 days at a time.
+
+ <P>The bits are kept in chunks of 4,096 days (about 11 years). Only chunks holding at least one day are
+ allocated, so a sparse set, such as the holidays of a few decades, takes a few kilobytes at most.
+
+ <P>Only the year-month-day of each <tt>DateTime</tt> is used; any time portion is ignored.
+ Methods taking a <tt>DateTime</tt> throw a runtime exception if it has no year-month-day.
+ Days returned by this class have only year-month-day.
+
+ <P>Example:
+ <PRE>
+  DaySet holidays = new DaySet(holidayList);
+  if(holidays.contains(today)){
+    DateTime nextOpen = holidays.nextDayNotInSet(today);
+  }
+ </PRE>
+
+ <P>This class is mutable, and is not thread-safe.
+*/
+public final class DaySet {
+
+  /** Constructor for an empty set. */
+  public DaySet(){
+    fChunks = new long[NUM_CHUNKS][];
+  }
+
+  /** Constructor for a set containing the days of the given items. */
+  public DaySet(Collection<DateTime> aDays){
+    this();
+    for(DateTime day : aDays){
+      add(day);
+    }
+  }
+
+  /** Copy constructor. */
+  public DaySet(DaySet aThat){
+    this();
+    for(int chunk = 0; chunk < NUM_CHUNKS; ++chunk){
+      if(aThat.fChunks[chunk] != null){
+        fChunks[chunk] = aThat.fChunks[chunk].clone();
+      }
+    }
+  }
+
+  /** Return <tt>true</tt> only if the day of the given item is in the set. */
+  public boolean contains(DateTime aDay){
+    int index = indexOf(aDay);
+    long[] words = fChunks[index >>> CHUNK_SHIFT];
+    return words != null && (words[wordInChunk(index)] & (1L << index)) != 0;
+  }
+
+  /** Add the day of the given item. Return <tt>true</tt> only if the set has changed. */
+  public boolean add(DateTime aDay){
+    int index = indexOf(aDay);
+    long[] words = chunkFor(index);
+    int word = wordInChunk(index);
+    long before = words[word];
+    words[word] = before | (1L << index);
+    return words[word] != before;
+  }
+
+  /** Remove the day of the given item. Return <tt>true</tt> only if the set has changed. */
+  public boolean remove(DateTime aDay){
+    int index = indexOf(aDay);
+    int chunk = index >>> CHUNK_SHIFT;
+    boolean result = false;
+    long[] words = fChunks[chunk];
+    if(words != null){
+      int word = wordInChunk(index);
+      long before = words[word];
+      words[word] = before & ~(1L << index);
+      result = words[word] != before;
+      releaseIfEmpty(chunk);
+    }
+    return result;
+  }
+
+  /** Add all days in the range <tt>aFrom..aTo</tt>, including both ends. Does nothing if <tt>aFrom</tt> is after <tt>aTo</tt>. */
+  public void addRange(DateTime aFrom, DateTime aTo){
+    int from = indexOf(aFrom);
+    int to = indexOf(aTo);
+    if(from <= to){
+      for(int wordIndex = from >>> WORD_SHIFT; wordIndex <= to >>> WORD_SHIFT; ++wordIndex){
+        long[] words = chunkFor(wordIndex << WORD_SHIFT);
+        words[wordIndex & WORD_MASK] |= rangeMask(wordIndex, from, to);
+      }
+    }
+  }
+
+  /** Add all days in the given set to this set. */
+  public void union(DaySet aThat){
+    for(int chunk = 0; chunk < NUM_CHUNKS; ++chunk){
+      long[] those = aThat.fChunks[chunk];
+      if(those != null){
+        if(fChunks[chunk] == null){
+          fChunks[chunk] = those.clone();
+        }
+        else {
+          long[] words = fChunks[chunk];
+          for(int word = 0; word < WORDS_PER_CHUNK; ++word){
+            words[word] |= those[word];
+          }
+        }
+      }
+    }
+  }
+
+  /** Remove all days which are not also in the given set. */
+  public void intersect(DaySet aThat){
+    for(int chunk = 0; chunk < NUM_CHUNKS; ++chunk){
+      long[] words = fChunks[chunk];
+      if(words != null){
+        long[] those = aThat.fChunks[chunk];
+        if(those == null){
+          fChunks[chunk] = null;
+        }
+        else {
+          for(int word = 0; word < WORDS_PER_CHUNK; ++word){
+            words[word] &= those[word];
+          }
+          releaseIfEmpty(chunk);
+        }
+      }
+    }
+  }
+
+  /** Return <tt>true</tt> only if the set has no days. */
+  public boolean isEmpty(){
+    boolean result = true;
+    for(int chunk = 0; chunk < NUM_CHUNKS && result; ++chunk){
+      result = fChunks[chunk] == null;
+    }
+    return result;
+  }
+
+  /** Return the number of days in the set. */
+  public int size(){
+    int result = 0;
+    for(long[] words : fChunks){
+      if(words != null){
+        for(long word : words){
+          result = result + Long.bitCount(word);
+        }
+      }
+    }
+    return result;
+  }
+
+  /** Return the number of days in the set, in the range <tt>aFrom..aTo</tt>, including both ends. */
+  public int count(DateTime aFrom, DateTime aTo){
+    int from = indexOf(aFrom);
+    int to = indexOf(aTo);
+    int result = 0;
+    for(int wordIndex = from >>> WORD_SHIFT; wordIndex <= to >>> WORD_SHIFT; ++wordIndex){
+      result = result + Long.bitCount(wordAt(wordIndex) & rangeMask(wordIndex, from, to));
+    }
+    return result;
+  }
+
+  /** Return the first day in the set which is on or after the day of the given item; returns <tt>null</tt> if there is none. */
+  public DateTime nextDay(DateTime aFrom){
+    return toDay(nextIndex(indexOf(aFrom), true));
+  }
+
+  /** Return the last day in the set which is on or before the day of the given item; returns <tt>null</tt> if there is none. */
+  public DateTime previousDay(DateTime aFrom){
+    return toDay(previousIndex(indexOf(aFrom), true));
+  }
+
+  /** Return the first day not in the set which is on or after the day of the given item; returns <tt>null</tt> if there is none. */
+  public DateTime nextDayNotInSet(DateTime aFrom){
+    return toDay(nextIndex(indexOf(aFrom), false));
+  }
+
+  /** Return the last day not in the set which is on or before the day of the given item; returns <tt>null</tt> if there is none. */
+  public DateTime previousDayNotInSet(DateTime aFrom){
+    return toDay(previousIndex(indexOf(aFrom), false));
+  }
+
+  /** Equality of the days in each set. */
+  @Override public boolean equals(Object aThat){
+    Boolean result = ModelUtil.quickEquals(this, aThat);
+    if (result == null){
+      DaySet that = (DaySet)aThat;
+      boolean isEqual = true;
+      for(int wordIndex = 0; wordIndex < NUM_WORDS && isEqual; ++wordIndex){
+        isEqual = wordAt(wordIndex) == that.wordAt(wordIndex);
+      }
+      result = Boolean.valueOf(isEqual);
+    }
+    return result;
+  }
+
+  @Override public int hashCode(){
+    long result = 1234;
+    for(int chunk = 0; chunk < NUM_CHUNKS; ++chunk){
+      long[] words = fChunks[chunk];
+      if(words != null){
+        for(int word = 0; word < WORDS_PER_CHUNK; ++word){
+          result = result ^ (words[word] * ((chunk << CHUNK_WORD_SHIFT) + word + 1));
+        }
+      }
+    }
+    return (int)((result >> 32) ^ result);
+  }
+
+  /** Intended for debugging only. Example: <tt>[2012-01-01..2012-12-25, 10 days]</tt>. */
+  @Override public String toString(){
+    String result = "[]";
+    int first = nextIndex(0, true);
+    if(first >= 0){
+      result = "[" + toDay(first) + ".." + toDay(previousIndex(NUM_DAYS - 1, true)) + ", " + size() + " days]";
+    }
+    return result;
+  }
+
+  // PRIVATE
+
+  /** Indexed by chunk; null for a chunk with no days. */
+  private final long[][] fChunks;
+
+  /** The Modified Julian Day Number of 0001-01-01, the day at index 0. */
+  private static final int MIN_MJD = DateTime.forDateOnly(1, 1, 1).getModifiedJulianDayNumber();
+  /** The number of days in the supported range. Package-private, shared with BusinessCalendar. */
+  static final int NUM_DAYS = DateTime.forDateOnly(9999, 12, 31).getModifiedJulianDayNumber() - MIN_MJD + 1;
+
+  private static final int WORD_SHIFT = 6;
+  private static final int CHUNK_SHIFT = 12;
+  private static final int CHUNK_WORD_SHIFT = CHUNK_SHIFT - WORD_SHIFT;
+  private static final int WORDS_PER_CHUNK = 1 << CHUNK_WORD_SHIFT;
+  private static final int WORD_MASK = WORDS_PER_CHUNK - 1;
+  private static final int NUM_CHUNKS = ((NUM_DAYS - 1) >>> CHUNK_SHIFT) + 1;
+  /** The number of 64-bit words spanned by the chunks. The last word has unused bits past NUM_DAYS. */
+  static final int NUM_WORDS = NUM_CHUNKS * WORDS_PER_CHUNK;
+
+  /** The index of the bit for the given day, 0..NUM_DAYS-1. Package-private, shared with BusinessCalendar. */
+  static int indexOf(DateTime aDay){
+    return aDay.getModifiedJulianDayNumber() - MIN_MJD;
+  }
+
+  /** The day having the given index, or null for -1. Package-private, shared with BusinessCalendar. */
+  static DateTime toDay(int aIndex){
+    return aIndex < 0 ? null : DateTime.fromModifiedJulianDayNumber(aIndex + MIN_MJD);
+  }
+
+  private static int wordInChunk(int aIndex){
+    return (aIndex >>> WORD_SHIFT) & WORD_MASK;
+  }
+
+  /** Return the chunk holding the given day, allocating it if needed. */
+  private long[] chunkFor(int aIndex){
+    int chunk = aIndex >>> CHUNK_SHIFT;
+    if(fChunks[chunk] == null){
+      fChunks[chunk] = new long[WORDS_PER_CHUNK];
+    }
+    return fChunks[chunk];
+  }
+
+  private void releaseIfEmpty(int aChunk){
+    boolean isEmpty = true;
+    for(int word = 0; word < WORDS_PER_CHUNK && isEmpty; ++word){
+      isEmpty = fChunks[aChunk][word] == 0;
+    }
+    if(isEmpty){
+      fChunks[aChunk] = null;
+    }
+  }
+
+  /** Return the given word of the whole set, treating a missing chunk as all zeros. Package-private, shared with BusinessCalendar. */
+  long wordAt(int aWordIndex){
+    long[] words = fChunks[aWordIndex >>> CHUNK_WORD_SHIFT];
+    return words == null ? 0 : words[aWordIndex & WORD_MASK];
+  }
+
+  /** The bits of the given word which fall in the range aFrom..aTo of day indexes. */
+  private static long rangeMask(int aWordIndex, int aFrom, int aTo){
+    long result = -1L;
+    if(aFrom >>> WORD_SHIFT == aWordIndex){
+      result = result & (-1L << aFrom);
+    }
+    if(aTo >>> WORD_SHIFT == aWordIndex){
+      result = result & (-1L >>> (63 - (aTo & 63)));
+    }
+    return result;
+  }
+
+  /** The index of the first day on or after the given index which is in the set (or not); -1 if none. */
+  private int nextIndex(int aFrom, boolean aInSet){
+    int result = -1;
+    int wordIndex = aFrom >>> WORD_SHIFT;
+    long word = (aInSet ? wordAt(wordIndex) : ~wordAt(wordIndex)) & (-1L << aFrom);
+    while(word == 0 && ++wordIndex < NUM_WORDS){
+      if(aInSet && fChunks[wordIndex >>> CHUNK_WORD_SHIFT] == null){
+        //skip the rest of an empty chunk
+        wordIndex = wordIndex | WORD_MASK;
+      }
+      else {
+        word = aInSet ? wordAt(wordIndex) : ~wordAt(wordIndex);
+      }
+    }
+    if(word != 0){
+      result = (wordIndex << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+    }
+    return result < NUM_DAYS ? result : -1;
+  }
+
+  /** The index of the last day on or before the given index which is in the set (or not); -1 if none. */
+  private int previousIndex(int aFrom, boolean aInSet){
+    int result = -1;
+    int wordIndex = aFrom >>> WORD_SHIFT;
+    long word = (aInSet ? wordAt(wordIndex) : ~wordAt(wordIndex)) & (-1L >>> (63 - (aFrom & 63)));
+    while(word == 0 && --wordIndex >= 0){
+      if(aInSet && fChunks[wordIndex >>> CHUNK_WORD_SHIFT] == null){
+        //skip the rest of an empty chunk
+        wordIndex = wordIndex & ~WORD_MASK;
+      }
+      else {
+        word = aInSet ? wordAt(wordIndex) : ~wordAt(wordIndex);
+      }
+    }
+    if(word != 0){
+      result = (wordIndex << WORD_SHIFT) + 63 - Long.numberOfLeadingZeros(word);
+    }
+    return result;
+  }
+}
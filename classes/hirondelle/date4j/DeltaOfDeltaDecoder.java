@@ -0,0 +1,142 @@
+package hirondelle.date4j;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ Reads a sequence of timestamps written by {@link DeltaOfDeltaEncoder}.
+
+ <P>Items can be read in order, with {@link #iterator()}, or at any index, with {@link #get(int)}. Random access
+ starts from the nearest preceding checkpoint, so its cost is bounded by the checkpoint interval.
+
+ <P>The <tt>DateTime</tt> objects returned are in UTC, and always have all units, from year to nanosecond.
+
+ <P>This class is immutable, and its methods may be called from any thread. Its iterators are not thread-safe,
+ and don't support <tt>remove</tt>.
+*/
+public final class DeltaOfDeltaDecoder implements Iterable<DateTime> {
+
+  /**
+   Constructor.
+   @param aBlock created by {@link DeltaOfDeltaEncoder#toByteArray()}; not copied, and must not be changed.
+  */
+  public DeltaOfDeltaDecoder(byte[] aBlock){
+    ByteBuffer buffer = ByteBuffer.wrap(aBlock);
+    fSize = buffer.getInt();
+    fCheckpointInterval = buffer.getInt();
+    int numCheckpoints = buffer.getInt();
+    long numBits = buffer.getLong();
+    if(fSize < 0 || fCheckpointInterval < 1 || numCheckpoints != (fSize + fCheckpointInterval - 1) / fCheckpointInterval){
+      throw new IllegalArgumentException("Not a block of timestamps written by DeltaOfDeltaEncoder.");
+    }
+    fCheckpoints = new long[3 * numCheckpoints];
+    for(int idx = 0; idx < fCheckpoints.length; ++idx){
+      fCheckpoints[idx] = buffer.getLong();
+    }
+    fStreamStart = buffer.position();
+    if((aBlock.length - fStreamStart) * 8L < numBits){
+      throw new IllegalArgumentException("Block of timestamps is truncated.");
+    }
+    fBlock = aBlock;
+  }
+
+  /** Return the number of timestamps in the sequence. */
+  public int size(){
+    return fSize;
+  }
+
+  /** Return the timestamp at the given index, 0..size()-1. */
+  public DateTime get(int aIndex){
+    return DateTime.forEpochNanoUtc(getEpochNano(aIndex));
+  }
+
+  /** Return the timestamp at the given index, 0..size()-1, as nanoseconds from the epoch in UTC. */
+  public long getEpochNano(int aIndex){
+    if(aIndex < 0 || aIndex >= fSize){
+      throw new IndexOutOfBoundsException("Index " + aIndex + " is not in the range 0.." + (fSize - 1));
+    }
+    Cursor cursor = new Cursor(aIndex / fCheckpointInterval);
+    for(int idx = aIndex % fCheckpointInterval; idx > 0; --idx){
+      cursor.readNext();
+    }
+    return cursor.fValue;
+  }
+
+  /** Return the timestamps in order, decoding each one only once. */
+  public Iterator<DateTime> iterator(){
+    return new Iterator<DateTime>(){
+      public boolean hasNext() {
+        return fNext < fSize;
+      }
+      public DateTime next() {
+        if(! hasNext()){
+          throw new NoSuchElementException();
+        }
+        if(fNext % fCheckpointInterval == 0){
+          fCursor = new Cursor(fNext / fCheckpointInterval);
+        }
+        else {
+          fCursor.readNext();
+        }
+        ++fNext;
+        return DateTime.forEpochNanoUtc(fCursor.fValue);
+      }
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+      private int fNext;
+      private Cursor fCursor;
+    };
+  }
+
+  // PRIVATE
+
+  private final int fSize;
+  private final int fCheckpointInterval;
+  /** Triplets of value, delta, and bit offset. */
+  private final long[] fCheckpoints;
+  private final byte[] fBlock;
+  private final int fStreamStart;
+
+  /** Walks the bit stream forward from a checkpoint. */
+  private final class Cursor {
+    Cursor(int aCheckpoint){
+      fValue = fCheckpoints[3 * aCheckpoint];
+      fDelta = fCheckpoints[3 * aCheckpoint + 1];
+      fBitOffset = fCheckpoints[3 * aCheckpoint + 2];
+    }
+    void readNext(){
+      int numOnes = 0;
+      while(numOnes < DeltaOfDeltaEncoder.DOD_BITS.length && readBits(1) == 1){
+        ++numOnes;
+      }
+      if(numOnes > 0){
+        int numBits = DeltaOfDeltaEncoder.DOD_BITS[numOnes - 1];
+        long deltaOfDelta = readBits(numBits);
+        if(numBits < 64){
+          //sign extension
+          deltaOfDelta = (deltaOfDelta << (64 - numBits)) >> (64 - numBits);
+        }
+        fDelta = fDelta + deltaOfDelta;
+      }
+      fValue = fValue + fDelta;
+    }
+    private long readBits(int aNumBits){
+      long result = 0;
+      int remaining = aNumBits;
+      while(remaining > 0){
+        int available = 8 - (int)(fBitOffset & 7);
+        int numBits = Math.min(available, remaining);
+        int bits = (fBlock[fStreamStart + (int)(fBitOffset >>> 3)] & 0xFF) >>> (available - numBits);
+        result = (result << numBits) | (bits & ((1 << numBits) - 1));
+        fBitOffset = fBitOffset + numBits;
+        remaining = remaining - numBits;
+      }
+      return result;
+    }
+    long fValue;
+    long fDelta;
+    long fBitOffset;
+  }
+}
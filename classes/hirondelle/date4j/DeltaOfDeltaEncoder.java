@@ -0,0 +1,189 @@
+package hirondelle.date4j;
+
+import java.nio.ByteBuffer;
+
+/**
+ Compresses a sequence of timestamps, using delta-of-delta encoding.
+
+ <P>Series of timestamps from metrics and sensors usually arrive at a nearly regular interval. The text form of
+ a <tt>DateTime</tt> takes about 30 bytes; this class stores each timestamp in as little as 1 bit. In the style of the
+ 'Gorilla' time series database, each timestamp is stored as the change in its delta from the previous timestamp,
+ and that delta-of-delta is written with a variable number of bits:
+ <ul>
+ <li><tt>0</tt> : no change in the delta (1 bit in all).
+ <li><tt>10</tt> followed by 7 bits, <tt>110</tt> + 14 bits, <tt>1110</tt> + 24 bits, or <tt>11110</tt> + 40 bits :
+ a signed change in the delta, using the smallest size that fits.
+ <li><tt>11111</tt> followed by 64 bits : any other change.
+ </ul>
+
+ <P>Timestamps are held as nanoseconds from the epoch, as in {@link DateTime#toEpochNanoUtc()}, so the range
+ of years is 1677..2262. The sequence is usually ascending, but doesn't need to be.
+
+ <P>Every so often (the checkpoint interval), a timestamp and its delta are also recorded in full, in a table at the
+ start of the output. This lets {@link DeltaOfDeltaDecoder} go directly to any index, decoding at most one checkpoint
+ interval of items. Larger intervals give smaller output, and slower random access.
+
+ <P>Example:
+ <PRE>
+  DeltaOfDeltaEncoder encoder = new DeltaOfDeltaEncoder(128);
+  for(DateTime timestamp : timestamps){
+    encoder.add(timestamp);
+  }
+  byte[] block = encoder.toByteArray();
+  ...
+  DeltaOfDeltaDecoder decoder = new DeltaOfDeltaDecoder(block);
+  DateTime timestamp = decoder.get(1000);
+ </PRE>
+
+ <P>This class is mutable, and is not thread-safe.
+*/
+public final class DeltaOfDeltaEncoder {
+
+  /**
+   Constructor.
+   @param aCheckpointInterval number of items between checkpoints, 1 or more.
+  */
+  public DeltaOfDeltaEncoder(int aCheckpointInterval){
+    if(aCheckpointInterval < 1){
+      throw new IllegalArgumentException("Checkpoint interval must be 1 or more: " + aCheckpointInterval);
+    }
+    fCheckpointInterval = aCheckpointInterval;
+  }
+
+  /**
+   Add a timestamp to the end of the sequence.
+   @param aTimestamp must have year-month-day, in the range of years 1677..2262, in UTC. Missing time units are treated as 0.
+  */
+  public void add(DateTime aTimestamp){
+    addEpochNano(aTimestamp.toEpochNanoUtc());
+  }
+
+  /** Add a timestamp to the end of the sequence, as nanoseconds from the epoch in UTC. */
+  public void addEpochNano(long aEpochNano){
+    long delta = fSize == 0 ? 0 : aEpochNano - fLastValue;
+    if(fSize % fCheckpointInterval == 0){
+      addCheckpoint(aEpochNano, delta);
+    }
+    else {
+      writeDeltaOfDelta(delta - fLastDelta);
+    }
+    fLastValue = aEpochNano;
+    fLastDelta = delta;
+    ++fSize;
+  }
+
+  /** Return the number of timestamps added so far. */
+  public int size(){
+    return fSize;
+  }
+
+  /** Return the number of bits used so far by the delta-of-delta stream, not including the checkpoint table. */
+  public long getNumBits(){
+    return fNumBits;
+  }
+
+  /**
+   Return the encoded sequence, to be read by {@link DeltaOfDeltaDecoder}.
+   More items can still be added afterwards, and this method called again.
+  */
+  public byte[] toByteArray(){
+    int numStreamBytes = (int)((fNumBits + 7) / 8);
+    ByteBuffer result = ByteBuffer.allocate(HEADER_BYTES + fNumCheckpoints * CHECKPOINT_BYTES + numStreamBytes);
+    result.putInt(fSize);
+    result.putInt(fCheckpointInterval);
+    result.putInt(fNumCheckpoints);
+    result.putLong(fNumBits);
+    for(int idx = 0; idx < fNumCheckpoints; ++idx){
+      result.putLong(fCheckpoints[3 * idx]);
+      result.putLong(fCheckpoints[3 * idx + 1]);
+      result.putLong(fCheckpoints[3 * idx + 2]);
+    }
+    for(int idx = 0; idx < numStreamBytes; ++idx){
+      result.put((byte)(fWords[idx / 8] >>> (56 - 8 * (idx % 8))));
+    }
+    return result.array();
+  }
+
+  // PRIVATE
+
+  /** Count, checkpoint interval, number of checkpoints, number of bits. */
+  static final int HEADER_BYTES = 4 + 4 + 4 + 8;
+  /** Value, delta, and bit offset of the next item. */
+  static final int CHECKPOINT_BYTES = 3 * 8;
+  /** The sizes of signed values for each prefix: 10, 110, 1110, 11110, 11111. */
+  static final int[] DOD_BITS = {7, 14, 24, 40, 64};
+
+  private final int fCheckpointInterval;
+  private int fSize;
+  private long fLastValue;
+  private long fLastDelta;
+
+  /** Triplets of value, delta, and bit offset. */
+  private long[] fCheckpoints = new long[3 * 16];
+  private int fNumCheckpoints;
+
+  /** The bit stream, most significant bit first. */
+  private long[] fWords = new long[16];
+  private long fNumBits;
+
+  private void addCheckpoint(long aValue, long aDelta){
+    if(3 * (fNumCheckpoints + 1) > fCheckpoints.length){
+      fCheckpoints = grow(fCheckpoints);
+    }
+    fCheckpoints[3 * fNumCheckpoints] = aValue;
+    fCheckpoints[3 * fNumCheckpoints + 1] = aDelta;
+    fCheckpoints[3 * fNumCheckpoints + 2] = fNumBits;
+    ++fNumCheckpoints;
+  }
+
+  private void writeDeltaOfDelta(long aDeltaOfDelta){
+    if(aDeltaOfDelta == 0){
+      writeBits(0, 1);
+    }
+    else {
+      int bucket = 0;
+      while(bucket < DOD_BITS.length - 1 && ! fits(aDeltaOfDelta, DOD_BITS[bucket])){
+        ++bucket;
+      }
+      if(bucket < DOD_BITS.length - 1){
+        //bucket + 1 ones, then a zero
+        writeBits((1L << (bucket + 2)) - 2, bucket + 2);
+      }
+      else {
+        writeBits((1L << DOD_BITS.length) - 1, DOD_BITS.length);
+      }
+      writeBits(aDeltaOfDelta, DOD_BITS[bucket]);
+    }
+  }
+
+  /** Return true only if the value fits in a signed field of the given size. */
+  private static boolean fits(long aValue, int aNumBits){
+    long limit = 1L << (aNumBits - 1);
+    return aValue >= -limit && aValue < limit;
+  }
+
+  /** Append the low <tt>aNumBits</tt> bits of the value, most significant first. */
+  private void writeBits(long aValue, int aNumBits){
+    long value = aNumBits == 64 ? aValue : aValue & ((1L << aNumBits) - 1);
+    int remaining = aNumBits;
+    while(remaining > 0){
+      int word = (int)(fNumBits >>> 6);
+      if(word >= fWords.length){
+        fWords = grow(fWords);
+      }
+      int used = (int)(fNumBits & 63);
+      int free = 64 - used;
+      int numBits = Math.min(free, remaining);
+      long bits = (value >>> (remaining - numBits)) & (numBits == 64 ? -1L : (1L << numBits) - 1);
+      fWords[word] = fWords[word] | (bits << (free - numBits));
+      fNumBits = fNumBits + numBits;
+      remaining = remaining - numBits;
+    }
+  }
+
+  private static long[] grow(long[] aArray){
+    long[] result = new long[2 * aArray.length];
+    System.arraycopy(aArray, 0, result, 0, aArray.length);
+    return result;
+  }
+}
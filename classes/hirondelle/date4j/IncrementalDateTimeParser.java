@@ -0,0 +1,109 @@
+package hirondelle.date4j;
+
+/**
+ Parse a stream of date-time Strings, reusing the date part of the previous item whenever it's unchanged.
+
+ <P>The typical use case is reading a sorted log file, in which each line starts with a date-time such as
+ <tt>2011-10-24 08:05:59.123</tt>. In such files, the year-month-day prefix changes only once a day.
+ This class remembers the last date part it has seen, along with its already-validated year-month-day.
+ When the next item has exactly the same date part, then only the time part is parsed.
+
+ <P>The returned values are the same as those of the stateless parsing performed by {@link DateTime}:
+ for any text <tt>t</tt> accepted by {@link DateTime#DateTime(String)},
+ <PRE>parser.parse(t).equals(new DateTime(t))</PRE>
+ The formats accepted, and the exceptions thrown for bad input, are also the same.
+ Unlike {@link DateTime#DateTime(String)}, the text is parsed immediately, and the returned <tt>DateTime</tt> doesn't
+ retain the original text.
+
+ <P>Example:
+ <PRE>
+  IncrementalDateTimeParser parser = new IncrementalDateTimeParser();
+  for(String line : lines){
+    DateTime timestamp = parser.parse(line.substring(0, 23));
+    ...
+  }
+ </PRE>
+
+ <P>This class is mutable, and is not thread-safe. Use one instance per stream (or per thread).
+*/
+public final class IncrementalDateTimeParser {
+
+  /** Constructor. Nothing is remembered until the first call to {@link #parse(String)}. */
+  public IncrementalDateTimeParser(){
+    //empty
+  }
+
+  /**
+   Parse the given date-time String into a <tt>DateTime</tt>.
+
+   <P>Accepts the same formats as {@link DateTime#DateTime(String)}. The text is trimmed by this method.
+   If the text can't be parsed, then a <tt>RuntimeException</tt> is thrown, and the remembered date part
+   is left unchanged.
+   @param aDateTime cannot be null.
+  */
+  public DateTime parse(String aDateTime){
+    if(aDateTime == null){
+      throw new NullPointerException("DateTime string is null");
+    }
+    String dateTime = aDateTime.trim();
+    DateTimeParser parser = new DateTimeParser();
+    int separator = parser.getDateTimeSeparator(dateTime);
+    boolean hasDateAndTime = 0 < separator  && separator < dateTime.length();
+    DateTime result = null;
+    if (hasDateAndTime && isSameDatePart(dateTime, separator)){
+      ++fNumReused;
+      result = parser.parseTimeForDate(dateTime.substring(separator + 1), fYear, fMonth, fDay);
+    }
+    else {
+      result = parser.parse(dateTime);
+      if (hasDateAndTime){
+        remember(dateTime.substring(0, separator), result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   Return the number of calls to {@link #parse(String)} which reused the remembered date part.
+   Intended for tuning and testing.
+  */
+  public long getNumReused(){
+    return fNumReused;
+  }
+
+  /** Forget the remembered date part. The next call to {@link #parse(String)} will parse its text in full. */
+  public void reset(){
+    fLastDatePart = null;
+    fYear = null;
+    fMonth = null;
+    fDay = null;
+  }
+
+  // PRIVATE
+
+  /** The date part of the last item having both a date and a time. Null if nothing remembered. */
+  private String fLastDatePart;
+
+  /* The validated year-month-day corresponding to fLastDatePart. */
+  private Integer fYear;
+  private Integer fMonth;
+  private Integer fDay;
+
+  private long fNumReused;
+
+  /** Compare the leading characters in place, without creating a new String for the date part. */
+  private boolean isSameDatePart(String aDateTime, int aSeparator){
+    return
+      fLastDatePart != null &&
+      fLastDatePart.length() == aSeparator &&
+      aDateTime.startsWith(fLastDatePart)
+    ;
+  }
+
+  private void remember(String aDatePart, DateTime aParsed){
+    fLastDatePart = aDatePart;
+    fYear = aParsed.getYear();
+    fMonth = aParsed.getMonth();
+    fDay = aParsed.getDay();
+  }
+}
@@ -0,0 +1,664 @@
+package hirondelle.date4j;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ A rule for recurring events, such as 'every second Tuesday', or 'the third Friday of each month'.
+
+ <P>Rules are stated in a subset of the <tt>RRULE</tt> syntax of <a href='http://tools.ietf.org/html/rfc5545'>RFC 5545</a>
+ (iCalendar), as a list of <tt>NAME=VALUE</tt> pairs separated by semicolons. Examples:
+ <ul>
+ <li><tt>FREQ=WEEKLY;INTERVAL=2;BYDAY=TU</tt> - every second Tuesday
+ <li><tt>FREQ=MONTHLY;BYDAY=3FR</tt> - the third Friday of each month (options expiry)
+ <li><tt>FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1</tt> - the last weekday of each month
+ <li><tt>FREQ=YEARLY;BYMONTH=5;BYDAY=-1MO;COUNT=10</tt> - the last Monday in May, 10 times
+ <li><tt>FREQ=DAILY;INTERVAL=10;UNTIL=2013-12-31</tt> - every 10th day, until the end of 2013
+ </ul>
+
+ <P>The supported names are:
+ <ul>
+ <li><tt>FREQ</tt> (required): <tt>DAILY</tt>, <tt>WEEKLY</tt>, <tt>MONTHLY</tt>, or <tt>YEARLY</tt>.
+ <li><tt>INTERVAL</tt>: every n-th day, week, month, or year; the default is 1.
+ <li><tt>BYDAY</tt>: a list of week days <tt>MO TU WE TH FR SA SU</tt>. For <tt>MONTHLY</tt> and <tt>YEARLY</tt>,
+ a day may have an ordinal <tt>1..5</tt> or <tt>-1..-5</tt>, counting from the start or end of the <em>month</em>
+ (never of the year). So, with <tt>YEARLY</tt>, an ordinal needs <tt>BYMONTH</tt>.
+ <li><tt>BYMONTHDAY</tt>: a list of days of the month, <tt>1..31</tt> or <tt>-1..-31</tt>. Not allowed with <tt>WEEKLY</tt>.
+ <li><tt>BYMONTH</tt>: a list of months, <tt>1..12</tt>.
+ <li><tt>BYSETPOS</tt>: a list of positions in the set of days in each week, month, or year; negative positions
+ count from the end. Not allowed with <tt>DAILY</tt>.
+ <li><tt>COUNT</tt>: the maximum number of occurrences.
+ <li><tt>UNTIL</tt>: the last possible occurrence, in any format accepted by {@link DateTime#DateTime(String)}.
+ Not allowed with <tt>COUNT</tt>.
+ </ul>
+ Weeks start on Monday. Times of day other than the start's (<tt>BYHOUR</tt> and so on) are not supported.
+
+ <P>Occurrences fall on or after the start, and have the same time portion as the start. As in RFC 5545, when no
+ <tt>BYxxx</tt> item picks the days, the start's day of the week, or day of the month, or month and day, is used;
+ and <tt>YEARLY</tt> with <tt>BYDAY</tt> or <tt>BYMONTHDAY</tt>, but no <tt>BYMONTH</tt>, applies to every month.
+ Unlike RFC 5545, the start itself is an occurrence only if it matches the rule. Months lacking the day
+ (<tt>BYMONTHDAY=31</tt> in April, say) are skipped.
+
+ <P>Occurrences are computed one at a time, on demand. Finding the next occurrence jumps directly to the
+ week, month, or year holding the given date, and finds the matching days of each period with a few bitwise
+ operations on a mask of its days, without creating <tt>DateTime</tt> objects for candidate days. So rules
+ can be stored in large numbers (each is a few small fields), and asked for their next occurrence cheaply.
+ (When <tt>COUNT</tt> is used, the constructor finds the last occurrence, once. For rules having a fixed step,
+ such as <tt>FREQ=DAILY;INTERVAL=3</tt> or <tt>FREQ=WEEKLY;BYDAY=TU</tt>, that is a single multiplication; for
+ others, occurrences are counted a whole week, month, or year at a time, by counting the bits of its mask.)
+
+ <P>Example:
+ <PRE>
+  RecurrenceRule rule = new RecurrenceRule(DateTime.forDateOnly(2012, 1, 1), "FREQ=MONTHLY;BYDAY=3FR");
+  DateTime nextExpiry = rule.next(today);
+  for(DateTime expiry : rule){
+    ...
+  }
+ </PRE>
+
+ <P>This class is immutable.
+*/
+public final class RecurrenceRule implements Iterable<DateTime> {
+
+  /**
+   Constructor.
+   @param aStart the start of the recurrence, having year-month-day. Its time portion, if any, is the time of each occurrence.
+   @param aRule a rule in the syntax described above. An optional leading <tt>RRULE:</tt> is ignored.
+   Names and week days are not case-sensitive.
+  */
+  public RecurrenceRule(DateTime aStart, String aRule){
+    if(! aStart.unitsAllPresent(DateTime.Unit.YEAR, DateTime.Unit.MONTH, DateTime.Unit.DAY)){
+      throw new IllegalArgumentException("Start of a recurrence must have year-month-day: " + aStart);
+    }
+    fStart = aStart;
+    fRule = aRule;
+    fStartJD = DateTime.julianDayNumberAtNoon(aStart.getYear(), aStart.getMonth(), aStart.getDay());
+    fStartMonthIndex = monthIndex(aStart.getYear(), aStart.getMonth());
+    Parts parts = parse(aRule);
+    fFrequency = parts.fFrequency;
+    fInterval = parts.fInterval;
+    fWeekDays = parts.fWeekDays;
+    fOrdinals = parts.fOrdinals;
+    fOrdinalWeekDays = parts.fOrdinalWeekDays;
+    fMonthDays = parts.fMonthDays;
+    fMonths = parts.fMonths;
+    fYearMonths = parts.fYearMonths;
+    fSetPositions = parts.fSetPositions;
+    fCount = parts.fCount;
+    fUntil = parts.fUntil;
+    int lastJD = untilDay();
+    if(fCount > 0){
+      int countJD = dayOfOccurrence(fCount, lastJD);
+      if(countJD != NONE){
+        lastJD = countJD;
+      }
+    }
+    fLastJD = lastJD;
+  }
+
+  /** Return the start passed to the constructor. */
+  public DateTime getStart(){
+    return fStart;
+  }
+
+  /**
+   Return the first occurrence which comes after the given moment, or <tt>null</tt> if there is none.
+   @param aAfter must have year-month-day. It is usually expected to have the same units as the start.
+  */
+  public DateTime next(DateTime aAfter){
+    int afterJD = DateTime.julianDayNumberAtNoon(aAfter.getYear(), aAfter.getMonth(), aAfter.getDay());
+    int day = firstDayFrom(afterJD);
+    if(day == afterJD && ! occurrenceOn(day).gt(aAfter)){
+      day = firstDayFrom(day + 1);
+    }
+    return day == NONE ? null : occurrenceOn(day);
+  }
+
+  /** Return the occurrences, in order. The iterator computes each occurrence when it's asked for. */
+  public Iterator<DateTime> iterator(){
+    return new Iterator<DateTime>() {
+      public boolean hasNext() {
+        return fNextDay != NONE;
+      }
+      public DateTime next() {
+        if(fNextDay == NONE){
+          throw new NoSuchElementException();
+        }
+        DateTime result = occurrenceOn(fNextDay);
+        fNextDay = firstDayFrom(fNextDay + 1);
+        return result;
+      }
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+      private int fNextDay = firstDayFrom(fStartJD);
+    };
+  }
+
+  /** Intended for debugging only. */
+  @Override public String toString(){
+    return "RecurrenceRule start:" + fStart + " rule:" + fRule;
+  }
+
+  // PRIVATE
+
+  private final DateTime fStart;
+  private final String fRule;
+  private final int fStartJD;
+  private final int fStartMonthIndex;
+
+  /* The parsed form of the rule. */
+  private final Frequency fFrequency;
+  private final int fInterval;
+  /** BYDAY items having no ordinal. Bits 1..7, for the week days Sunday..Saturday. */
+  private final int fWeekDays;
+  /** BYDAY items having an ordinal, as parallel arrays. */
+  private final int[] fOrdinals;
+  private final int[] fOrdinalWeekDays;
+  /** BYMONTHDAY. Day d is bit d-1; day -d is bit 32+d-1. */
+  private final long fMonthDays;
+  /** BYMONTH. Bits 1..12. */
+  private final int fMonths;
+  /** For YEARLY: the months holding occurrences. Bits 1..12. */
+  private final int fYearMonths;
+  private final int[] fSetPositions;
+  private final int fCount;
+  private final DateTime fUntil;
+  /** The Julian Day Number of the last day on which an occurrence is allowed, from COUNT, UNTIL, or the year 9999. */
+  private final int fLastJD;
+
+  private enum Frequency {DAILY, WEEKLY, MONTHLY, YEARLY}
+
+  /** The items of a rule, as they are parsed, before they are copied into the final fields. */
+  private static final class Parts {
+    Frequency fFrequency;
+    int fInterval = 1;
+    int fWeekDays;
+    int[] fOrdinals = new int[0];
+    int[] fOrdinalWeekDays = new int[0];
+    long fMonthDays;
+    int fMonths;
+    int fYearMonths;
+    int[] fSetPositions = new int[0];
+    int fCount;
+    DateTime fUntil;
+  }
+
+  private static final int NONE = -1;
+  private static final int LAST_YEAR = 9999;
+  private static final int LAST_JD = DateTime.julianDayNumberAtNoon(LAST_YEAR, 12, 31);
+  private static final int LAST_MONTH_INDEX = monthIndex(LAST_YEAR, 12);
+  private static final String[] WEEK_DAY_NAMES = {"SU", "MO", "TU", "WE", "TH", "FR", "SA"};
+  /** Bits 0, 7, 14, 21, 28: a week day repeating through a month. */
+  private static final long EVERY_7TH_DAY = 0x10204081L;
+  private static final int MAX_ORDINAL = 5;
+  private static final int MAX_SET_POSITION = 366;
+  /** Bits 1..12. */
+  private static final int ALL_MONTHS = 0x1FFE;
+
+  private Parts parse(String aRule){
+    Parts result = new Parts();
+    String rule = aRule.trim();
+    if(rule.toUpperCase().startsWith("RRULE:")){
+      rule = rule.substring("RRULE:".length());
+    }
+    Set<String> names = new HashSet<String>();
+    for(String part : rule.split(";")){
+      int equals = part.indexOf('=');
+      if(equals < 1){
+        throw new IllegalArgumentException("Expecting NAME=VALUE in recurrence rule: " + Util.quote(part));
+      }
+      String name = part.substring(0, equals).trim().toUpperCase();
+      String value = part.substring(equals + 1).trim();
+      if(! names.add(name)){
+        throw new IllegalArgumentException("Recurrence rule has more than one " + name + ": " + Util.quote(aRule));
+      }
+      if("FREQ".equals(name)){
+        result.fFrequency = parseFrequency(value);
+      }
+      else if("INTERVAL".equals(name)){
+        result.fInterval = parseInt(name, value, 1, Integer.MAX_VALUE);
+      }
+      else if("COUNT".equals(name)){
+        result.fCount = parseInt(name, value, 1, Integer.MAX_VALUE);
+      }
+      else if("UNTIL".equals(name)){
+        result.fUntil = new DateTime(value);
+        if(! result.fUntil.unitsAllPresent(DateTime.Unit.YEAR, DateTime.Unit.MONTH, DateTime.Unit.DAY)){
+          throw new IllegalArgumentException("UNTIL must have year-month-day: " + Util.quote(value));
+        }
+      }
+      else if("BYDAY".equals(name)){
+        parseWeekDays(value, result);
+      }
+      else if("BYMONTHDAY".equals(name)){
+        for(String item : value.split(",")){
+          int day = parseNonZeroInt(name, item, 31);
+          result.fMonthDays = result.fMonthDays | (day > 0 ? 1L << (day - 1) : 1L << (32 - day - 1));
+        }
+      }
+      else if("BYMONTH".equals(name)){
+        for(String item : value.split(",")){
+          result.fMonths = result.fMonths | 1 << parseInt(name, item, 1, 12);
+        }
+      }
+      else if("BYSETPOS".equals(name)){
+        String[] items = value.split(",");
+        result.fSetPositions = new int[items.length];
+        for(int idx = 0; idx < items.length; ++idx){
+          result.fSetPositions[idx] = parseNonZeroInt(name, items[idx], MAX_SET_POSITION);
+        }
+      }
+      else {
+        throw new IllegalArgumentException("Unknown or unsupported item in recurrence rule: " + Util.quote(name));
+      }
+    }
+    validate(result, aRule);
+    return result;
+  }
+
+  private void validate(Parts aParts, String aRule){
+    String message = null;
+    if(aParts.fFrequency == null){
+      message = "FREQ is required";
+    }
+    else if(aParts.fCount > 0 && aParts.fUntil != null){
+      message = "COUNT and UNTIL can't both be used";
+    }
+    else if(aParts.fOrdinals.length > 0 && (aParts.fFrequency == Frequency.DAILY || aParts.fFrequency == Frequency.WEEKLY)){
+      message = "BYDAY with an ordinal needs FREQ=MONTHLY or FREQ=YEARLY";
+    }
+    else if(aParts.fMonthDays != 0 && aParts.fFrequency == Frequency.WEEKLY){
+      message = "BYMONTHDAY can't be used with FREQ=WEEKLY";
+    }
+    else if(aParts.fSetPositions.length > 0 && aParts.fFrequency == Frequency.DAILY){
+      message = "BYSETPOS can't be used with FREQ=DAILY";
+    }
+    else if(aParts.fOrdinals.length > 0 && aParts.fFrequency == Frequency.YEARLY && aParts.fMonths == 0){
+      message = "BYDAY with an ordinal counts within a month, so FREQ=YEARLY needs BYMONTH";
+    }
+    if(message != null){
+      throw new IllegalArgumentException(message + ": " + Util.quote(aRule));
+    }
+    if(aParts.fFrequency == Frequency.WEEKLY && aParts.fWeekDays == 0){
+      aParts.fWeekDays = 1 << weekDay(fStartJD);
+    }
+    if(aParts.fMonths != 0){
+      aParts.fYearMonths = aParts.fMonths;
+    }
+    else if(aParts.fWeekDays != 0 || aParts.fMonthDays != 0){
+      aParts.fYearMonths = ALL_MONTHS;
+    }
+    else {
+      aParts.fYearMonths = 1 << fStart.getMonth();
+    }
+  }
+
+  private static Frequency parseFrequency(String aValue){
+    Frequency result = null;
+    for(Frequency frequency : Frequency.values()){
+      if(frequency.name().equalsIgnoreCase(aValue)){
+        result = frequency;
+      }
+    }
+    if(result == null){
+      throw new IllegalArgumentException("FREQ must be DAILY, WEEKLY, MONTHLY, or YEARLY: " + Util.quote(aValue));
+    }
+    return result;
+  }
+
+  /** Items such as MO, 2TU, -1FR. */
+  private static void parseWeekDays(String aValue, Parts aParts){
+    String[] items = aValue.split(",");
+    int numOrdinals = 0;
+    int[] ordinals = new int[items.length];
+    int[] ordinalWeekDays = new int[items.length];
+    for(String item : items){
+      String text = item.trim().toUpperCase();
+      int weekDay = NONE;
+      if(text.length() >= 2){
+        String name = text.substring(text.length() - 2);
+        for(int idx = 0; idx < WEEK_DAY_NAMES.length; ++idx){
+          if(WEEK_DAY_NAMES[idx].equals(name)){
+            weekDay = idx + 1;
+          }
+        }
+      }
+      if(weekDay == NONE){
+        throw new IllegalArgumentException("BYDAY has an unknown week day: " + Util.quote(item));
+      }
+      String ordinal = text.substring(0, text.length() - 2);
+      if(ordinal.length() == 0){
+        aParts.fWeekDays = aParts.fWeekDays | 1 << weekDay;
+      }
+      else {
+        ordinals[numOrdinals] = parseNonZeroInt("BYDAY", ordinal.startsWith("+") ? ordinal.substring(1) : ordinal, MAX_ORDINAL);
+        ordinalWeekDays[numOrdinals] = weekDay;
+        ++numOrdinals;
+      }
+    }
+    aParts.fOrdinals = new int[numOrdinals];
+    aParts.fOrdinalWeekDays = new int[numOrdinals];
+    System.arraycopy(ordinals, 0, aParts.fOrdinals, 0, numOrdinals);
+    System.arraycopy(ordinalWeekDays, 0, aParts.fOrdinalWeekDays, 0, numOrdinals);
+  }
+
+  private static int parseInt(String aName, String aValue, int aMin, int aMax){
+    int result = 0;
+    try {
+      result = Integer.parseInt(aValue.trim());
+    }
+    catch(NumberFormatException ex){
+      throw new IllegalArgumentException(aName + " is not an integer: " + Util.quote(aValue));
+    }
+    if(result < aMin || result > aMax){
+      throw new IllegalArgumentException(aName + " is not in the range " + aMin + ".." + aMax + ": " + Util.quote(aValue));
+    }
+    return result;
+  }
+
+  /** In the range 1..aMax, or -aMax..-1. */
+  private static int parseNonZeroInt(String aName, String aValue, int aMax){
+    int result = parseInt(aName, aValue, -aMax, aMax);
+    if(result == 0){
+      throw new IllegalArgumentException(aName + " can't be 0.");
+    }
+    return result;
+  }
+
+  private int untilDay(){
+    int result = LAST_JD;
+    if(fUntil != null){
+      result = Math.min(result, DateTime.julianDayNumberAtNoon(fUntil.getYear(), fUntil.getMonth(), fUntil.getDay()));
+      if(result >= fStartJD && occurrenceOn(result).gt(fUntil)){
+        --result;
+      }
+    }
+    return result;
+  }
+
+  /** The day of the occurrence having the given number, counting from 1, or NONE, with no occurrence after aLastJD. */
+  private int dayOfOccurrence(int aNumber, int aLastJD){
+    int result = NONE;
+    int step = fixedStep();
+    if(step > 0){
+      int first = nthDayFrom(fStartJD, 1, aLastJD);
+      long day = first + (long)step * (aNumber - 1);
+      result = (first != NONE && day <= aLastJD) ? (int)day : NONE;
+    }
+    else {
+      result = nthDayFrom(fStartJD, aNumber, aLastJD);
+    }
+    return result;
+  }
+
+  /**
+   The number of days between occurrences, for rules in which it never changes; otherwise 0.
+   That is DAILY with no BYxxx items, or WEEKLY on a single week day, with no BYMONTH or BYSETPOS.
+  */
+  private int fixedStep(){
+    int result = 0;
+    boolean noFilters = fMonths == 0 && fSetPositions.length == 0;
+    if(fFrequency == Frequency.DAILY && noFilters && fMonthDays == 0 && fWeekDays == 0){
+      result = fInterval;
+    }
+    else if(fFrequency == Frequency.WEEKLY && noFilters && Integer.bitCount(fWeekDays) == 1 && fInterval <= Integer.MAX_VALUE / 7){
+      result = 7 * fInterval;
+    }
+    return result;
+  }
+
+  private DateTime occurrenceOn(int aJD){
+    return DateTime.fromJulianDayNumberAtNoon(aJD, fStart.getHour(), fStart.getMinute(), fStart.getSecond(), fStart.getNanoseconds());
+  }
+
+  /** Return the Julian Day Number of the first occurrence on or after the given day, or NONE. */
+  private int firstDayFrom(int aFromJD){
+    return nthDayFrom(aFromJD, 1, fLastJD);
+  }
+
+  /**
+   Return the Julian Day Number of the n-th occurrence on or after the given day, counting from 1, or NONE.
+   No occurrence falls after aLastJD. Whole periods are skipped by counting the bits of their masks.
+  */
+  private int nthDayFrom(int aFromJD, int aNumber, int aLastJD){
+    int from = Math.max(aFromJD, fStartJD);
+    int result = NONE;
+    if(from <= aLastJD){
+      int[] remaining = {aNumber};
+      if(fFrequency == Frequency.WEEKLY){
+        result = nthDayInWeeks(from, aLastJD, remaining);
+      }
+      else if(fFrequency == Frequency.YEARLY){
+        result = nthDayInYears(from, aLastJD, remaining);
+      }
+      else {
+        result = nthDayInMonths(from, aLastJD, remaining);
+      }
+    }
+    return (result != NONE && result <= aLastJD) ? result : NONE;
+  }
+
+  /** For DAILY and MONTHLY: one period per month. */
+  private int nthDayInMonths(int aFromJD, int aLastJD, int[] aRemaining){
+    DateTime from = DateTime.fromJulianDayNumberAtNoon(aFromJD);
+    //in long, since a large INTERVAL can step far past the year 9999
+    long month = monthIndex(from.getYear(), from.getMonth());
+    long step = 1;
+    if(fFrequency == Frequency.MONTHLY){
+      step = fInterval;
+      month = fStartMonthIndex + step * Math.max(0, Util.floorDiv(month - fStartMonthIndex, step));
+    }
+    int result = NONE;
+    int[] firstJDs = new int[1];
+    long[] masks = new long[1];
+    while(result == NONE && month <= LAST_MONTH_INDEX && firstJD((int)month) <= aLastJD){
+      int firstJD = firstJD((int)month);
+      int year = (int)month / 12;
+      int monthOfYear = (int)month % 12 + 1;
+      if(isIncluded(monthOfYear)){
+        int length = DateTime.getNumDaysInMonth(year, monthOfYear);
+        long mask = monthMask(firstJD, length, fStart.getDay());
+        if(fFrequency == Frequency.DAILY){
+          mask = mask & strideMask(firstJD, length);
+        }
+        firstJDs[0] = firstJD;
+        masks[0] = mask;
+        applySetPositions(masks, 1);
+        result = nthDay(firstJDs, masks, 1, aFromJD, aRemaining);
+      }
+      month = month + step;
+    }
+    return result;
+  }
+
+  /** For YEARLY: one period per year, holding the months of BYMONTH, or all months, or the month of the start. */
+  private int nthDayInYears(int aFromJD, int aLastJD, int[] aRemaining){
+    int startYear = fStart.getYear();
+    int fromYear = DateTime.fromJulianDayNumberAtNoon(aFromJD).getYear();
+    //in long, since a large INTERVAL can step far past the year 9999
+    long year = startYear + (long)fInterval * Math.max(0, Util.floorDiv(fromYear - startYear, fInterval));
+    int[] firstJDs = new int[12];
+    long[] masks = new long[12];
+    int result = NONE;
+    while(result == NONE && year <= LAST_YEAR && DateTime.julianDayNumberAtNoon((int)year, 1, 1) <= aLastJD){
+      int numMonths = 0;
+      for(int month = 1; month <= 12; ++month){
+        if((fYearMonths & 1 << month) != 0){
+          firstJDs[numMonths] = DateTime.julianDayNumberAtNoon((int)year, month, 1);
+          masks[numMonths] = monthMask(firstJDs[numMonths], DateTime.getNumDaysInMonth((int)year, month), fStart.getDay());
+          ++numMonths;
+        }
+      }
+      applySetPositions(masks, numMonths);
+      result = nthDay(firstJDs, masks, numMonths, aFromJD, aRemaining);
+      year = year + fInterval;
+    }
+    return result;
+  }
+
+  /** For WEEKLY: one period per week, starting on Monday. */
+  private int nthDayInWeeks(int aFromJD, int aLastJD, int[] aRemaining){
+    int startMonday = fStartJD - (weekDay(fStartJD) + 5) % 7;
+    //in long, since a large INTERVAL can step far past the year 9999
+    long period = 7L * fInterval;
+    long monday = startMonday + period * Math.max(0, Util.floorDiv(aFromJD - startMonday, period));
+    //the same for every week, since each starts on a Monday
+    long weekDaysMask = 0;
+    for(int idx = 0; idx < 7; ++idx){
+      if((fWeekDays & 1 << weekDay(startMonday + idx)) != 0){
+        weekDaysMask = weekDaysMask | 1L << idx;
+      }
+    }
+    int[] firstJDs = new int[1];
+    long[] masks = new long[1];
+    int result = NONE;
+    while(result == NONE && monday <= aLastJD){
+      long mask = weekDaysMask;
+      if(fMonths != 0){
+        for(int idx = 0; idx < 7; ++idx){
+          int day = (int)monday + idx;
+          if(day > LAST_JD || ! isIncluded(DateTime.fromJulianDayNumberAtNoon(day).getMonth())){
+            mask = mask & ~(1L << idx);
+          }
+        }
+      }
+      firstJDs[0] = (int)monday;
+      masks[0] = mask;
+      applySetPositions(masks, 1);
+      result = nthDay(firstJDs, masks, 1, aFromJD, aRemaining);
+      monday = monday + period;
+    }
+    return result;
+  }
+
+  /**
+   The days of a month picked by BYMONTHDAY and BYDAY, or else the given default day. Day d of the month is bit d-1.
+   BYMONTH is not applied here.
+  */
+  private long monthMask(int aFirstJD, int aLength, int aDefaultDay){
+    long result = (1L << aLength) - 1;
+    boolean hasWeekDays = fWeekDays != 0 || fOrdinals.length > 0;
+    if(fMonthDays != 0){
+      long monthDays = fMonthDays & 0xFFFFFFFFL;
+      for(int day = 1; day <= aLength; ++day){
+        //day -d is day length-d+1, which is bit length-d
+        if((fMonthDays & 1L << (32 + day - 1)) != 0){
+          monthDays = monthDays | 1L << (aLength - day);
+        }
+      }
+      result = result & monthDays;
+    }
+    if(hasWeekDays){
+      result = result & weekDayMask(aFirstJD, aLength);
+    }
+    if(fMonthDays == 0 && ! hasWeekDays && fFrequency != Frequency.DAILY){
+      result = aDefaultDay <= aLength ? 1L << (aDefaultDay - 1) : 0;
+    }
+    return result;
+  }
+
+  private long weekDayMask(int aFirstJD, int aLength){
+    int firstWeekDay = weekDay(aFirstJD);
+    int lastWeekDay = weekDay(aFirstJD + aLength - 1);
+    long result = 0;
+    for(int weekDay = 1; weekDay <= 7; ++weekDay){
+      if((fWeekDays & 1 << weekDay) != 0){
+        result = result | EVERY_7TH_DAY << ((weekDay - firstWeekDay + 7) % 7);
+      }
+    }
+    for(int idx = 0; idx < fOrdinals.length; ++idx){
+      int ordinal = fOrdinals[idx];
+      int weekDay = fOrdinalWeekDays[idx];
+      int day = ordinal > 0 ?
+        (weekDay - firstWeekDay + 7) % 7 + 7 * (ordinal - 1) :
+        aLength - 1 - (lastWeekDay - weekDay + 7) % 7 + 7 * (ordinal + 1)
+      ;
+      if(day >= 0 && day < aLength){
+        result = result | 1L << day;
+      }
+    }
+    return result & ((1L << aLength) - 1);
+  }
+
+  /** For DAILY: the days of the month which are a multiple of INTERVAL days from the start. */
+  private long strideMask(int aFirstJD, int aLength){
+    long result = 0;
+    for(long day = Util.floorMod(fStartJD - aFirstJD, fInterval); day < aLength; day = day + fInterval){
+      result = result | 1L << day;
+    }
+    return result;
+  }
+
+  /** Keep only the days at the positions of BYSETPOS, counting across all the given masks, in order. */
+  private void applySetPositions(long[] aMasks, int aNumMasks){
+    if(fSetPositions.length > 0){
+      int total = 0;
+      for(int idx = 0; idx < aNumMasks; ++idx){
+        total = total + Long.bitCount(aMasks[idx]);
+      }
+      long[] selected = new long[aNumMasks];
+      for(int position : fSetPositions){
+        int rank = position > 0 ? position - 1 : total + position;
+        if(rank >= 0 && rank < total){
+          int idx = 0;
+          while(rank >= Long.bitCount(aMasks[idx])){
+            rank = rank - Long.bitCount(aMasks[idx]);
+            ++idx;
+          }
+          long mask = aMasks[idx];
+          for(; rank > 0; --rank){
+            //clear the lowest set bit
+            mask = mask & (mask - 1);
+          }
+          selected[idx] = selected[idx] | Long.lowestOneBit(mask);
+        }
+      }
+      System.arraycopy(selected, 0, aMasks, 0, aNumMasks);
+    }
+  }
+
+  /**
+   The n-th day on or after aFromJD among the given masks, where bit i of a mask is the day aFirstJDs[..] + i, and n is
+   aRemaining[0]. If there are fewer days than that, returns NONE, and reduces aRemaining[0] by the number of days.
+  */
+  private static int nthDay(int[] aFirstJDs, long[] aMasks, int aNumMasks, int aFromJD, int[] aRemaining){
+    int result = NONE;
+    for(int idx = 0; idx < aNumMasks && result == NONE; ++idx){
+      int skip = aFromJD - aFirstJDs[idx];
+      long mask = skip <= 0 ? aMasks[idx] : (skip < 64 ? aMasks[idx] & (-1L << skip) : 0);
+      int numDays = Long.bitCount(mask);
+      if(numDays < aRemaining[0]){
+        aRemaining[0] = aRemaining[0] - numDays;
+      }
+      else {
+        for(int rank = aRemaining[0]; rank > 1; --rank){
+          //clear the lowest set bit
+          mask = mask & (mask - 1);
+        }
+        result = aFirstJDs[idx] + Long.numberOfTrailingZeros(mask);
+      }
+    }
+    return result;
+  }
+
+  private boolean isIncluded(int aMonth){
+    return fMonths == 0 || (fMonths & 1 << aMonth) != 0;
+  }
+
+  /** Months counted from the year 0: year * 12 + month - 1. */
+  private static int monthIndex(int aYear, int aMonth){
+    return aYear * 12 + aMonth - 1;
+  }
+
+  private static int firstJD(int aMonthIndex){
+    return DateTime.julianDayNumberAtNoon(aMonthIndex / 12, aMonthIndex % 12 + 1, 1);
+  }
+
+  /** 1..7 for Sunday..Saturday, as in DateTime.getWeekDay(). */
+  private static int weekDay(int aJD){
+    return (aJD + 1) % 7 + 1;
+  }
+}
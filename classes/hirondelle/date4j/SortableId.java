@@ -0,0 +1,197 @@
+package hirondelle.date4j;
+
+/**
+ Encodes a {@link DateTime} into a 128-bit identifier, whose sort order follows the <tt>DateTime</tt>, in the style of a ULID.
+
+ <P>Record ids built from timestamps are often made by formatting a <tt>DateTime</tt> as text and appending random
+ characters. This class instead packs the <tt>DateTime</tt> and some random bits into 128 bits:
+ <ul>
+ <li>the first 71 bits hold the <tt>DateTime</tt>, including its nanoseconds, in a form whose order is the same as
+ {@link DateTime#compareTo(DateTime)}. Any <tt>DateTime</tt> can be encoded, even one having missing units.
+ <li>the last 57 bits hold random bits supplied by the caller, to make ids unique within the same nanosecond.
+ </ul>
+
+ <P>There are two forms:
+ <ul>
+ <li>binary: 16 bytes, big-endian. Comparing the bytes as unsigned values, in order, gives the order of the <tt>DateTime</tt>.
+ <li>text: 26 characters of <a href='http://www.crockford.com/wrmg/base32.html'>Crockford base-32</a>
+ (<tt>0-9</tt> and <tt>A-Z</tt>, less <tt>I L O U</tt>). Ordinary <tt>String</tt> order is the order of the <tt>DateTime</tt>.
+ When decoding, lower case letters are accepted, as are <tt>I L</tt> (read as <tt>1</tt>), and <tt>O</tt> (read as <tt>0</tt>).
+ </ul>
+ Within the same <tt>DateTime</tt>, ids are ordered by their random bits.
+
+ <P>Decoding recovers the <tt>DateTime</tt> exactly. The encoding methods write into an array supplied by the caller,
+ and allocate nothing.
+
+ <P>Example:
+ <PRE>
+  char[] text = new char[SortableId.TEXT_LENGTH];
+  SortableId.encodeText(timestamp, random.nextLong(), text, 0);
+  ...
+  DateTime timestamp = SortableId.decodeText(text, 0);
+ </PRE>
+
+ <P>The random bits are the caller's responsibility. Use <tt>java.security.SecureRandom</tt> if the ids
+ must not be guessable.
+*/
+public final class SortableId {
+
+  /** The number of bytes in the binary form. */
+  public static final int BYTE_LENGTH = 16;
+
+  /** The number of characters in the text form. */
+  public static final int TEXT_LENGTH = 26;
+
+  /** The number of random bits included in an id. Only the low 57 bits of the <tt>aRandomBits</tt> parameters are used. */
+  public static final int RANDOM_BITS = 128 - DateTimeKey.HIGH_BITS - DateTimeKey.LOW_BITS;
+
+  /**
+   Write the binary form of an id to the given array.
+   @param aDateTime the time to be encoded.
+   @param aRandomBits only the low 57 bits are used.
+   @param aDest receives 16 bytes, starting at <tt>aOffset</tt>.
+  */
+  public static void encode(DateTime aDateTime, long aRandomBits, byte[] aDest, int aOffset){
+    long high = highBits(aDateTime);
+    long low = lowBits(aDateTime, aRandomBits);
+    for(int idx = 0; idx < 8; ++idx){
+      aDest[aOffset + idx] = (byte)(high >>> (56 - 8 * idx));
+      aDest[aOffset + 8 + idx] = (byte)(low >>> (56 - 8 * idx));
+    }
+  }
+
+  /**
+   Write the text form of an id to the given array.
+   @param aDateTime the time to be encoded.
+   @param aRandomBits only the low 57 bits are used.
+   @param aDest receives 26 characters, starting at <tt>aOffset</tt>.
+  */
+  public static void encodeText(DateTime aDateTime, long aRandomBits, char[] aDest, int aOffset){
+    long high = highBits(aDateTime);
+    long low = lowBits(aDateTime, aRandomBits);
+    for(int idx = TEXT_LENGTH - 1; idx >= 0; --idx){
+      aDest[aOffset + idx] = ALPHABET[(int)low & 0x1F];
+      low = (low >>> 5) | (high << 59);
+      high = high >>> 5;
+    }
+  }
+
+  /** Return the text form of an id, as a new <tt>String</tt>. See {@link #encodeText(DateTime, long, char[], int)}. */
+  public static String toText(DateTime aDateTime, long aRandomBits){
+    char[] result = new char[TEXT_LENGTH];
+    encodeText(aDateTime, aRandomBits, result, 0);
+    return new String(result);
+  }
+
+  /**
+   Return the <tt>DateTime</tt> encoded in the binary form of an id.
+   @param aSource holds 16 bytes, starting at <tt>aOffset</tt>.
+  */
+  public static DateTime decode(byte[] aSource, int aOffset){
+    long high = 0;
+    long low = 0;
+    for(int idx = 0; idx < 8; ++idx){
+      high = (high << 8) | (aSource[aOffset + idx] & 0xFF);
+      low = (low << 8) | (aSource[aOffset + 8 + idx] & 0xFF);
+    }
+    return toDateTime(high, low);
+  }
+
+  /**
+   Return the <tt>DateTime</tt> encoded in the text form of an id.
+   @param aSource holds 26 characters, starting at <tt>aOffset</tt>.
+  */
+  public static DateTime decodeText(char[] aSource, int aOffset){
+    return decodeText(new CharArray(aSource), aOffset);
+  }
+
+  /**
+   Return the <tt>DateTime</tt> encoded in the text form of an id.
+   @param aText holds exactly 26 characters.
+  */
+  public static DateTime decodeText(CharSequence aText){
+    if(aText.length() != TEXT_LENGTH){
+      throw new IllegalArgumentException("Id must have " + TEXT_LENGTH + " characters: " + Util.quote(aText));
+    }
+    return decodeText(aText, 0);
+  }
+
+  // PRIVATE
+
+  private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+  /** Maps a character to its value, or -1. Indexed by the char. */
+  private static final byte[] VALUES = new byte['z' + 1];
+  static {
+    for(int idx = 0; idx < VALUES.length; ++idx){
+      VALUES[idx] = -1;
+    }
+    for(int idx = 0; idx < ALPHABET.length; ++idx){
+      VALUES[ALPHABET[idx]] = (byte)idx;
+      VALUES[Character.toLowerCase(ALPHABET[idx])] = (byte)idx;
+    }
+    VALUES['I'] = VALUES['i'] = VALUES['L'] = VALUES['l'] = 1;
+    VALUES['O'] = VALUES['o'] = 0;
+  }
+
+  private static final long RANDOM_MASK = (1L << RANDOM_BITS) - 1;
+  /** The number of bits of the key's low part which overflow into the second long. */
+  private static final int LOW_PART_SPILL = DateTimeKey.LOW_BITS - (64 - DateTimeKey.HIGH_BITS);
+
+  private SortableId(){
+    //prevent construction
+  }
+
+  /** The first 64 bits: the high part of the key, then the start of the low part. */
+  private static long highBits(DateTime aDateTime){
+    return (DateTimeKey.high(aDateTime) << (64 - DateTimeKey.HIGH_BITS)) | (DateTimeKey.low(aDateTime) >>> LOW_PART_SPILL);
+  }
+
+  /** The last 64 bits: the rest of the low part of the key, then the random bits. */
+  private static long lowBits(DateTime aDateTime, long aRandomBits){
+    long rest = DateTimeKey.low(aDateTime) & ((1L << LOW_PART_SPILL) - 1);
+    return (rest << RANDOM_BITS) | (aRandomBits & RANDOM_MASK);
+  }
+
+  private static DateTime toDateTime(long aHigh, long aLow){
+    long keyHigh = aHigh >>> (64 - DateTimeKey.HIGH_BITS);
+    long keyLow = ((aHigh & ((1L << (64 - DateTimeKey.HIGH_BITS)) - 1)) << LOW_PART_SPILL) | (aLow >>> RANDOM_BITS);
+    return DateTimeKey.toDateTime(keyHigh, (int)keyLow);
+  }
+
+  private static DateTime decodeText(CharSequence aText, int aOffset){
+    long high = 0;
+    long low = 0;
+    for(int idx = 0; idx < TEXT_LENGTH; ++idx){
+      char c = aText.charAt(aOffset + idx);
+      int value = c < VALUES.length ? VALUES[c] : -1;
+      //26 characters hold 130 bits; the first character can only use its lowest 3 bits
+      if(value < 0 || (idx == 0 && value > 7)){
+        throw new IllegalArgumentException("Not a valid id: unexpected character " + Util.quote(c) + " at index " + idx);
+      }
+      high = (high << 5) | (low >>> 59);
+      low = (low << 5) | value;
+    }
+    return toDateTime(high, low);
+  }
+
+  /** Avoids copying a char[] into a String. */
+  private static final class CharArray implements CharSequence {
+    CharArray(char[] aChars){
+      fChars = aChars;
+    }
+    public int length() {
+      return fChars.length;
+    }
+    public char charAt(int aIndex) {
+      return fChars[aIndex];
+    }
+    public CharSequence subSequence(int aStart, int aEnd) {
+      return new String(fChars, aStart, aEnd - aStart);
+    }
+    @Override public String toString(){
+      return new String(fChars);
+    }
+    private final char[] fChars;
+  }
+}
@@ -17,6 +17,27 @@ public final class TESTAll {
     suite.addTest(new TestSuite(TESTDateTime.class));
     suite.addTest(new TestSuite(TESTDateTimeFormatter.class));
     suite.addTest(new TestSuite(TESTDateTimeInterval.class));
+    suite.addTest(new TestSuite(TESTIncrementalDateTimeParser.class));
+    suite.addTest(new TestSuite(TESTCachingDateTimeFormatter.class));
+    suite.addTest(new TestSuite(TESTDateTimeBatchParser.class));
+    suite.addTest(new TestSuite(TESTDateTimeRange.class));
+    suite.addTest(new TestSuite(TESTDateTimeCursor.class));
+    suite.addTest(new TestSuite(TESTCachingClock.class));
+    suite.addTest(new TestSuite(TESTClock.class));
+    suite.addTest(new TestSuite(TESTUniqueTimestampGenerator.class));
+    suite.addTest(new TestSuite(TESTSortableId.class));
+    suite.addTest(new TestSuite(TESTDateTimeKeyCodec.class));
+    suite.addTest(new TestSuite(TESTDeltaOfDelta.class));
+    suite.addTest(new TestSuite(TESTDateTimeColumn.class));
+    suite.addTest(new TestSuite(TESTDateTimeSorter.class));
+    suite.addTest(new TestSuite(TESTDateTimeIndex.class));
+    suite.addTest(new TestSuite(TESTDateTimeSpanTree.class));
+    suite.addTest(new TestSuite(TESTDaySet.class));
+    suite.addTest(new TestSuite(TESTBusinessCalendar.class));
+    suite.addTest(new TestSuite(TESTRecurrenceRule.class));
+    suite.addTest(new TestSuite(TESTCronExpression.class));
+    suite.addTest(new TestSuite(TESTTimerWheel.class));
+    suite.addTest(new TestSuite(TESTDateTimeHeap.class));
     
     return suite;
   }
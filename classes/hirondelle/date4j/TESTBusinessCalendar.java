@@ -0,0 +1,110 @@
+package hirondelle.date4j;
+
+import java.util.Arrays;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTBusinessCalendar extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTBusinessCalendar.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTBusinessCalendar( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testIsBusinessDay(){
+    BusinessCalendar calendar = BusinessCalendar.forMondayToFriday(holidays());
+    assertTrue(calendar.isBusinessDay(new DateTime("2012-12-24")));
+    assertFalse(calendar.isBusinessDay(new DateTime("2012-12-25")));
+    assertFalse(calendar.isBusinessDay(new DateTime("2012-12-22 10:15")));
+    assertFalse(calendar.isBusinessDay(new DateTime("2012-12-23")));
+  }
+
+  public void testPlusBusinessDays(){
+    BusinessCalendar calendar = BusinessCalendar.forMondayToFriday(holidays());
+    //Friday 2012-12-21; the 25th and 26th are holidays
+    assertEquals(new DateTime("2012-12-24"), calendar.plusBusinessDays(new DateTime("2012-12-21"), 1));
+    assertEquals(new DateTime("2012-12-27"), calendar.plusBusinessDays(new DateTime("2012-12-21"), 2));
+    assertEquals(new DateTime("2012-12-21"), calendar.plusBusinessDays(new DateTime("2012-12-24"), -1));
+    assertEquals(new DateTime("2012-12-24"), calendar.plusBusinessDays(new DateTime("2012-12-27"), -1));
+    assertEquals(new DateTime("2012-12-24"), calendar.plusBusinessDays(new DateTime("2012-12-22"), 1));
+    assertEquals(new DateTime("2012-12-21"), calendar.plusBusinessDays(new DateTime("2012-12-23"), -1));
+    assertEquals(new DateTime("2012-12-22"), calendar.plusBusinessDays(new DateTime("2012-12-22"), 0));
+    assertEquals(new DateTime("2012-12-27 16:30"), calendar.plusBusinessDays(new DateTime("2012-12-21 16:30"), 2));
+  }
+
+  public void testBetween(){
+    BusinessCalendar calendar = BusinessCalendar.forMondayToFriday(holidays());
+    assertEquals(2, calendar.businessDaysBetween(new DateTime("2012-12-21"), new DateTime("2012-12-27")));
+    assertEquals(-2, calendar.businessDaysBetween(new DateTime("2012-12-27"), new DateTime("2012-12-21")));
+    assertEquals(0, calendar.businessDaysBetween(new DateTime("2012-12-24"), new DateTime("2012-12-24")));
+    assertEquals(261 - 3, calendar.businessDaysBetween(new DateTime("2011-12-31"), new DateTime("2012-12-31")));
+  }
+
+  public void testAgainstLoop(){
+    BusinessCalendar calendar = new BusinessCalendar(Arrays.asList(Integer.valueOf(6), Integer.valueOf(7)), holidays());
+    Random random = new Random(41);
+    DateTime base = DateTime.forDateOnly(2010, 1, 1);
+    for(int test = 0; test < 200; ++test){
+      DateTime start = base.plusDays(random.nextInt(2000));
+      int numDays = random.nextInt(200) - 100;
+      DateTime expected = start;
+      int remaining = Math.abs(numDays);
+      while(remaining > 0){
+        expected = numDays > 0 ? expected.plusDays(1) : expected.minusDays(1);
+        int weekDay = expected.getWeekDay();
+        if(weekDay != 6 && weekDay != 7 && ! holidays().contains(expected)){
+          --remaining;
+        }
+      }
+      assertEquals(expected, calendar.plusBusinessDays(start, numDays));
+      assertEquals(numDays, calendar.businessDaysBetween(start, expected));
+    }
+  }
+
+  public void testEndsOfRange(){
+    BusinessCalendar calendar = new BusinessCalendar(Arrays.asList(new Integer[0]), new DaySet());
+    assertEquals(new DateTime("9999-12-31"), calendar.plusBusinessDays(new DateTime("9999-12-30"), 1));
+    assertEquals(new DateTime("0001-01-01"), calendar.plusBusinessDays(new DateTime("0001-01-02"), -1));
+    try {
+      calendar.plusBusinessDays(new DateTime("9999-12-31"), 1);
+      fail();
+    }
+    catch(RuntimeException ex){
+      //expected
+    }
+    try {
+      calendar.plusBusinessDays(new DateTime("0001-01-01"), -1);
+      fail();
+    }
+    catch(RuntimeException ex){
+      //expected
+    }
+  }
+
+  public void testBadWeekend(){
+    try {
+      new BusinessCalendar(Arrays.asList(Integer.valueOf(8)), new DaySet());
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+  }
+
+  // PRIVATE
+
+  private DaySet holidays(){
+    return new DaySet(Arrays.asList(
+      new DateTime("2012-01-02"), new DateTime("2012-12-25"), new DateTime("2012-12-26"),
+      new DateTime("2011-12-26"), new DateTime("2013-01-01"), new DateTime("2014-07-04")
+    ));
+  }
+}
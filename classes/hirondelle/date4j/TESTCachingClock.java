@@ -0,0 +1,90 @@
+package hirondelle.date4j;
+
+import java.util.TimeZone;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTCachingClock extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTCachingClock.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTCachingClock( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testSameSlice(){
+    CachingClock clock = new CachingClock(60000, true);
+    DateTime first = clock.now(UTC);
+    DateTime second = clock.now(UTC);
+    //a new slice may start between the two calls, but not twice in a row
+    if(first != second){
+      first = clock.now(UTC);
+      second = clock.now(UTC);
+    }
+    assertSame(first, second);
+    assertSame(clock.today(UTC), clock.today(UTC));
+    assertSame(clock.today(UTC), DateTime.today(UTC, clock));
+    assertEquals(first.truncate(DateTime.Unit.DAY), clock.today(UTC));
+    assertTrue(clock.getNumHits() > 0);
+    assertTrue(clock.getMaxStalenessMillis() < 60000);
+  }
+
+  public void testHitMetricsOffByDefault(){
+    CachingClock clock = new CachingClock(60000);
+    for(int idx = 0; idx < 10; ++idx){
+      clock.now(UTC);
+    }
+    assertTrue(clock.getNumMisses() >= 1);
+    assertEquals(0, clock.getNumHits());
+    assertEquals(0, clock.getMaxStalenessMillis());
+  }
+
+  public void testCloseToNow(){
+    CachingClock clock = new CachingClock(1);
+    DateTime before = DateTime.now(UTC);
+    DateTime now = clock.now(UTC);
+    DateTime after = DateTime.now(UTC);
+    assertTrue(before.lteq(now));
+    assertTrue(now.lteq(after));
+  }
+
+  public void testZones(){
+    CachingClock clock = new CachingClock(60000);
+    TimeZone montreal = TimeZone.getTimeZone("America/Montreal");
+    DateTime utc = clock.now(UTC);
+    DateTime local = clock.now(montreal);
+    assertTrue(Math.abs(utc.numSecondsFrom(local)) >= 4 * 3600);
+  }
+
+  public void testTicker() throws InterruptedException {
+    CachingClock clock = new CachingClock(5);
+    clock.startTicker();
+    assertTrue(clock.isTickerRunning());
+    DateTime first = clock.now(UTC);
+    Thread.sleep(100);
+    DateTime later = clock.now(UTC);
+    assertTrue(first.lt(later));
+    clock.stopTicker();
+    assertFalse(clock.isTickerRunning());
+  }
+
+  public void testBadGranularity(){
+    try {
+      new CachingClock(0);
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+  }
+
+  // PRIVATE
+
+  private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+}
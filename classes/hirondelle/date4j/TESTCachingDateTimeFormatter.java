@@ -0,0 +1,80 @@
+package hirondelle.date4j;
+
+import java.util.Locale;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTCachingDateTimeFormatter extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTCachingDateTimeFormatter.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTCachingDateTimeFormatter( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testSameAsFormat(){
+    testSame("YYYY-MM-DD hh:mm:ss.fff");
+    testSame("YYYY-MM-DD hh:mm:ss.fffffffff");
+    testSame("YYYY-MM-DD hh:mm:ss");
+    testSame("hh:mm:ss.f ff fffffffffff");
+    testSame("f");
+    testSame("|f| fff |ff|");
+    testSame("|xfff");
+    testSame("YYYY-MM-DD|T|hh:mm:ss.ffffff|Z|");
+    testSame("D M YYYY h12 hh12 h m s ff");
+  }
+
+  public void testLocale(){
+    CachingDateTimeFormatter format = new CachingDateTimeFormatter("WWWW, MMMM D, YYYY hh:mm:ss.ff a", Locale.CANADA);
+    DateTime dt = new DateTime("2009-10-28 13:59:01.123456789");
+    assertEquals(dt.format("WWWW, MMMM D, YYYY hh:mm:ss.ff a", Locale.CANADA), format.format(dt));
+  }
+
+  public void testCacheReturnsSameText(){
+    CachingDateTimeFormatter format = new CachingDateTimeFormatter("YYYY-MM-DD hh:mm:ss");
+    String first = format.format(new DateTime("2009-10-28 13:59:01.1"));
+    String second = format.format(new DateTime("2009-10-28 13:59:01.2"));
+    assertSame(first, second);
+  }
+
+  public void testNoContent(){
+    try {
+      new CachingDateTimeFormatter("  ");
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+  }
+
+  // PRIVATE
+
+  private static final String[] DATE_TIMES = {
+    "2009-10-28 13:59:01.123456789",
+    "2009-10-28 13:59:01.000000001",
+    "2009-10-28 13:59:01.5",
+    "2009-10-28 13:59:02",
+    "2009-10-28 13:59:02.987654321",
+    "2009-10-28 00:00:00.000100000",
+    "2010-01-01 00:00:00.999999999",
+    "0001-01-01 00:00:00.01",
+  };
+
+  private void testSame(String aFormat){
+    CachingDateTimeFormatter format = new CachingDateTimeFormatter(aFormat);
+    for(String text : DATE_TIMES){
+      DateTime dt = new DateTime(text);
+      String expected = dt.format(aFormat);
+      String actual = format.format(dt);
+      if(! expected.equals(actual)){
+        fail("Format:" + aFormat + " Expected:" + expected + " Actual:" + actual);
+      }
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package hirondelle.date4j;
+
+import java.util.TimeZone;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTClock extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTClock.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTClock( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testFixedClock(){
+    Clock clock = new Clock.FixedClock(new DateTime("2012-06-15 10:11:12.123456789"));
+    assertEquals(new DateTime("2012-06-15 10:11:12.123456789"), DateTime.now(UTC, clock));
+    assertEquals(new DateTime("2012-06-15"), DateTime.today(UTC, clock));
+    assertTrue(new DateTime("2012-06-15 10:11:12.12345679").isInTheFuture(UTC, clock));
+    assertFalse(new DateTime("2012-06-15 10:11:12.123456789").isInTheFuture(UTC, clock));
+    assertTrue(new DateTime("2012-06-15 10:11:12.123456788").isInThePast(UTC, clock));
+  }
+
+  public void testSystemClock(){
+    DateTime before = DateTime.now(UTC);
+    DateTime now = DateTime.now(UTC, Clock.SYSTEM);
+    DateTime after = DateTime.now(UTC);
+    assertTrue(before.lteq(now));
+    assertTrue(now.lteq(after));
+    assertTrue(new DateTime("2000-01-01").isInThePast(UTC, Clock.SYSTEM));
+  }
+
+  public void testNanoClock(){
+    Clock clock = new Clock.NanoClock();
+    DateTime previous = clock.now(UTC);
+    for(int idx = 0; idx < 1000; ++idx){
+      DateTime next = clock.now(UTC);
+      assertTrue(previous.lteq(next));
+      previous = next;
+    }
+    //within a few seconds of the system clock, in all zones
+    TimeZone montreal = TimeZone.getTimeZone("America/Montreal");
+    assertTrue(Math.abs(clock.now(UTC).numSecondsFrom(DateTime.now(UTC))) < 5);
+    assertTrue(Math.abs(clock.now(montreal).numSecondsFrom(DateTime.now(montreal))) < 5);
+    assertNotNull(clock.now(UTC).getNanoseconds());
+  }
+
+  public void testCachingClock(){
+    Clock clock = new CachingClock(1000);
+    assertTrue(new DateTime("2000-01-01").isInThePast(UTC, clock));
+    assertEquals(DateTime.today(UTC), DateTime.today(UTC, clock));
+  }
+
+  // PRIVATE
+
+  private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+}
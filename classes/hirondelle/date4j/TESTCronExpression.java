@@ -0,0 +1,95 @@
+package hirondelle.date4j;
+
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTCronExpression extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTCronExpression.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTCronExpression( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testSimple(){
+    testNext("30 8 * * MON-FRI", "2012-12-21 08:29:59", "2012-12-21 08:30:00");
+    testNext("30 8 * * MON-FRI", "2012-12-21 08:30", "2012-12-24 08:30:00");
+    testNext("*/15 * * * *", "2012-12-31 23:59:00", "2013-01-01 00:00:00");
+    testNext("*/15 * * * *", "2012-12-31 23:14:59.999", "2012-12-31 23:15:00");
+    testNext("0 0 1 jan *", "2012-06-01", "2013-01-01 00:00:00");
+    testNext("@monthly", "2012-01-31 12:00", "2012-02-01 00:00:00");
+    testNext("@hourly", "2012-01-31", "2012-01-31 01:00:00");
+    testNext("10,20 * * * * *", "2012-01-31 10:00:15", "2012-01-31 10:00:20");
+    testNext("5/20 0 0 1 1 ?", "2012-01-01 00:00:25", "2012-01-01 00:00:45");
+    testNext("0 12 * * 7", "2012-12-22 12:00", "2012-12-23 12:00:00");
+  }
+
+  public void testSparse(){
+    testNext("0 0 29 2 *", "2012-03-01", "2016-02-29 00:00:00");
+    testNext("0 0 29 2 *", "2096-03-01", "2104-02-29 00:00:00");
+    testNext("0 0 13 * FRI", "2012-01-01", "2012-01-06 00:00:00");
+    testNext("59 23 31 DEC *", "2012-12-31 23:59", "2013-12-31 23:59:00");
+    assertNull(new CronExpression("0 0 30 2 *").nextFireAfter(new DateTime("2012-01-01")));
+  }
+
+  public void testAgainstScan(){
+    String[] expressions = {"*/7 1-3 * * *", "0 0 1,15 * WED", "17 */5 */3 2-11/3 *", "0 0 31 * *", "45 23 * * SUN"};
+    Random random = new Random(3);
+    for(String text : expressions){
+      CronExpression cron = new CronExpression(text);
+      for(int test = 0; test < 20; ++test){
+        DateTime after = DateTime.forDateOnly(2012, 1, 1).plusSeconds(random.nextInt(60 * 24 * 200) * 60L + random.nextInt(60));
+        DateTime expected = after.truncate(DateTime.Unit.MINUTE);
+        expected = new DateTime(expected.getYear(), expected.getMonth(), expected.getDay(), expected.getHour(), expected.getMinute(), 0, 0).plusSeconds(60);
+        while(! cron.matches(expected)){
+          expected = expected.plusSeconds(60);
+        }
+        assertEquals(text + " after " + after, expected, cron.nextFireAfter(after));
+      }
+    }
+  }
+
+  public void testMatches(){
+    CronExpression cron = new CronExpression("0 9 * * MON");
+    assertTrue(cron.matches(new DateTime("2012-12-24 09:00")));
+    assertTrue(cron.matches(new DateTime("2012-12-24 09:00:00.000000000")));
+    assertFalse(cron.matches(new DateTime("2012-12-24 09:00:00.1")));
+    assertFalse(cron.matches(new DateTime("2012-12-25 09:00")));
+  }
+
+  public void testBadExpressions(){
+    testBad("* * * *");
+    testBad("60 * * * *");
+    testBad("* 24 * * *");
+    testBad("* * 0 * *");
+    testBad("* * * 13 *");
+    testBad("* * * * 8");
+    testBad("5-1 * * * *");
+    testBad("*/0 * * * *");
+    testBad("* * * XYZ *");
+    testBad("@reboot");
+  }
+
+  // PRIVATE
+
+  private void testNext(String aExpression, String aAfter, String aExpected){
+    assertEquals(new DateTime(aExpected + ".000000000"), new CronExpression(aExpression).nextFireAfter(new DateTime(aAfter)));
+  }
+
+  private void testBad(String aExpression){
+    try {
+      new CronExpression(aExpression);
+      fail("Expected failure: " + aExpression);
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+  }
+}
@@ -740,6 +740,57 @@ public final class TESTDateTime  extends TestCase  {
     testGetNanosecondsFromEpoch("1969-12-30 23:59:59.999999999", utc, (-1000000000L)*60*60*24 -1);
   }
   
+  public void testEpochDay(){
+    assertEquals(0, new DateTime("1970-01-01").toEpochDay());
+    assertEquals(-1, new DateTime("1969-12-31 23:59:59").toEpochDay());
+    assertEquals(-719162, new DateTime("0001-01-01").toEpochDay());
+    assertEquals(2932896, new DateTime("9999-12-31").toEpochDay());
+    assertEquals(new DateTime("0001-01-01"), DateTime.forEpochDay(-719162));
+    assertEquals(new DateTime("9999-12-31"), DateTime.forEpochDay(2932896));
+    testEpochFails(-719163);
+    testEpochFails(2932897);
+    testEpochFails(Long.MIN_VALUE);
+    for(int day = -1000; day <= 1000; day = day + 7){
+      assertEquals(day, DateTime.forEpochDay(day).toEpochDay());
+    }
+  }
+
+  public void testEpochSecondUtc(){
+    TimeZone utc = TimeZone.getTimeZone("UTC");
+    String[] items = {"1970-01-01 00:00:00", "1970-01-01 00:00:01", "1969-12-31 23:59:59", "1600-02-29 13:14:15", "2400-12-31 23:59:59", "9999-12-31 23:59:59"};
+    for(String item : items){
+      DateTime dt = new DateTime(item);
+      assertEquals(dt.getMilliseconds(utc) / 1000, dt.toEpochSecondUtc());
+      assertEquals(dt, DateTime.forEpochSecondUtc(dt.toEpochSecondUtc()).truncate(DateTime.Unit.SECOND));
+    }
+    assertEquals(new DateTime("1970-01-01").plusDays(1).toEpochDay() * 86400, new DateTime("1970-01-02").toEpochSecondUtc());
+    assertEquals(new DateTime("0001-01-01 00:00:00.000000000"), DateTime.forEpochSecondUtc(new DateTime("0001-01-01").toEpochSecondUtc()));
+    assertEquals(new DateTime("1969-12-31 23:59:59.000000000"), DateTime.forEpochSecondUtc(-1));
+  }
+
+  public void testEpochNanoUtc(){
+    TimeZone utc = TimeZone.getTimeZone("UTC");
+    String[] items = {"1970-01-01 00:00:00.000000000", "1969-12-31 23:59:59.999999999", "1900-06-15 01:02:03.123456789", "2262-04-11 23:47:16.854775807", "1677-09-21 00:12:43.145224192"};
+    for(String item : items){
+      DateTime dt = new DateTime(item);
+      assertEquals(dt.getNanosecondsInstant(utc), dt.toEpochNanoUtc());
+      assertEquals(dt, DateTime.forEpochNanoUtc(dt.toEpochNanoUtc()));
+      assertEquals(DateTime.forInstantNanos(dt.toEpochNanoUtc(), utc), DateTime.forEpochNanoUtc(dt.toEpochNanoUtc()));
+    }
+    assertEquals(Long.MAX_VALUE, new DateTime("2262-04-11 23:47:16.854775807").toEpochNanoUtc());
+    assertEquals(Long.MIN_VALUE, new DateTime("1677-09-21 00:12:43.145224192").toEpochNanoUtc());
+    String[] outOfRange = {"2262-04-11 23:47:16.854775808", "1677-09-21 00:12:43.145224191", "0001-01-01", "9999-12-31"};
+    for(String item : outOfRange){
+      try {
+        new DateTime(item).toEpochNanoUtc();
+        fail("Expected failure for " + item);
+      }
+      catch(RuntimeException ex){
+        //expected
+      }
+    }
+  }
+
   public void testNanosecondRange(){
     testNanosecondRange("0001-01-01 00:00:00.000000000");
     testNanosecondRange("9999-12-31 23:59:59.999999999");
@@ -756,6 +807,53 @@ public final class TESTDateTime  extends TestCase  {
     testNumSecondsFrom("2013-01-01", "2013-01-01",0*DAY);
     testNumSecondsFrom("2013-01-01 00:00:00", "2013-01-02 00:00:01",DAY+1);
     testNumSecondsFrom("2013-01-01 00:00:00", "2013-01-01 23:59:59",DAY-1);
+    testNumSecondsFrom("1900-01-01", "2000-01-01",36524*DAY);
+  }
+
+  public void testNumNanosecondsFrom(){
+    testNumNanosecondsFrom("16:00", "16:00:00.000000001", 1);
+    testNumNanosecondsFrom("16:00:00.5", "16:00", -500000000);
+    testNumNanosecondsFrom("2013-01-01 23:59:59.999999999", "2013-01-02", 1);
+    testNumNanosecondsFrom("2013-01-02", "2013-01-01 23:59:59.999999999", -1);
+    testNumNanosecondsFrom("2013-01-01 00:00:00.75", "2013-01-03 00:00:00.25", 2*86400*1000000000L - 500000000);
+    TimeZone utc = TimeZone.getTimeZone("UTC");
+    DateTime a = new DateTime("1850-07-14 10:11:12.123456789");
+    DateTime b = new DateTime("2110-03-01 23:00:01.987654321");
+    assertEquals(b.getNanosecondsInstant(utc) - a.getNanosecondsInstant(utc), a.numNanosecondsFrom(b));
+    try {
+      new DateTime("1700-01-01").numNanosecondsFrom(new DateTime("2000-01-01"));
+      fail();
+    }
+    catch(RuntimeException ex){
+      //expected
+    }
+  }
+
+  public void testNumMillisFrom(){
+    assertEquals(1, new DateTime("10:00:00.0015").numMillisFrom(new DateTime("10:00:00.003")));
+    assertEquals(-1, new DateTime("10:00:00.003").numMillisFrom(new DateTime("10:00:00.0015")));
+    assertEquals(999, new DateTime("10:00:00.0005").numMillisFrom(new DateTime("10:00:01")));
+    assertEquals(-999, new DateTime("10:00:01").numMillisFrom(new DateTime("10:00:00.0005")));
+    DateTime start = new DateTime("0001-01-01");
+    DateTime end = new DateTime("9999-12-31 23:59:59.999999999");
+    assertEquals(start.numSecondsFrom(end) * 1000 + 999, start.numMillisFrom(end));
+  }
+
+  public void testNumNanosecondsFromArrays(){
+    DateTime[] starts = {new DateTime("2013-01-01 10:00"), new DateTime("2013-01-01 11:00:00.5"), new DateTime("12:00"), new DateTime("2013-01-01")};
+    DateTime[] ends = {new DateTime("2013-01-02 10:00"), new DateTime("2013-01-01 11:00"), new DateTime("12:00:01"), new DateTime("2013-01-01")};
+    long[] results = new long[4];
+    DateTime.numNanosecondsFrom(starts, ends, results);
+    for(int idx = 0; idx < starts.length; ++idx){
+      assertEquals(starts[idx].numNanosecondsFrom(ends[idx]), results[idx]);
+    }
+    try {
+      DateTime.numNanosecondsFrom(starts, ends, new long[3]);
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
   }
 
   // PRIVATE
@@ -1147,6 +1245,24 @@ public final class TESTDateTime  extends TestCase  {
     }
   }
   
+  private void testEpochFails(long aEpochDay){
+    try {
+      DateTime.forEpochDay(aEpochDay);
+      fail("Expected failure for epoch day " + aEpochDay);
+    }
+    catch(RuntimeException ex){
+      //expected
+    }
+  }
+  
+  private void testNumNanosecondsFrom(String a, String b, long aExpected){
+    DateTime dtA = new DateTime(a);
+    DateTime dtB = new DateTime(b);
+    if (dtA.numNanosecondsFrom(dtB) != aExpected){
+      fail("Num nanoseconds error. Expected: " + aExpected + " Actual: " + dtA.numNanosecondsFrom(dtB));
+    }
+  }
+  
   private void testInterConversion(String aDateTime, TimeZone aTimeZone){
     DateTime dt = new DateTime(aDateTime);
     //loss of precision :
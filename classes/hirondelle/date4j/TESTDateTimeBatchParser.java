@@ -0,0 +1,63 @@
+package hirondelle.date4j;
+
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTDateTimeBatchParser extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTDateTimeBatchParser.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTDateTimeBatchParser( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testSmallBatch(){
+    String[] batch = {"2010-01-01 10:00:00", "bad", null, "2010-01-01 10:00:01.5", "2010-02-30"};
+    DateTimeBatchParser.Result result = new DateTimeBatchParser(4).parse(Arrays.asList(batch));
+    assertFalse(result.isSuccess());
+    assertEquals(3, result.getErrors().size());
+    assertTrue(result.getErrors().containsKey(1));
+    assertTrue(result.getErrors().containsKey(2));
+    assertTrue(result.getErrors().containsKey(4));
+    assertEquals(new DateTime("2010-01-01 10:00:01.5"), result.getDateTimes()[3]);
+    assertNull(result.getDateTimes()[4]);
+  }
+
+  public void testLargeBatch(){
+    String[] batch = new String[50000];
+    DateTime start = new DateTime("2011-12-31 23:00:00");
+    for(int idx = 0; idx < batch.length; ++idx){
+      batch[idx] = start.plus(0, 0, 0, 0, 0, idx % 9999, 0, DateTime.DayOverflow.Spillover).toString();
+      if(idx % 1000 == 7){
+        batch[idx] = batch[idx] + "x";
+      }
+    }
+    DateTimeBatchParser.Result sequential = new DateTimeBatchParser(1).parse(batch);
+    DateTimeBatchParser.Result parallel = new DateTimeBatchParser(3).parse(batch);
+    assertEquals(50, sequential.getErrors().size());
+    assertEquals(sequential.getErrors().keySet(), parallel.getErrors().keySet());
+    assertTrue(Arrays.equals(sequential.getDateTimes(), parallel.getDateTimes()));
+    for(int idx = 0; idx < batch.length; ++idx){
+      if(! parallel.getErrors().containsKey(idx)){
+        assertEquals(new DateTime(batch[idx]), parallel.getDateTimes()[idx]);
+      }
+    }
+  }
+
+  public void testBadParallelism(){
+    try {
+      new DateTimeBatchParser(0);
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package hirondelle.date4j;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTDateTimeColumn extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTDateTimeColumn.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTDateTimeColumn( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testSmallDictionary(){
+    DateTime[] rows = new DateTime[10000];
+    Random random = new Random(3);
+    DateTime start = new DateTime("2012-01-01");
+    for(int idx = 0; idx < rows.length; ++idx){
+      rows[idx] = idx % 100 == 0 ? null : start.plusDays(random.nextInt(300));
+    }
+    checkColumn(rows);
+  }
+
+  public void testLargeDictionary(){
+    DateTime[] rows = new DateTime[100000];
+    DateTime start = new DateTime("2012-01-01 00:00:00");
+    for(int idx = 0; idx < rows.length; ++idx){
+      rows[idx] = start.plusSeconds((idx * 7919L) % 80000);
+    }
+    DateTimeColumn column = checkColumn(rows);
+    assertEquals(80000, column.getNumDistinct());
+  }
+
+  public void testMixedUnits(){
+    DateTime[] rows = {new DateTime("2012-01-01"), new DateTime("2012-01-01 00:00"), new DateTime("10:00"), null, new DateTime("2012-01-01")};
+    DateTimeColumn column = checkColumn(rows);
+    assertEquals(3, column.getNumDistinct());
+    assertEquals(new DateTime("10:00"), column.getValue(0));
+    assertSame(column.get(0), column.get(4));
+    assertEquals(DateTimeColumn.NULL_CODE, column.getCode(3));
+    assertEquals(1, column.countNulls());
+  }
+
+  public void testEmpty(){
+    DateTimeColumn column = new DateTimeColumn(new DateTime[0]);
+    assertEquals(0, column.size());
+    assertEquals(0, column.countByCode().length);
+    assertTrue(column.rowsInRange(null, null).isEmpty());
+    assertTrue(column.findCode(new DateTime("2012-01-01")) < 0);
+  }
+
+  // PRIVATE
+
+  private DateTimeColumn checkColumn(DateTime[] aRows){
+    DateTimeColumn column = new DateTimeColumn(Arrays.asList(aRows));
+    assertEquals(aRows.length, column.size());
+    for(int row = 0; row < aRows.length; ++row){
+      assertEquals(aRows[row], column.get(row));
+      assertEquals(column.getCode(row), column.findCode(aRows[row]));
+    }
+    //comparisons agree with compareTo, nulls first
+    for(int row = 1; row < Math.min(aRows.length, 2000); ++row){
+      int expected = compare(aRows[row - 1], aRows[row]);
+      assertEquals(expected, Integer.signum(column.compareRows(row - 1, row)));
+    }
+    //group-by
+    int[] counts = column.countByCode();
+    for(int code = 0; code < counts.length; ++code){
+      int expected = 0;
+      for(DateTime row : aRows){
+        if(column.getValue(code).equals(row)){
+          ++expected;
+        }
+      }
+      assertEquals(expected, counts[code]);
+      if(code > 50){
+        break;
+      }
+    }
+    //range filters, with bounds both in and out of the dictionary
+    DateTime[] bounds = {null, column.getValue(0), column.getValue(column.getNumDistinct() / 2), new DateTime("2012-03-15 12:00:00"), new DateTime("2011-01-01"), new DateTime("2013-01-01")};
+    for(DateTime low : bounds){
+      for(DateTime high : bounds){
+        BitSet expected = new BitSet();
+        for(int row = 0; row < aRows.length; ++row){
+          DateTime value = aRows[row];
+          if(value != null && (low == null || low.compareTo(value) <= 0) && (high == null || value.compareTo(high) <= 0)){
+            expected.set(row);
+          }
+        }
+        assertEquals(expected, column.rowsInRange(low, high));
+      }
+    }
+    return column;
+  }
+
+  private int compare(DateTime aThis, DateTime aThat){
+    int result = 0;
+    if(aThis == null || aThat == null){
+      result = aThis == aThat ? 0 : (aThis == null ? -1 : 1);
+    }
+    else {
+      result = Integer.signum(aThis.compareTo(aThat));
+    }
+    return result;
+  }
+}
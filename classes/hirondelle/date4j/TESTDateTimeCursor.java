@@ -0,0 +1,143 @@
+package hirondelle.date4j;
+
+import hirondelle.date4j.DateTime.DayOverflow;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTDateTimeCursor extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTDateTimeCursor.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTDateTimeCursor( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testCtor(){
+    DateTimeCursor cursor = new DateTimeCursor(new DateTime("2009-01-31"));
+    assertEquals(new DateTime("2009-01-31 00:00:00.000000000"), cursor.toDateTime());
+    assertEquals(new DateTime("2009-01-31"), cursor.toDate());
+    try {
+      new DateTimeCursor(new DateTime("10:00:00"));
+      fail();
+    }
+    catch(RuntimeException ex){
+      //expected
+    }
+  }
+
+  public void testAddDays(){
+    DateTime start = new DateTime("1999-12-25 13:14:15.123");
+    DateTimeCursor cursor = new DateTimeCursor(start);
+    for(int idx = 1; idx <= 2000; ++idx){
+      cursor.addDays(1);
+      assertEquals(start.plusDays(idx), cursor.toDateTime());
+      assertEquals(start.plusDays(idx).getWeekDay().intValue(), cursor.getWeekDay());
+    }
+    cursor.addDays(-2000);
+    assertEquals(start, cursor.toDateTime());
+  }
+
+  public void testAddMonths(){
+    testAddMonths("2001-01-31", 1, DayOverflow.LastDay, "2001-02-28");
+    testAddMonths("2001-01-31", 1, DayOverflow.FirstDay, "2001-03-01");
+    testAddMonths("2001-12-31", 2, DayOverflow.Spillover, "2002-03-03");
+    testAddMonths("2001-12-31", -1, DayOverflow.Abort, "", true);
+    testAddMonths("2001-12-31", -1, DayOverflow.LastDay, "2001-11-30");
+    testAddMonths("2000-02-29", 12, DayOverflow.LastDay, "2001-02-28");
+    testAddMonths("2000-03-15", -15, DayOverflow.Abort, "1998-12-15");
+    testAddMonths("9999-12-31", 1, DayOverflow.Abort, "", true);
+    testAddMonths("9999-11-30", 1, DayOverflow.Abort, "9999-12-30");
+  }
+
+  public void testAddSecondsAndNanos(){
+    DateTimeCursor cursor = new DateTimeCursor(new DateTime("2011-12-31 23:59:59.5"));
+    cursor.addNanoseconds(500000000L);
+    assertEquals(new DateTime("2012-01-01 00:00:00.000000000"), cursor.toDateTime());
+    cursor.addNanoseconds(-1);
+    assertEquals(new DateTime("2011-12-31 23:59:59.999999999"), cursor.toDateTime());
+    cursor.addSeconds(-86400L * 365 - 1);
+    assertEquals(new DateTime("2010-12-31 23:59:58.999999999"), cursor.toDateTime());
+    cursor.addSeconds(86400L * 3 + 2);
+    assertEquals(new DateTime("2011-01-04 00:00:00.999999999"), cursor.toDateTime());
+    cursor.addNanoseconds(-2000000000000L);
+    assertEquals(new DateTime("2011-01-03 23:26:40.999999999"), cursor.toDateTime());
+  }
+
+  public void testOutOfRange(){
+    DateTimeCursor cursor = new DateTimeCursor(new DateTime("0001-01-01 00:00:00"));
+    try {
+      cursor.addSeconds(-1);
+      fail();
+    }
+    catch(RuntimeException ex){
+      assertEquals(new DateTime("0001-01-01 00:00:00.000000000"), cursor.toDateTime());
+    }
+    try {
+      cursor.setDate(2001, 2, 29);
+      fail();
+    }
+    catch(RuntimeException ex){
+      //expected
+    }
+    try {
+      cursor.setHour(24);
+      fail();
+    }
+    catch(RuntimeException ex){
+      //expected
+    }
+    //357913942 * 12 overflows an int, to 8 months
+    try {
+      cursor.addYears(357913942, DayOverflow.Abort);
+      fail();
+    }
+    catch(RuntimeException ex){
+      assertEquals(new DateTime("0001-01-01 00:00:00.000000000"), cursor.toDateTime());
+    }
+    try {
+      cursor.addYears(Integer.MIN_VALUE, DayOverflow.Abort);
+      fail();
+    }
+    catch(RuntimeException ex){
+      //expected
+    }
+    assertEquals(new DateTime("9999-01-01 00:00:00.000000000"), cursor.addYears(9998, DayOverflow.Abort).toDateTime());
+  }
+
+  public void testStartEnd(){
+    DateTimeCursor cursor = new DateTimeCursor(new DateTime("2012-02-15 10:11:12"));
+    assertEquals(new DateTime("2012-02-29 23:59:59.999999999"), cursor.setEndOfMonth().toDateTime());
+    assertEquals(new DateTime("2012-02-01 00:00:00.000000000"), cursor.setStartOfMonth().toDateTime());
+    assertEquals(new DateTime("2012-02-01 23:59:59.999999999"), cursor.setEndOfDay().toDateTime());
+    assertEquals(new DateTime("2012-02-13 23:59:59.999999999"), cursor.setDay(13).toDateTime());
+  }
+
+  // PRIVATE
+
+  private void testAddMonths(String aStart, int aNumMonths, DayOverflow aOverflow, String aExpected){
+    testAddMonths(aStart, aNumMonths, aOverflow, aExpected, false);
+  }
+
+  private void testAddMonths(String aStart, int aNumMonths, DayOverflow aOverflow, String aExpected, boolean aShouldFail){
+    DateTimeCursor cursor = new DateTimeCursor(new DateTime(aStart));
+    try {
+      cursor.addMonths(aNumMonths, aOverflow);
+      if(aShouldFail){
+        fail("Expected failure: " + aStart + " + " + aNumMonths);
+      }
+      assertEquals(new DateTime(aExpected), cursor.toDate());
+    }
+    catch(RuntimeException ex){
+      if(! aShouldFail){
+        throw ex;
+      }
+      assertEquals(new DateTime(aStart), cursor.toDate());
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package hirondelle.date4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTDateTimeHeap extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTDateTimeHeap.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTDateTimeHeap( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testSimple(){
+    DateTimeHeap<String> heap = new DateTimeHeap<String>(1);
+    assertTrue(heap.isEmpty());
+    heap.push(new DateTime("2012-05-01"), "c");
+    heap.push(new DateTime("2012-01-01 10:00"), "b");
+    heap.push(new DateTime("2012-01-01"), "a");
+    heap.push(new DateTime("2012-01-01 10:00:00.000000001"), "b2");
+    assertEquals(4, heap.size());
+    assertEquals("a", heap.peek());
+    assertEquals(new DateTime("2012-01-01"), heap.peekKey());
+    assertEquals("a", heap.pop());
+    assertEquals("b", heap.pop());
+    assertEquals("b2", heap.pop());
+    assertEquals("c", heap.pop());
+    assertTrue(heap.isEmpty());
+  }
+
+  public void testDecreaseKey(){
+    DateTimeHeap<String> heap = new DateTimeHeap<String>(4);
+    heap.push(hour(1), "a");
+    int b = heap.push(hour(5), "b");
+    int c = heap.push(hour(9), "c");
+    heap.decreaseKey(c, hour(3));
+    heap.decreaseKey(b, hour(5));
+    assertEquals("a", heap.pop());
+    assertEquals(c, heap.peekHandle());
+    assertEquals(hour(3), heap.peekKey());
+    assertEquals("c", heap.pop());
+    assertFalse(heap.contains(c));
+    assertTrue(heap.contains(b));
+    try {
+      heap.decreaseKey(b, hour(6));
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+    try {
+      heap.decreaseKey(c, hour(0));
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+  }
+
+  /** Random pushes, pops and decreases, checked against a sorted list. */
+  public void testRandom(){
+    Random random = new Random(50);
+    DateTimeHeap<Integer> heap = new DateTimeHeap<Integer>(2);
+    List<DateTime> keys = new ArrayList<DateTime>();
+    List<Integer> handles = new ArrayList<Integer>();
+    for(int step = 0; step < 20000; ++step){
+      int choice = random.nextInt(10);
+      if(choice < 5 || heap.isEmpty()){
+        DateTime key = hour(random.nextInt(1000));
+        int handle = heap.push(key, Integer.valueOf(random.nextInt()));
+        keys.add(key);
+        handles.add(Integer.valueOf(handle));
+      }
+      else if(choice < 8){
+        DateTime min = Collections.min(keys);
+        assertEquals(min, heap.peekKey());
+        int idx = handles.indexOf(Integer.valueOf(heap.peekHandle()));
+        assertEquals(min, keys.get(idx));
+        heap.pop();
+        keys.remove(idx);
+        handles.remove(idx);
+      }
+      else {
+        int idx = random.nextInt(keys.size());
+        DateTime key = keys.get(idx).minusDays(random.nextInt(3));
+        heap.decreaseKey(handles.get(idx).intValue(), key);
+        keys.set(idx, key);
+      }
+      assertEquals(keys.size(), heap.size());
+    }
+    List<DateTime> sorted = new ArrayList<DateTime>(keys);
+    Collections.sort(sorted);
+    for(DateTime key : sorted){
+      assertEquals(key, heap.peekKey());
+      heap.pop();
+    }
+    assertTrue(heap.isEmpty());
+  }
+
+  public void testClear(){
+    DateTimeHeap<String> heap = new DateTimeHeap<String>(2);
+    int a = heap.push(hour(1), "a");
+    heap.push(hour(2), "b");
+    heap.clear();
+    assertTrue(heap.isEmpty());
+    assertFalse(heap.contains(a));
+    heap.push(hour(3), "c");
+    assertEquals("c", heap.pop());
+  }
+
+  public void testEmpty(){
+    DateTimeHeap<String> heap = new DateTimeHeap<String>(1);
+    try {
+      heap.pop();
+      fail();
+    }
+    catch(NoSuchElementException ex){
+      //expected
+    }
+    try {
+      new DateTimeHeap<String>(0);
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+    try {
+      heap.push(null, "a");
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+  }
+
+  // PRIVATE
+
+  private static DateTime hour(int aHour){
+    return new DateTime(2012, 1, 1, aHour % 24, 0, 0, 0).plusDays(aHour / 24);
+  }
+}
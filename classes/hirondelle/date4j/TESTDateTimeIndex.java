@@ -0,0 +1,99 @@
+package hirondelle.date4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTDateTimeIndex extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTDateTimeIndex.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTDateTimeIndex( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testAgainstScan(){
+    Random random = new Random(17);
+    DateTime start = new DateTime("2012-01-01 00:00:00.000000000");
+    DateTime[] items = new DateTime[3000];
+    for(int idx = 0; idx < items.length; ++idx){
+      //includes duplicates
+      items[idx] = start.plusSeconds(random.nextInt(5000));
+    }
+    DateTimeIndex index = new DateTimeIndex(items);
+    assertEquals(items.length, index.size());
+    for(int idx = 1; idx < index.size(); ++idx){
+      assertTrue(index.get(idx - 1).lteq(index.get(idx)));
+    }
+    for(int query = 0; query < 300; ++query){
+      DateTime low = start.plusSeconds(random.nextInt(5200) - 100);
+      DateTime high = low.plusSeconds(random.nextInt(500));
+      assertEquals(scanCeiling(items, low), index.ceiling(low));
+      assertEquals(scanFloor(items, high), index.floor(high));
+      List<DateTime> expected = scanRange(index, low, high);
+      assertEquals(expected.size(), index.countInRange(low, high));
+      assertEquals(expected, index.range(low, high));
+      assertEquals(0, index.countInRange(high.plusNanos(1), low));
+    }
+  }
+
+  public void testMixedUnits(){
+    DateTime[] items = {new DateTime("2012-01-01"), new DateTime("2012-01-01 00:00"), new DateTime("2012-01-01 00:00:00.0"), new DateTime("10:00")};
+    DateTimeIndex index = new DateTimeIndex(items);
+    assertEquals(new DateTime("10:00"), index.get(0));
+    assertEquals(new DateTime("2012-01-01 00:00"), index.ceiling(new DateTime("2012-01-01 00")));
+    assertEquals(new DateTime("2012-01-01"), index.floor(new DateTime("2012-01-01 00")));
+    assertEquals(3, index.countInRange(new DateTime("2012-01-01"), new DateTime("2012-01-01 00:00:00.0")));
+  }
+
+  public void testEmptyAndEnds(){
+    DateTimeIndex index = new DateTimeIndex(new DateTime[0]);
+    assertNull(index.floor(new DateTime("2012-01-01")));
+    assertNull(index.ceiling(new DateTime("2012-01-01")));
+    assertEquals(0, index.countInRange(new DateTime("2012-01-01"), new DateTime("2013-01-01")));
+    index = new DateTimeIndex(new DateTime[]{new DateTime("2012-01-01")});
+    assertEquals(-1, index.floorIndex(new DateTime("2011-12-31")));
+    assertEquals(1, index.ceilingIndex(new DateTime("2012-01-02")));
+  }
+
+  // PRIVATE
+
+  private DateTime scanCeiling(DateTime[] aItems, DateTime aValue){
+    DateTime result = null;
+    for(DateTime item : aItems){
+      if(item.gteq(aValue) && (result == null || item.lt(result))){
+        result = item;
+      }
+    }
+    return result;
+  }
+
+  private DateTime scanFloor(DateTime[] aItems, DateTime aValue){
+    DateTime result = null;
+    for(DateTime item : aItems){
+      if(item.lteq(aValue) && (result == null || item.gt(result))){
+        result = item;
+      }
+    }
+    return result;
+  }
+
+  private List<DateTime> scanRange(DateTimeIndex aIndex, DateTime aLow, DateTime aHigh){
+    List<DateTime> result = new ArrayList<DateTime>();
+    for(int idx = 0; idx < aIndex.size(); ++idx){
+      DateTime item = aIndex.get(idx);
+      if(item.gteq(aLow) && item.lteq(aHigh)){
+        result.add(item);
+      }
+    }
+    return result;
+  }
+}
@@ -283,6 +283,51 @@ public class TESTDateTimeInterval extends TestCase {
     testDayOverflowMinus("2015-03-31 10:20:30.0", DateTime.DayOverflow.Spillover, "2015-03-03 10:20:30.0", 0,1,0,0,0,0,0);
   }
   
+  public void testPlusSecondsSmall(){
+    DateTime start = new DateTime("2011-12-31 23:58:30.999999999");
+    for(int seconds = -9999; seconds <= 9999; seconds = seconds + 97){
+      DateTime viaPlus = seconds >= 0 ?
+        start.plus(0,0,0,0,0,seconds,0,DayOverflow.Abort) : 
+        start.minus(0,0,0,0,0,-seconds,0,DayOverflow.Abort)
+      ;
+      assertEquals(viaPlus, start.plusSeconds(seconds));
+      assertEquals(viaPlus, start.minusSeconds(-seconds));
+      assertEquals(viaPlus, start.plusMillis(seconds * 1000L));
+      assertEquals(viaPlus, start.minusNanos(-seconds * 1000000000L));
+    }
+    for(int days = -1000; days <= 1000; days = days + 7){
+      assertEquals(start.plusDays(days), start.plusSeconds(days * 86400L));
+    }
+  }
+  
+  public void testPlusSecondsLarge(){
+    DateTime start = new DateTime("0001-01-01 00:00:00.0");
+    DateTime end = new DateTime("9999-12-31 23:59:59.999999999");
+    long numSeconds = end.getModifiedJulianDayNumber() - start.getModifiedJulianDayNumber(); 
+    numSeconds = numSeconds * 86400 + 86399;
+    assertEquals(end, start.plusSeconds(numSeconds).plusNanos(999999999));
+    assertEquals(start, end.minusSeconds(numSeconds).minusNanos(999999999));
+    assertEquals(new DateTime("2262-04-11 23:47:16.854775807"), new DateTime("1970-01-01").plusNanos(Long.MAX_VALUE));
+    assertEquals(new DateTime("1677-09-21 00:12:43.145224192"), new DateTime("1970-01-01").plusNanos(Long.MIN_VALUE));
+    assertEquals(new DateTime("1969-12-31 23:59:59.999000000"), new DateTime("1970-01-01").minusMillis(1));
+    assertEquals(new DateTime("0001-01-01 00:00:01.500000000"), new DateTime("00:00:00").plusMillis(1500));
+    assertEquals(new DateTime("2001-01-02 00:00:00.000000000"), new DateTime("2001-01-01").plusSeconds(86400));
+  }
+  
+  public void testPlusSecondsOutOfRange(){
+    testPlusSecondsFails(new DateTime("0001-01-01"), -1);
+    testPlusSecondsFails(new DateTime("9999-12-31 23:59:59"), 1);
+    testPlusSecondsFails(new DateTime("2000-01-01"), Long.MAX_VALUE);
+    testPlusSecondsFails(new DateTime("2000-01-01"), Long.MIN_VALUE);
+    try {
+      new DateTime("2000-01-01").minusSeconds(Long.MIN_VALUE);
+      fail();
+    }
+    catch(RuntimeException ex){
+      //expected
+    }
+  }
+  
   public void testWeekIssue(){
     testWeekIndex("2009-02-01", "2009-02-01", 1);
     testWeekIndex("2009-02-01", "2009-02-02", 1);
@@ -398,6 +443,16 @@ public class TESTDateTimeInterval extends TestCase {
     }
   }
   
+  private void testPlusSecondsFails(DateTime aStart, long aNumSeconds){
+    try {
+      aStart.plusSeconds(aNumSeconds);
+      fail("Expected failure: " + aStart + " + " + aNumSeconds);
+    }
+    catch(RuntimeException ex){
+      //expected
+    }
+  }
+  
   private void testWeekIndex(String aStartDate, String aEndDate, int aExpected){
     DateTime start = new DateTime(aStartDate);
     DateTime end = new DateTime(aEndDate);
@@ -0,0 +1,94 @@
+package hirondelle.date4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTDateTimeKeyCodec extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTDateTimeKeyCodec.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTDateTimeKeyCodec( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testRoundTrip() throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(ITEMS.length * DateTimeKeyCodec.LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bytes);
+    for(String item : ITEMS){
+      DateTime dt = new DateTime(item);
+      byte[] key = new byte[DateTimeKeyCodec.LENGTH + 2];
+      DateTimeKeyCodec.encode(dt, key, 2);
+      assertEquals(dt, DateTimeKeyCodec.decode(key, 2));
+      assertTrue((key[2] & 0x80) == 0);
+      DateTimeKeyCodec.encode(dt, buffer);
+      DateTimeKeyCodec.encode(dt, output);
+    }
+    assertFalse(buffer.hasRemaining());
+    buffer.flip();
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    assertEquals(ITEMS.length * DateTimeKeyCodec.LENGTH, bytes.size());
+    for(String item : ITEMS){
+      assertEquals(new DateTime(item), DateTimeKeyCodec.decode(buffer));
+      assertEquals(new DateTime(item), DateTimeKeyCodec.decode(input));
+    }
+  }
+
+  public void testOrder(){
+    for(String item : ITEMS){
+      for(String other : ITEMS){
+        DateTime a = new DateTime(item);
+        DateTime b = new DateTime(other);
+        int expected = Integer.signum(a.compareTo(b));
+        int actual = DateTimeKeyCodec.compare(DateTimeKeyCodec.encode(a), 0, DateTimeKeyCodec.encode(b), 0);
+        assertEquals(item + " vs " + other, expected, Integer.signum(actual));
+      }
+    }
+  }
+
+  public void testCorruptKey(){
+    byte[] key = DateTimeKeyCodec.encode(new DateTime("2012-01-01"));
+    key[0] = (byte)0x80;
+    testCorruptKey(key);
+    //February 30
+    long high = DateTimeKey.high(new DateTime("2012-02-01")) + (29L << 17);
+    key[0] = (byte)(high >>> 34);
+    long rest = high << 30;
+    for(int idx = 1; idx < DateTimeKeyCodec.LENGTH; ++idx){
+      key[idx] = (byte)(rest >>> (64 - 8 * idx));
+    }
+    testCorruptKey(key);
+    assertEquals(new DateTime("2012-02-01"), DateTimeKeyCodec.decode(DateTimeKeyCodec.encode(new DateTime("2012-02-01")), 0));
+  }
+
+  // PRIVATE
+
+  private static final String[] ITEMS = {
+    "0001-01-01 00:00:00.000000000", "9999-12-31 23:59:59.999999999", "2012-06-15 10:11:12.123456789",
+    "2012-06-15 10:11:12.12345679", "2012-06-15 10:11:12", "2012-06-15 10:11", "2012-06-15", "2012-06", "2012",
+    "10:11:12", "10:11", "10:11:12.5", "00:00:00.000000000", "1970-01-01 00:00:00.000000000", "2012-06-16"
+  };
+
+  private void testCorruptKey(byte[] aKey){
+    try {
+      DateTimeKeyCodec.decode(aKey, 0);
+      fail();
+    }
+    catch(RuntimeException ex){
+      //expected
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package hirondelle.date4j;
+
+import hirondelle.date4j.DateTime.DayOverflow;
+import hirondelle.date4j.DateTime.Unit;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTDateTimeRange extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTDateTimeRange.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTDateTimeRange( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testDays(){
+    DateTimeRange range = new DateTimeRange(new DateTime("2011-01-30"), new DateTime("2011-03-02"), 1, Unit.DAY);
+    assertEquals(32, range.size());
+    DateTime expected = new DateTime("2011-01-30");
+    for(DateTime day : range){
+      assertEquals(expected, day);
+      expected = expected.plusDays(1);
+    }
+    assertEquals(new DateTime("2011-03-02"), range.get(31));
+    assertEquals(new DateTime("2011-02-28"), range.get(29));
+  }
+
+  public void testDaysKeepTime(){
+    DateTimeRange range = new DateTimeRange(new DateTime("2011-01-30 10:15"), new DateTime("2011-02-05 10:14"), 2, Unit.DAY);
+    assertEquals(3, range.size());
+    assertEquals(new DateTime("2011-02-03 10:15"), range.get(2));
+    range = new DateTimeRange(new DateTime("2011-01-30 10:15"), new DateTime("2011-02-05 10:15"), 2, Unit.DAY);
+    assertEquals(4, range.size());
+  }
+
+  public void testSeconds(){
+    DateTime start = new DateTime("2011-12-31 23:59:58.5");
+    DateTimeRange range = new DateTimeRange(start, new DateTime("2012-01-01 00:00:02.4"), 1, Unit.SECOND);
+    assertEquals(4, range.size());
+    List<DateTime> items = toList(range);
+    assertEquals(new DateTime("2011-12-31 23:59:59.5"), items.get(1));
+    assertEquals(new DateTime("2012-01-01 00:00:01.5"), items.get(3));
+  }
+
+  public void testHoursAndMinutes(){
+    DateTime start = new DateTime("0001-01-01");
+    DateTimeRange range = new DateTimeRange(start, new DateTime("0001-01-03 12:00:00"), 5, Unit.HOUR);
+    assertEquals(13, range.size());
+    assertEquals(new DateTime("0001-01-03 12:00:00"), range.get(12));
+    range = new DateTimeRange(new DateTime("2000-02-28 23:00:00"), new DateTime("2000-03-01"), 7, Unit.MINUTE);
+    for(int idx = 0; idx < range.size(); ++idx){
+      DateTime expected = new DateTime("2000-02-28 23:00:00").plus(0, 0, 0, 0, 7 * idx, 0, 0, DayOverflow.Spillover).truncate(Unit.SECOND);
+      assertEquals(expected, range.get(idx));
+    }
+  }
+
+  public void testEmpty(){
+    DateTimeRange range = new DateTimeRange(new DateTime("2011-01-30"), new DateTime("2011-01-29"), 1, Unit.DAY);
+    assertTrue(range.isEmpty());
+    assertFalse(range.iterator().hasNext());
+    assertEquals(1, range.split(4).size());
+  }
+
+  public void testSplit(){
+    DateTimeRange range = new DateTimeRange(new DateTime("2011-01-01"), new DateTime("2011-12-31"), 1, Unit.DAY);
+    List<DateTime> all = toList(range);
+    List<DateTime> joined = new ArrayList<DateTime>();
+    List<DateTimeRange> parts = range.split(7);
+    assertEquals(7, parts.size());
+    for(DateTimeRange part : parts){
+      joined.addAll(toList(part));
+    }
+    assertEquals(all, joined);
+    assertEquals(365, range.split(1000).size());
+    assertEquals(new DateTime("2011-02-01"), range.subRange(31, 40).get(0));
+  }
+
+  public void testBadArgs(){
+    try {
+      new DateTimeRange(new DateTime("2011-01-01"), new DateTime("2011-12-31"), 1, Unit.MONTH);
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+    try {
+      new DateTimeRange(new DateTime("2011-01-01"), new DateTime("2011-12-31"), 0, Unit.DAY);
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+  }
+
+  // PRIVATE
+
+  private List<DateTime> toList(DateTimeRange aRange){
+    List<DateTime> result = new ArrayList<DateTime>();
+    for(DateTime item : aRange){
+      result.add(item);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,103 @@
+package hirondelle.date4j;
+
+import java.util.Arrays;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTDateTimeSorter extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTDateTimeSorter.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTDateTimeSorter( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testMixedUnits(){
+    Random random = new Random(11);
+    DateTime[] items = new DateTime[5000];
+    for(int idx = 0; idx < items.length; ++idx){
+      items[idx] = randomDateTime(random);
+    }
+    testSort(items, 1);
+    testSort(items, 3);
+  }
+
+  public void testLargeParallel(){
+    Random random = new Random(5);
+    DateTime[] items = new DateTime[200000];
+    DateTime start = new DateTime("2012-01-01 00:00:00.000000000");
+    for(int idx = 0; idx < items.length; ++idx){
+      items[idx] = start.plusNanos(random.nextLong() % 100000000000000L);
+    }
+    testSort(items, 1);
+    testSort(items, 4);
+  }
+
+  public void testStable(){
+    DateTime[] items = new DateTime[1000];
+    for(int idx = 0; idx < items.length; ++idx){
+      //equal, but distinct objects
+      items[idx] = new DateTime("2012-01-0" + (1 + idx % 3));
+    }
+    DateTime[] expected = items.clone();
+    Arrays.sort(expected);
+    new DateTimeSorter(1).sort(items);
+    for(int idx = 0; idx < items.length; ++idx){
+      assertSame(expected[idx], items[idx]);
+    }
+  }
+
+  public void testSmallAndEmpty(){
+    DateTime[] items = {new DateTime("2012-01-02"), new DateTime("2012-01-01")};
+    new DateTimeSorter(2).sort(items);
+    assertEquals(new DateTime("2012-01-01"), items[0]);
+    new DateTimeSorter(2).sort(new DateTime[0]);
+  }
+
+  public void testLongs(){
+    Random random = new Random(9);
+    for(int size : new int[]{0, 10, 1000, 100000}){
+      long[] values = new long[size];
+      for(int idx = 0; idx < size; ++idx){
+        values[idx] = idx % 5 == 0 ? random.nextInt(100) - 50 : random.nextLong();
+      }
+      if(size > 10){
+        values[3] = Long.MIN_VALUE;
+        values[4] = Long.MAX_VALUE;
+      }
+      long[] expected = values.clone();
+      Arrays.sort(expected);
+      long[] parallel = values.clone();
+      new DateTimeSorter(1).sort(values);
+      new DateTimeSorter(3).sort(parallel);
+      assertTrue(Arrays.equals(expected, values));
+      assertTrue(Arrays.equals(expected, parallel));
+    }
+  }
+
+  // PRIVATE
+
+  private static final String[] FORMATS = {"YYYY-MM-DD hh:mm:ss.fffffffff", "YYYY-MM-DD hh:mm:ss", "YYYY-MM-DD", "YYYY-MM", "hh:mm:ss", "hh:mm"};
+
+  private DateTime randomDateTime(Random aRandom){
+    DateTime full = DateTime.forEpochNanoUtc(aRandom.nextLong());
+    return new DateTime(full.format(FORMATS[aRandom.nextInt(FORMATS.length)]));
+  }
+
+  private void testSort(DateTime[] aItems, int aParallelism){
+    DateTime[] expected = aItems.clone();
+    Arrays.sort(expected);
+    DateTime[] actual = aItems.clone();
+    new DateTimeSorter(aParallelism).sort(actual);
+    for(int idx = 0; idx < expected.length; ++idx){
+      assertSame(expected[idx], actual[idx]);
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package hirondelle.date4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTDateTimeSpanTree extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTDateTimeSpanTree.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTDateTimeSpanTree( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testSpan(){
+    DateTimeSpan span = span("2012-01-01 10:00", "2012-01-01 11:00");
+    assertTrue(span.contains(new DateTime("2012-01-01 10:00")));
+    assertTrue(span.contains(new DateTime("2012-01-01 10:59")));
+    assertFalse(span.contains(new DateTime("2012-01-01 11:00")));
+    assertFalse(span.overlaps(span("2012-01-01 11:00", "2012-01-01 12:00")));
+    assertTrue(span.overlaps(span("2012-01-01 10:59", "2012-01-01 12:00")));
+    assertTrue(span.overlaps(span("2012-01-01 09:00", "2012-01-01 12:00")));
+    assertFalse(span.overlaps(span("2012-01-01 10:30", "2012-01-01 10:30")));
+    assertTrue(span("2012-01-01 10:30", "2012-01-01 10:30").isEmpty());
+    assertEquals(span("2012-01-01 10:00", "2012-01-01 11:00"), span);
+    assertEquals(span("2012-01-01 10:00", "2012-01-01 11:00").hashCode(), span.hashCode());
+    assertTrue(span.compareTo(span("2012-01-01 10:00", "2012-01-01 12:00")) < 0);
+    assertEquals("[2012-01-01 10:00..2012-01-01 11:00)", span.toString());
+  }
+
+  public void testBadSpan(){
+    try {
+      span("2012-01-01 11:00", "2012-01-01 10:00");
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+    try {
+      new DateTimeSpan(null, new DateTime("2012-01-01 10:00"));
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+  }
+
+  public void testAgainstScan(){
+    Random random = new Random(23);
+    DateTime base = new DateTime("2012-01-01 00:00:00");
+    List<DateTimeSpan> spans = new ArrayList<DateTimeSpan>();
+    for(int idx = 0; idx < 2000; ++idx){
+      DateTime start = base.plusSeconds(random.nextInt(100000));
+      //mostly short spans, a few long ones, and some empty ones
+      int length = random.nextInt(10) == 0 ? random.nextInt(50000) : random.nextInt(300);
+      spans.add(new DateTimeSpan(start, start.plusSeconds(length)));
+    }
+    DateTimeSpanTree tree = new DateTimeSpanTree(spans);
+    assertEquals(spans.size(), tree.size());
+    for(int query = 0; query < 300; ++query){
+      DateTime start = base.plusSeconds(random.nextInt(101000) - 500);
+      DateTimeSpan span = new DateTimeSpan(start, start.plusSeconds(random.nextInt(1000)));
+      assertEquals(scanOverlapping(spans, span), tree.findOverlapping(span));
+      assertEquals(! scanOverlapping(spans, span).isEmpty(), tree.hasOverlap(span));
+      assertEquals(scanContaining(spans, start), tree.findContaining(start));
+    }
+  }
+
+  public void testSortedInput(){
+    List<DateTimeSpan> spans = new ArrayList<DateTimeSpan>();
+    for(int idx = 0; idx < 100; ++idx){
+      spans.add(new DateTimeSpan(hour(idx), hour(idx + 1)));
+    }
+    List<DateTimeSpan> shuffled = new ArrayList<DateTimeSpan>(spans);
+    Collections.shuffle(shuffled, new Random(5));
+    DateTimeSpan query = span("2012-01-02 05:30", "2012-01-02 07:00");
+    List<DateTimeSpan> expected = Arrays.asList(span("2012-01-02 05:00", "2012-01-02 06:00"), span("2012-01-02 06:00", "2012-01-02 07:00"));
+    assertEquals(expected, new DateTimeSpanTree(spans).findOverlapping(query));
+    assertEquals(expected, new DateTimeSpanTree(shuffled).findOverlapping(query));
+    assertEquals(Arrays.asList(span("2012-01-02 06:00", "2012-01-02 07:00")), new DateTimeSpanTree(spans).findContaining(new DateTime("2012-01-02 06:00")));
+  }
+
+  public void testEmpty(){
+    DateTimeSpanTree tree = new DateTimeSpanTree(new ArrayList<DateTimeSpan>());
+    assertEquals(0, tree.findContaining(new DateTime("2012-01-01 10:00")).size());
+    assertFalse(tree.hasOverlap(span("2012-01-01 10:00", "2012-01-01 11:00")));
+    tree = new DateTimeSpanTree(Arrays.asList(span("2012-01-01 10:00", "2012-01-01 10:00")));
+    assertEquals(0, tree.findContaining(new DateTime("2012-01-01 10:00")).size());
+    assertFalse(tree.hasOverlap(span("2012-01-01 09:00", "2012-01-01 11:00")));
+  }
+
+  // PRIVATE
+
+  private DateTimeSpan span(String aStart, String aEnd){
+    return new DateTimeSpan(new DateTime(aStart), new DateTime(aEnd));
+  }
+
+  /** The start of the given hour, counting from 2012-01-01 00:00. */
+  private DateTime hour(int aHour){
+    return new DateTime(2012, 1, 1 + aHour / 24, aHour % 24, 0, null, null);
+  }
+
+  private List<DateTimeSpan> scanOverlapping(List<DateTimeSpan> aSpans, DateTimeSpan aSpan){
+    List<DateTimeSpan> result = new ArrayList<DateTimeSpan>();
+    for(DateTimeSpan span : aSpans){
+      if(span.overlaps(aSpan)){
+        result.add(span);
+      }
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  private List<DateTimeSpan> scanContaining(List<DateTimeSpan> aSpans, DateTime aDateTime){
+    List<DateTimeSpan> result = new ArrayList<DateTimeSpan>();
+    for(DateTimeSpan span : aSpans){
+      if(span.contains(aDateTime)){
+        result.add(span);
+      }
+    }
+    Collections.sort(result);
+    return result;
+  }
+}
@@ -0,0 +1,128 @@
+package hirondelle.date4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTDaySet extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTDaySet.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTDaySet( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testBasics(){
+    DaySet days = new DaySet();
+    assertTrue(days.isEmpty());
+    assertTrue(days.add(new DateTime("2012-12-25")));
+    assertFalse(days.add(new DateTime("2012-12-25 13:45")));
+    assertTrue(days.contains(new DateTime("2012-12-25 08:00")));
+    assertFalse(days.contains(new DateTime("2012-12-24")));
+    assertEquals(1, days.size());
+    assertTrue(days.remove(new DateTime("2012-12-25")));
+    assertFalse(days.remove(new DateTime("2012-12-25")));
+    assertTrue(days.isEmpty());
+    assertEquals(new DaySet(), days);
+  }
+
+  public void testEndsOfRange(){
+    DaySet days = new DaySet(Arrays.asList(new DateTime("0001-01-01"), new DateTime("9999-12-31")));
+    assertTrue(days.contains(new DateTime("0001-01-01")));
+    assertTrue(days.contains(new DateTime("9999-12-31")));
+    assertEquals(new DateTime("9999-12-31"), days.nextDay(new DateTime("0001-01-02")));
+    assertEquals(new DateTime("0001-01-01"), days.previousDay(new DateTime("9999-12-30")));
+    assertNull(days.nextDayNotInSet(new DateTime("9999-12-31")));
+    assertNull(days.previousDayNotInSet(new DateTime("0001-01-01")));
+    assertEquals(2, days.count(new DateTime("0001-01-01"), new DateTime("9999-12-31")));
+    assertEquals("[2012-01-01..2012-12-25, 2 days]", new DaySet(Arrays.asList(new DateTime("2012-12-25"), new DateTime("2012-01-01"))).toString());
+  }
+
+  public void testAgainstTreeSet(){
+    Random random = new Random(31);
+    DateTime base = DateTime.forDateOnly(1990, 1, 1);
+    TreeSet<DateTime> expected = new TreeSet<DateTime>();
+    DaySet days = new DaySet();
+    for(int idx = 0; idx < 2000; ++idx){
+      DateTime day = base.plusDays(random.nextInt(20000));
+      assertEquals(expected.add(day), days.add(day));
+    }
+    for(int idx = 0; idx < 500; ++idx){
+      DateTime day = base.plusDays(random.nextInt(20000));
+      assertEquals(expected.remove(day), days.remove(day));
+    }
+    assertEquals(expected.size(), days.size());
+    for(int query = 0; query < 500; ++query){
+      DateTime from = base.plusDays(random.nextInt(22000) - 1000);
+      DateTime to = from.plusDays(random.nextInt(3000));
+      assertEquals(expected.contains(from), days.contains(from));
+      assertEquals(expected.ceiling(from), days.nextDay(from));
+      assertEquals(expected.floor(from), days.previousDay(from));
+      assertEquals(expected.subSet(from, true, to, true).size(), days.count(from, to));
+      assertEquals(0, days.count(to.plusDays(1), from));
+    }
+    assertEquals(new DaySet(expected), days);
+    assertEquals(new DaySet(expected).hashCode(), days.hashCode());
+  }
+
+  public void testRangesAndGaps(){
+    DaySet days = new DaySet();
+    days.addRange(new DateTime("2012-01-01"), new DateTime("2012-03-31"));
+    assertEquals(91, days.size());
+    assertEquals(new DateTime("2012-04-01"), days.nextDayNotInSet(new DateTime("2012-01-15")));
+    assertEquals(new DateTime("2011-12-31"), days.previousDayNotInSet(new DateTime("2012-03-31")));
+    assertEquals(new DateTime("2012-04-15"), days.nextDayNotInSet(new DateTime("2012-04-15")));
+    assertEquals(29, days.count(new DateTime("2012-02-01"), new DateTime("2012-02-29")));
+  }
+
+  public void testReversedRange(){
+    DaySet days = new DaySet();
+    //both ends in the same 64-day word
+    days.addRange(new DateTime("2020-01-10"), new DateTime("2020-01-05"));
+    assertTrue(days.isEmpty());
+    assertEquals(0, days.size());
+    assertEquals(new DaySet(), days);
+    days.addRange(new DateTime("2020-06-10"), new DateTime("2020-01-05"));
+    assertTrue(days.isEmpty());
+  }
+
+  public void testUnionAndIntersect(){
+    DaySet weekdays = new DaySet();
+    DaySet januaryAndMarch = new DaySet();
+    List<DateTime> expected = new ArrayList<DateTime>();
+    DateTime day = DateTime.forDateOnly(2012, 1, 1);
+    while(day.getYear() == 2012){
+      boolean isWeekday = day.getWeekDay() != 1 && day.getWeekDay() != 7;
+      boolean isJanuaryOrMarch = day.getMonth() == 1 || day.getMonth() == 3;
+      if(isWeekday){
+        weekdays.add(day);
+      }
+      if(isJanuaryOrMarch){
+        januaryAndMarch.add(day);
+      }
+      if(isWeekday && isJanuaryOrMarch){
+        expected.add(day);
+      }
+      day = day.plusDays(1);
+    }
+    DaySet both = new DaySet(weekdays);
+    both.intersect(januaryAndMarch);
+    assertEquals(new DaySet(expected), both);
+    assertEquals(261, weekdays.size());
+    DaySet either = new DaySet(weekdays);
+    either.union(januaryAndMarch);
+    assertEquals(261 + 62 - expected.size(), either.size());
+    both.intersect(new DaySet());
+    assertTrue(both.isEmpty());
+  }
+}
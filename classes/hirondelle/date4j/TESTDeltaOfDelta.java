@@ -0,0 +1,110 @@
+package hirondelle.date4j;
+
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** JUnit tests for both the encoder and the decoder. */
+public final class TESTDeltaOfDelta extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTDeltaOfDelta.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTDeltaOfDelta( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testRegularSeries(){
+    DeltaOfDeltaEncoder encoder = new DeltaOfDeltaEncoder(1000);
+    DateTime start = new DateTime("2012-01-01 00:00:00.000000000");
+    for(int idx = 0; idx < 10000; ++idx){
+      encoder.add(start.plusSeconds(10L * idx));
+    }
+    //1 bit per item, except the second item of each checkpoint interval
+    assertTrue(encoder.getNumBits() < 10000 + 10 * 16);
+    DeltaOfDeltaDecoder decoder = new DeltaOfDeltaDecoder(encoder.toByteArray());
+    assertEquals(10000, decoder.size());
+    assertEquals(start, decoder.get(0));
+    assertEquals(start.plusSeconds(10L * 9999), decoder.get(9999));
+    assertEquals(start.plusSeconds(10L * 4321), decoder.get(4321));
+    int idx = 0;
+    for(DateTime item : decoder){
+      assertEquals(start.plusSeconds(10L * idx), item);
+      ++idx;
+    }
+    assertEquals(10000, idx);
+  }
+
+  public void testIrregularSeries(){
+    Random random = new Random(7);
+    long[] values = new long[5000];
+    long value = new DateTime("1969-12-31 23:59:00.000000000").toEpochNanoUtc();
+    for(int idx = 0; idx < values.length; ++idx){
+      int kind = random.nextInt(6);
+      if(kind == 0){
+        value = value + random.nextInt(100);
+      }
+      else if (kind == 1){
+        value = value - random.nextInt(1000000);
+      }
+      else if (kind == 2){
+        value = value + random.nextLong() / 1000;
+      }
+      else if (kind == 3){
+        value = value + 1000000000L * random.nextInt(1000);
+      }
+      else {
+        value = value + 1000000L;
+      }
+      values[idx] = value;
+    }
+    values[100] = Long.MIN_VALUE;
+    values[101] = Long.MAX_VALUE;
+    for(int interval : new int[]{1, 7, 64, 10000}){
+      DeltaOfDeltaEncoder encoder = new DeltaOfDeltaEncoder(interval);
+      for(long item : values){
+        encoder.addEpochNano(item);
+      }
+      DeltaOfDeltaDecoder decoder = new DeltaOfDeltaDecoder(encoder.toByteArray());
+      for(int idx = 0; idx < values.length; ++idx){
+        assertEquals(values[idx], decoder.getEpochNano(idx));
+      }
+      int idx = 0;
+      for(DateTime item : decoder){
+        assertEquals(values[idx], item.toEpochNanoUtc());
+        ++idx;
+      }
+    }
+  }
+
+  public void testEmptyAndBadArgs(){
+    DeltaOfDeltaDecoder decoder = new DeltaOfDeltaDecoder(new DeltaOfDeltaEncoder(10).toByteArray());
+    assertEquals(0, decoder.size());
+    assertFalse(decoder.iterator().hasNext());
+    try {
+      decoder.get(0);
+      fail();
+    }
+    catch(IndexOutOfBoundsException ex){
+      //expected
+    }
+    try {
+      new DeltaOfDeltaEncoder(0);
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+    try {
+      new DeltaOfDeltaDecoder(new byte[20]);
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package hirondelle.date4j;
+
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTIncrementalDateTimeParser extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTIncrementalDateTimeParser.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTIncrementalDateTimeParser( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testSameAsStateless(){
+    IncrementalDateTimeParser parser = new IncrementalDateTimeParser();
+    testSame(parser, "2009-01-01 23:40:19.123456789");
+    testSame(parser, "2009-01-01 23:40:19.1");
+    testSame(parser, "2009-01-01 23:40:20");
+    testSame(parser, "2009-01-01T23:40");
+    testSame(parser, "2009-01-01 23");
+    testSame(parser, "2009-01-02 00:00:00");
+    testSame(parser, "2009-01-02");
+    testSame(parser, "23:59:59.12345");
+    testSame(parser, "2009-01-02 00:00:01");
+    testSame(parser, "2009-01 13:00");
+    testSame(parser, "2009-01 13:01");
+    testSame(parser, "  2009-01-02 00:00:02  ");
+    testSame(parser, "2009");
+  }
+
+  public void testReuse(){
+    IncrementalDateTimeParser parser = new IncrementalDateTimeParser();
+    parser.parse("2010-05-06 01:02:03");
+    parser.parse("2010-05-06 01:02:04");
+    parser.parse("2010-05-06T01:02:05");
+    assertEquals(2, parser.getNumReused());
+    parser.parse("2010-05-07 01:02:05");
+    parser.parse("2010-05-06 01:02:05");
+    assertEquals(2, parser.getNumReused());
+    parser.reset();
+    parser.parse("2010-05-06 01:02:06");
+    assertEquals(2, parser.getNumReused());
+  }
+
+  public void testFailures(){
+    IncrementalDateTimeParser parser = new IncrementalDateTimeParser();
+    parser.parse("2010-02-28 01:02:03");
+    testFail(parser, "2010-02-28 25:02:03");
+    testFail(parser, "2010-02-28 01:0");
+    testFail(parser, "2010-02-28 1:02:03");
+    testFail(parser, "2010-02-29 01:02:03");
+    testFail(parser, "2010-02-2 01:02:03");
+    testFail(parser, "2010-02-28X01:02:03");
+    testFail(parser, null);
+    //a bad time doesn't disturb the remembered date
+    assertEquals(new DateTime("2010-02-28 01:02:04"), parser.parse("2010-02-28 01:02:04"));
+  }
+
+  // PRIVATE
+
+  private void testSame(IncrementalDateTimeParser aParser, String aText){
+    DateTime expected = new DateTime(aText);
+    DateTime actual = aParser.parse(aText);
+    if(! expected.equals(actual)){
+      fail("Expected:" + expected + " Actual:" + actual);
+    }
+  }
+
+  private void testFail(IncrementalDateTimeParser aParser, String aText){
+    boolean stateless = DateTime.isParseable(aText);
+    boolean incremental = true;
+    try {
+      aParser.parse(aText);
+    }
+    catch(RuntimeException ex){
+      incremental = false;
+    }
+    if(stateless || incremental){
+      fail("Expected failure for:" + aText);
+    }
+  }
+}
@@ -0,0 +1,214 @@
+package hirondelle.date4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTRecurrenceRule extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTRecurrenceRule.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTRecurrenceRule( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testThirdFriday(){
+    RecurrenceRule rule = new RecurrenceRule(DateTime.forDateOnly(2012, 1, 1), "FREQ=MONTHLY;BYDAY=3FR");
+    Iterator<DateTime> occurrences = rule.iterator();
+    for(int month = 0; month < 120; ++month){
+      DateTime firstOfMonth = DateTime.forDateOnly(2012 + month / 12, month % 12 + 1, 1);
+      //as in Examples.optionsExpiry
+      int day = firstOfMonth.getWeekDay() == 7 ? 21 : 21 - firstOfMonth.getWeekDay();
+      assertEquals(DateTime.forDateOnly(firstOfMonth.getYear(), firstOfMonth.getMonth(), day), occurrences.next());
+    }
+  }
+
+  public void testEverySecondTuesday(){
+    RecurrenceRule rule = new RecurrenceRule(new DateTime("2012-01-03 09:30"), "FREQ=WEEKLY;INTERVAL=2;BYDAY=TU");
+    DateTime expected = new DateTime("2012-01-03 09:30");
+    Iterator<DateTime> occurrences = rule.iterator();
+    for(int idx = 0; idx < 200; ++idx){
+      assertEquals(expected, occurrences.next());
+      expected = expected.plusDays(14);
+    }
+    assertEquals(new DateTime("2012-01-17 09:30"), rule.next(new DateTime("2012-01-03 09:30")));
+    assertEquals(new DateTime("2012-01-03 09:30"), rule.next(new DateTime("2012-01-03 09:29")));
+    assertEquals(new DateTime("2012-01-31 09:30"), rule.next(new DateTime("2012-01-20 00:00")));
+  }
+
+  public void testLastWeekdayOfMonth(){
+    RecurrenceRule rule = new RecurrenceRule(DateTime.forDateOnly(2012, 1, 1), "FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1");
+    Iterator<DateTime> occurrences = rule.iterator();
+    DateTime month = DateTime.forDateOnly(2012, 1, 1);
+    for(int idx = 0; idx < 60; ++idx){
+      DateTime expected = DateTime.forDateOnly(month.getYear(), month.getMonth(), month.getNumDaysInMonth());
+      while(expected.getWeekDay() == 1 || expected.getWeekDay() == 7){
+        expected = expected.minusDays(1);
+      }
+      assertEquals(expected, occurrences.next());
+      month = month.plus(0, 1, 0, 0, 0, 0, 0, DateTime.DayOverflow.Abort);
+    }
+  }
+
+  public void testCountAndUntil(){
+    RecurrenceRule rule = new RecurrenceRule(DateTime.forDateOnly(2012, 1, 1), "FREQ=YEARLY;BYMONTH=5;BYDAY=-1MO;COUNT=3");
+    assertEquals(dates("2012-05-28", "2013-05-27", "2014-05-26"), list(rule));
+    assertNull(rule.next(new DateTime("2014-05-26")));
+    rule = new RecurrenceRule(new DateTime("2012-01-01 10:00"), "FREQ=DAILY;INTERVAL=10;UNTIL=2012-01-31 09:00");
+    assertEquals(dates("2012-01-01 10:00", "2012-01-11 10:00", "2012-01-21 10:00"), list(rule));
+    rule = new RecurrenceRule(new DateTime("2012-01-01 10:00"), "FREQ=DAILY;INTERVAL=10;UNTIL=2012-01-31 10:00");
+    assertEquals(4, list(rule).size());
+  }
+
+  public void testMonthDays(){
+    RecurrenceRule rule = new RecurrenceRule(DateTime.forDateOnly(2012, 1, 31), "FREQ=MONTHLY;COUNT=4");
+    assertEquals(dates("2012-01-31", "2012-03-31", "2012-05-31", "2012-07-31"), list(rule));
+    rule = new RecurrenceRule(DateTime.forDateOnly(2012, 1, 1), "rrule:freq=monthly;bymonthday=1,-1;count=4");
+    assertEquals(dates("2012-01-01", "2012-01-31", "2012-02-01", "2012-02-29"), list(rule));
+    rule = new RecurrenceRule(DateTime.forDateOnly(2012, 1, 1), "FREQ=MONTHLY;BYMONTHDAY=13;BYDAY=FR;COUNT=3");
+    assertEquals(dates("2012-01-13", "2012-04-13", "2012-07-13"), list(rule));
+  }
+
+  public void testDailyAndYearly(){
+    RecurrenceRule rule = new RecurrenceRule(DateTime.forDateOnly(2012, 2, 27), "FREQ=DAILY;BYDAY=MO,WE;COUNT=4");
+    assertEquals(dates("2012-02-27", "2012-02-29", "2012-03-05", "2012-03-07"), list(rule));
+    rule = new RecurrenceRule(DateTime.forDateOnly(2012, 2, 29), "FREQ=YEARLY;COUNT=2");
+    assertEquals(dates("2012-02-29", "2016-02-29"), list(rule));
+    rule = new RecurrenceRule(DateTime.forDateOnly(2012, 1, 1), "FREQ=YEARLY;INTERVAL=2;BYMONTH=1,7;BYMONTHDAY=4;BYSETPOS=-1;COUNT=2");
+    assertEquals(dates("2012-07-04", "2014-07-04"), list(rule));
+    rule = new RecurrenceRule(DateTime.forDateOnly(2012, 1, 1), "FREQ=DAILY;BYMONTH=12;BYMONTHDAY=25");
+    assertEquals(DateTime.forDateOnly(2030, 12, 25), rule.next(DateTime.forDateOnly(2030, 1, 1)));
+  }
+
+  public void testYearlyWithoutByMonth(){
+    RecurrenceRule rule = new RecurrenceRule(DateTime.forDateOnly(2024, 1, 1), "FREQ=YEARLY;BYDAY=MO");
+    assertEquals(DateTime.forDateOnly(2024, 2, 5), rule.next(DateTime.forDateOnly(2024, 1, 29)));
+    int numMondays = 0;
+    for(DateTime monday : rule){
+      if(monday.getYear() > 2024) break;
+      ++numMondays;
+    }
+    assertEquals(53, numMondays);
+    rule = new RecurrenceRule(DateTime.forDateOnly(2024, 1, 1), "FREQ=YEARLY;BYMONTHDAY=1;COUNT=13");
+    List<DateTime> firsts = list(rule);
+    assertEquals(13, firsts.size());
+    assertEquals(DateTime.forDateOnly(2024, 6, 1), firsts.get(5));
+    assertEquals(DateTime.forDateOnly(2025, 1, 1), firsts.get(12));
+    //no BYxxx item picks the days, so the start's month and day
+    rule = new RecurrenceRule(DateTime.forDateOnly(2024, 3, 10), "FREQ=YEARLY;COUNT=2");
+    assertEquals(dates("2024-03-10", "2025-03-10"), list(rule));
+  }
+
+  /** The last occurrence found from COUNT matches plain iteration of the same rule. */
+  public void testCountMatchesIteration(){
+    String[] rules = {
+      "FREQ=DAILY;INTERVAL=3", "FREQ=WEEKLY;BYDAY=WE", "FREQ=WEEKLY;INTERVAL=3;BYDAY=SU", "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,FR",
+      "FREQ=MONTHLY;BYDAY=3FR", "FREQ=MONTHLY;INTERVAL=5;BYMONTHDAY=31", "FREQ=YEARLY;BYMONTHDAY=1,-1", "FREQ=DAILY;BYDAY=MO,WE",
+      "FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1", "FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=29"
+    };
+    DateTime start = new DateTime("2012-01-02 09:00");
+    for(String rule : rules){
+      List<DateTime> all = new ArrayList<DateTime>();
+      for(DateTime occurrence : new RecurrenceRule(start, rule)){
+        all.add(occurrence);
+        if(all.size() == 500) break;
+      }
+      for(int count : new int[]{1, 2, 7, 50, 500}){
+        RecurrenceRule counted = new RecurrenceRule(start, rule + ";COUNT=" + count);
+        DateTime last = all.get(count - 1);
+        assertEquals(rule + " " + count, all.subList(0, count), list(counted));
+        assertEquals(last, counted.next(last.minusDays(1)));
+        assertNull(counted.next(last));
+      }
+    }
+  }
+
+  public void testLargeCount(){
+    RecurrenceRule rule = new RecurrenceRule(DateTime.forDateOnly(2012, 1, 1), "FREQ=DAILY;COUNT=2000000");
+    DateTime last = DateTime.forDateOnly(2012, 1, 1).plusDays(1999999);
+    assertEquals(last, rule.next(last.minusDays(1)));
+    assertNull(rule.next(last));
+    //more occurrences than there are days before the year 10000
+    rule = new RecurrenceRule(DateTime.forDateOnly(2012, 1, 1), "FREQ=WEEKLY;COUNT=2000000000");
+    assertEquals(DateTime.forDateOnly(9999, 12, 26), rule.next(DateTime.forDateOnly(9999, 12, 20)));
+  }
+
+  /** A step of INTERVAL periods can go far past the year 9999, without overflowing. */
+  public void testLargeInterval(){
+    DateTime start = DateTime.forDateOnly(2012, 1, 2);
+    for(String interval : new String[]{"306783379", "2147483647"}){
+      for(String count : new String[]{"", ";COUNT=3"}){
+        RecurrenceRule rule = new RecurrenceRule(start, "FREQ=WEEKLY;INTERVAL=" + interval + ";BYDAY=MO,TU" + count);
+        assertEquals("[2012-01-02, 2012-01-03]", list(rule).toString());
+        assertEquals(DateTime.forDateOnly(2012, 1, 3), rule.next(start));
+        assertNull(rule.next(DateTime.forDateOnly(2012, 1, 3)));
+        for(String freq : new String[]{"MONTHLY", "YEARLY"}){
+          rule = new RecurrenceRule(start, "FREQ=" + freq + ";INTERVAL=" + interval + ";BYMONTH=1;BYMONTHDAY=2,3" + count);
+          assertEquals(freq, "[2012-01-02, 2012-01-03]", list(rule).toString());
+          assertNull(rule.next(DateTime.forDateOnly(2012, 1, 3)));
+        }
+        rule = new RecurrenceRule(start, "FREQ=DAILY;INTERVAL=" + interval + count);
+        assertEquals("[2012-01-02]", list(rule).toString());
+        assertNull(rule.next(start));
+      }
+    }
+  }
+
+  public void testNoOccurrences(){
+    RecurrenceRule rule = new RecurrenceRule(DateTime.forDateOnly(2012, 1, 1), "FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=30");
+    assertFalse(rule.iterator().hasNext());
+    assertNull(rule.next(DateTime.forDateOnly(2012, 1, 1)));
+  }
+
+  public void testBadRules(){
+    testBadRule("BYDAY=MO");
+    testBadRule("FREQ=HOURLY");
+    testBadRule("FREQ=DAILY;INTERVAL=0");
+    testBadRule("FREQ=DAILY;COUNT=2;UNTIL=2013-01-01");
+    testBadRule("FREQ=WEEKLY;BYDAY=2MO");
+    testBadRule("FREQ=MONTHLY;BYDAY=6MO");
+    testBadRule("FREQ=MONTHLY;BYDAY=XX");
+    testBadRule("FREQ=MONTHLY;BYMONTHDAY=0");
+    testBadRule("FREQ=MONTHLY;BYMONTH=13");
+    testBadRule("FREQ=MONTHLY;FREQ=DAILY");
+    testBadRule("FREQ=MONTHLY;BYHOUR=10");
+    testBadRule("FREQ=DAILY;BYSETPOS=1");
+    testBadRule("FREQ=YEARLY;BYDAY=1MO");
+  }
+
+  // PRIVATE
+
+  private void testBadRule(String aRule){
+    try {
+      new RecurrenceRule(DateTime.forDateOnly(2012, 1, 1), aRule);
+      fail("Expected failure: " + aRule);
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+  }
+
+  private List<DateTime> list(RecurrenceRule aRule){
+    List<DateTime> result = new ArrayList<DateTime>();
+    for(DateTime occurrence : aRule){
+      result.add(occurrence);
+    }
+    return result;
+  }
+
+  private List<DateTime> dates(String... aDates){
+    List<DateTime> result = new ArrayList<DateTime>();
+    for(String date : aDates){
+      result.add(new DateTime(date));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,98 @@
+package hirondelle.date4j;
+
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTSortableId extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTSortableId.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTSortableId( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testRoundTrip(){
+    for(String item : ITEMS){
+      DateTime dt = new DateTime(item);
+      byte[] bytes = new byte[SortableId.BYTE_LENGTH + 3];
+      SortableId.encode(dt, RANDOM.nextLong(), bytes, 3);
+      assertEquals(dt, SortableId.decode(bytes, 3));
+      String text = SortableId.toText(dt, RANDOM.nextLong());
+      assertEquals(SortableId.TEXT_LENGTH, text.length());
+      DateTime decoded = SortableId.decodeText(text);
+      assertEquals(dt, decoded);
+      assertEquals(dt, SortableId.decodeText(text.toLowerCase()));
+      char[] chars = new char[30];
+      SortableId.encodeText(dt, -1L, chars, 4);
+      assertEquals(dt, SortableId.decodeText(chars, 4));
+    }
+  }
+
+  public void testOrder(){
+    for(int idx = 0; idx < ITEMS.length; ++idx){
+      for(int other = 0; other < ITEMS.length; ++other){
+        DateTime a = new DateTime(ITEMS[idx]);
+        DateTime b = new DateTime(ITEMS[other]);
+        int expected = Integer.signum(a.compareTo(b));
+        assertEquals(expected, Integer.signum(SortableId.toText(a, 0).compareTo(SortableId.toText(b, 0))));
+        byte[] bytesA = new byte[16];
+        byte[] bytesB = new byte[16];
+        SortableId.encode(a, 0, bytesA, 0);
+        SortableId.encode(b, 0, bytesB, 0);
+        assertEquals(expected, Integer.signum(compareUnsigned(bytesA, bytesB)));
+      }
+    }
+  }
+
+  public void testRandomBits(){
+    DateTime dt = new DateTime("2012-06-15 10:11:12.123456789");
+    String low = SortableId.toText(dt, 0);
+    String high = SortableId.toText(dt, -1L);
+    assertTrue(low.compareTo(high) < 0);
+    assertTrue(high.compareTo(SortableId.toText(dt.plusNanos(1), 0)) < 0);
+  }
+
+  public void testBadText(){
+    testBadText("");
+    testBadText("01ARZ3NDEKTSV4RRFFQ69G5FA");
+    testBadText("8ZZZZZZZZZZZZZZZZZZZZZZZZZ");
+    testBadText("01ARZ3NDEKTSV4RRFFQ69G5FU!");
+    //decodes to a month of 13
+    testBadText("7ZZZZZZZZZZZZZZZZZZZZZZZZZ");
+  }
+
+  // PRIVATE
+
+  private static final Random RANDOM = new Random(42);
+
+  private static final String[] ITEMS = {
+    "0001-01-01 00:00:00.000000000", "9999-12-31 23:59:59.999999999", "2012-06-15 10:11:12.123456789",
+    "2012-06-15 10:11:12.12345679", "2012-06-15 10:11:12", "2012-06-15", "2012-06", "2012", "10:11:12",
+    "10:11", "10:11:12.5", "1970-01-01 00:00:00.000000000", "8191-12-31 23:59:59.999999999", "8192-01-01 00:00:00.000000000"
+  };
+
+  private void testBadText(String aText){
+    try {
+      SortableId.decodeText(aText);
+      fail("Expected failure: " + aText);
+    }
+    catch(RuntimeException ex){
+      //expected
+    }
+  }
+
+  private int compareUnsigned(byte[] aThis, byte[] aThat){
+    int result = 0;
+    for(int idx = 0; idx < aThis.length && result == 0; ++idx){
+      result = (aThis[idx] & 0xFF) - (aThat[idx] & 0xFF);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,193 @@
+package hirondelle.date4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTTimerWheel extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTTimerWheel.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTTimerWheel( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testSimple(){
+    SettableClock clock = new SettableClock(START);
+    TimerWheel wheel = new TimerWheel(10, clock, UTC, null);
+    List<String> ran = new ArrayList<String>();
+    wheel.schedule(START.plus(0, 0, 0, 0, 0, 1, 0, DateTime.DayOverflow.Spillover), new Record(ran, "b"));
+    wheel.schedule(START.plus(0, 0, 0, 0, 0, 0, 500000000, DateTime.DayOverflow.Spillover), new Record(ran, "a"));
+    assertEquals(2, wheel.size());
+    assertEquals(0, wheel.advance());
+
+    clock.fNow = START.plus(0, 0, 0, 0, 0, 0, 499000000, DateTime.DayOverflow.Spillover);
+    assertEquals(0, wheel.advance());
+    clock.fNow = START.plus(0, 0, 0, 0, 0, 0, 500000000, DateTime.DayOverflow.Spillover);
+    assertEquals(1, wheel.advance());
+    assertEquals("[a]", ran.toString());
+    clock.fNow = START.plus(0, 0, 0, 1, 0, 0, 0, DateTime.DayOverflow.Spillover);
+    assertEquals(1, wheel.advance());
+    assertEquals("[a, b]", ran.toString());
+    assertEquals(0, wheel.size());
+  }
+
+  public void testPastDeadline(){
+    SettableClock clock = new SettableClock(START);
+    TimerWheel wheel = new TimerWheel(10, clock, UTC, null);
+    List<String> ran = new ArrayList<String>();
+    wheel.schedule(START.minusDays(1), new Record(ran, "a"));
+    assertEquals(0, wheel.advance());
+    clock.fNow = START.plus(0, 0, 0, 0, 0, 0, 10000000, DateTime.DayOverflow.Spillover);
+    assertEquals(1, wheel.advance());
+  }
+
+  public void testCancel(){
+    SettableClock clock = new SettableClock(START);
+    TimerWheel wheel = new TimerWheel(1, clock, UTC, null);
+    List<String> ran = new ArrayList<String>();
+    TimerWheel.Timeout a = wheel.schedule(START.plusDays(1), new Record(ran, "a"));
+    TimerWheel.Timeout b = wheel.schedule(START.plusDays(1), new Record(ran, "b"));
+    TimerWheel.Timeout c = wheel.schedule(START.plusDays(1), new Record(ran, "c"));
+    assertTrue(b.cancel());
+    assertFalse(b.cancel());
+    assertTrue(b.isCancelled());
+    assertEquals(2, wheel.size());
+    clock.fNow = START.plusDays(1);
+    assertEquals(2, wheel.advance());
+    Collections.sort(ran);
+    assertEquals("[a, c]", ran.toString());
+    assertTrue(a.isDue());
+    assertFalse(c.cancel());
+    assertFalse(c.isCancelled());
+  }
+
+  public void testClockGoesBack(){
+    SettableClock clock = new SettableClock(START);
+    TimerWheel wheel = new TimerWheel(1000, clock, UTC, null);
+    List<String> ran = new ArrayList<String>();
+    wheel.schedule(START.plus(0, 0, 0, 0, 30, 0, 0, DateTime.DayOverflow.Spillover), new Record(ran, "a"));
+    clock.fNow = START.minus(0, 0, 0, 1, 0, 0, 0, DateTime.DayOverflow.Spillover);
+    assertEquals(0, wheel.advance());
+    clock.fNow = START.plus(0, 0, 0, 0, 29, 59, 0, DateTime.DayOverflow.Spillover);
+    assertEquals(0, wheel.advance());
+    clock.fNow = START.plus(0, 0, 0, 0, 30, 0, 0, DateTime.DayOverflow.Spillover);
+    assertEquals(1, wheel.advance());
+  }
+
+  /** Deadlines spread over many levels, checked against a sort, with the clock moving in random steps. */
+  public void testRandom(){
+    Random random = new Random(49);
+    SettableClock clock = new SettableClock(START);
+    TimerWheel wheel = new TimerWheel(1, clock, UTC, null);
+    List<Long> ran = new ArrayList<Long>();
+    List<Long> expected = new ArrayList<Long>();
+    for(int i = 0; i < 2000; ++i){
+      //up to about 4 years, in millis, with a bias toward near deadlines
+      long millis = (long)(Math.pow(random.nextDouble(), 4) * 126000000000L);
+      DateTime deadline = plusMillis(START, millis);
+      final long key = millis;
+      final List<Long> sink = ran;
+      wheel.schedule(deadline, new Runnable(){ public void run(){ sink.add(key); } });
+      expected.add(key);
+    }
+    Collections.sort(expected);
+    long now = 0;
+    int numDue = 0;
+    while(wheel.size() > 0){
+      now = now + (long)(random.nextDouble() * random.nextDouble() * 3000000000L);
+      clock.fNow = plusMillis(START, now);
+      int before = ran.size();
+      numDue = numDue + wheel.advance();
+      for(int i = before; i < ran.size(); ++i){
+        assertTrue(ran.get(i) <= now);
+      }
+      for(long key : expected){
+        if(key <= now && ! ran.contains(key)){
+          fail("Missed " + key + " at " + now);
+        }
+      }
+      expected.removeAll(ran.subList(before, ran.size()));
+    }
+    assertEquals(2000, numDue);
+    assertEquals(2000, ran.size());
+  }
+
+  public void testExecutorAndTicker() throws InterruptedException {
+    TimerWheel wheel = new TimerWheel(5, Clock.SYSTEM, UTC, TimerWheel.virtualThreadExecutor());
+    final List<String> ran = Collections.synchronizedList(new ArrayList<String>());
+    wheel.schedule(DateTime.now(UTC), new Record(ran, "a"));
+    wheel.startTicker();
+    assertTrue(wheel.isTickerRunning());
+    for(int i = 0; i < 400 && ran.isEmpty(); ++i){
+      Thread.sleep(5);
+    }
+    wheel.stopTicker();
+    assertFalse(wheel.isTickerRunning());
+    assertEquals("[a]", ran.toString());
+  }
+
+  public void testBadArgs(){
+    try {
+      new TimerWheel(0, Clock.SYSTEM, UTC, null);
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+    try {
+      new TimerWheel(1, Clock.SYSTEM, UTC, null).schedule(START, null);
+      fail();
+    }
+    catch(IllegalArgumentException ex){
+      //expected
+    }
+  }
+
+  // PRIVATE
+
+  private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+  private static final DateTime START = new DateTime(2012, 1, 1, 0, 0, 0, 0);
+
+  private static final class SettableClock implements Clock {
+    SettableClock(DateTime aNow){
+      fNow = aNow;
+    }
+    public DateTime now(TimeZone aTimeZone){
+      return fNow;
+    }
+    public DateTime today(TimeZone aTimeZone){
+      return fNow.truncate(DateTime.Unit.DAY);
+    }
+    DateTime fNow;
+  }
+
+  private static final class Record implements Runnable {
+    Record(List<String> aSink, String aName){
+      fSink = aSink;
+      fName = aName;
+    }
+    public void run(){
+      fSink.add(fName);
+    }
+    private final List<String> fSink;
+    private final String fName;
+  }
+
+  private static DateTime plusMillis(DateTime aDateTime, long aMillis){
+    return aDateTime.plus(
+      0, 0, (int)(aMillis / 86400000L), (int)(aMillis / 3600000L % 24), (int)(aMillis / 60000L % 60), (int)(aMillis / 1000L % 60),
+      (int)(aMillis % 1000) * 1000000, DateTime.DayOverflow.Spillover
+    );
+  }
+}
@@ -0,0 +1,77 @@
+package hirondelle.date4j;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+import junit.framework.TestCase;
+
+/** JUnit tests. */
+public final class TESTUniqueTimestampGenerator extends TestCase {
+
+  /** Run the test cases.  */
+  public static void main(String args[]) {
+    String[] testCaseName = { TESTUniqueTimestampGenerator.class.getName() };
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public TESTUniqueTimestampGenerator( String aName) {
+    super(aName);
+  }
+
+  // TEST CASES
+
+  public void testSingleThread(){
+    UniqueTimestampGenerator generator = new UniqueTimestampGenerator();
+    DateTime previous = generator.next();
+    for(int idx = 0; idx < 10000; ++idx){
+      DateTime next = generator.next();
+      assertTrue(previous.lt(next));
+      previous = next;
+    }
+    assertEquals(previous, DateTime.forEpochNanoUtc(generator.getLastEpochNanoUtc()));
+    assertTrue(Math.abs(previous.numSecondsFrom(DateTime.now(TimeZone.getTimeZone("UTC")))) < 5);
+  }
+
+  public void testFixedClock(){
+    DateTime now = new DateTime("2012-01-01 10:00:00.000000500");
+    UniqueTimestampGenerator generator = new UniqueTimestampGenerator(new Clock.FixedClock(now));
+    assertEquals(now, generator.next());
+    assertEquals(new DateTime("2012-01-01 10:00:00.000000501"), generator.next());
+    assertEquals(new DateTime("2012-01-01 10:00:00.000000502"), generator.next());
+    assertEquals(now.toEpochNanoUtc() + 2, generator.getLastEpochNanoUtc());
+  }
+
+  public void testManyThreads() throws InterruptedException {
+    final UniqueTimestampGenerator generator = new UniqueTimestampGenerator();
+    final int numThreads = 8;
+    final int numPerThread = 20000;
+    final long[][] results = new long[numThreads][numPerThread];
+    Thread[] threads = new Thread[numThreads];
+    for(int thread = 0; thread < numThreads; ++thread){
+      final long[] values = results[thread];
+      threads[thread] = new Thread(){
+        @Override public void run(){
+          for(int idx = 0; idx < numPerThread; ++idx){
+            values[idx] = generator.nextEpochNanoUtc();
+          }
+        }
+      };
+      threads[thread].start();
+    }
+    for(Thread thread : threads){
+      thread.join();
+    }
+    long[] all = new long[numThreads * numPerThread];
+    for(int thread = 0; thread < numThreads; ++thread){
+      for(int idx = 0; idx < numPerThread; ++idx){
+        if(idx > 0){
+          assertTrue(results[thread][idx - 1] < results[thread][idx]);
+        }
+        all[thread * numPerThread + idx] = results[thread][idx];
+      }
+    }
+    Arrays.sort(all);
+    for(int idx = 1; idx < all.length; ++idx){
+      assertTrue("Duplicate value", all[idx - 1] < all[idx]);
+    }
+  }
+}
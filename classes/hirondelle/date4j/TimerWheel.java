@@ -0,0 +1,392 @@
+package hirondelle.date4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ Runs tasks at <tt>DateTime</tt> deadlines, using a hierarchical timer wheel.
+
+ <P>Large numbers of pending deadlines are often kept in a <tt>PriorityQueue</tt>, where each insert and
+ each poll costs <tt>O(log n)</tt> calls to {@link DateTime#compareTo(DateTime)}. This class instead converts each
+ deadline, once, into a whole number of ticks, and files the task in a bucket of a timer wheel. Scheduling and
+ cancelling take constant time. Advancing the wheel by one tick takes constant time, plus the work of handling
+ the tasks which have come due; runs of ticks in which no task can come due are skipped over.
+
+ <P>The wheel has several levels, of 64 buckets each. The buckets of the lowest level are one tick wide; those of
+ each higher level are 64 times wider than those of the level below. A task is filed at the lowest level whose
+ range holds its deadline. As time passes, the tasks in a higher-level bucket are moved down (at most once per
+ level), until they reach the lowest level, and come due. (This is the scheme of Varghese and Lauck, as used in the
+ Linux kernel.)
+
+ <P>Deadlines are precise only to the tick: a task runs at the first tick at or after its deadline.
+ A deadline already in the past runs at the next tick.
+
+ <P>The current time comes from a {@link Clock}, in a given time zone; deadlines are date-times in the same time zone.
+ When the clock goes back (as at the end of daylight saving time), the wheel waits for it to catch up.
+
+ <P>The wheel is driven either by calling {@link #advance()} directly, or by a background daemon thread, started by
+ {@link #startTicker()}. Due tasks are passed to an <tt>Executor</tt>; if none is given, they run in the thread calling
+ <tt>advance</tt>. On Java 21 and later, {@link #virtualThreadExecutor()} runs each task in its own virtual thread.
+
+ <P>Example:
+ <PRE>
+  TimerWheel wheel = new TimerWheel(10, Clock.SYSTEM, timeZone, TimerWheel.virtualThreadExecutor());
+  wheel.startTicker();
+  TimerWheel.Timeout timeout = wheel.schedule(deadline, task);
+  ...
+  timeout.cancel();
+ </PRE>
+
+ <P>This class is thread-safe.
+*/
+public final class TimerWheel {
+
+  /**
+   Return an <tt>Executor</tt> which runs each task in a new virtual thread, if the JDK has virtual threads
+   (Java 21 and later). Otherwise, returns an <tt>Executor</tt> backed by a pool of daemon threads.
+  */
+  public static Executor virtualThreadExecutor(){
+    Executor result = null;
+    try {
+      result = (Executor)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+    catch(Exception ex){
+      result = Executors.newCachedThreadPool(DAEMON_THREADS);
+    }
+    return result;
+  }
+
+  /**
+   Constructor.
+   @param aTickMillis the width of a tick, in milliseconds; 1 or more. Deadlines are rounded up to the next tick.
+   @param aClock the source of the current time.
+   @param aTimeZone the time zone passed to the clock, and the time zone of all deadlines.
+   @param aExecutor runs the tasks as they come due; if <tt>null</tt>, then tasks run in the thread calling
+   {@link #advance()}, one after the other.
+  */
+  public TimerWheel(long aTickMillis, Clock aClock, TimeZone aTimeZone, Executor aExecutor){
+    if(aTickMillis < 1){
+      throw new IllegalArgumentException("Tick must be 1 millisecond or more: " + aTickMillis);
+    }
+    fTickMillis = aTickMillis;
+    fClock = aClock;
+    fTimeZone = aTimeZone;
+    fExecutor = aExecutor;
+    fCurrentTick = tickOf(aClock.now(aTimeZone), false);
+  }
+
+  /**
+   Schedule a task to run at the given deadline.
+   @param aDeadline a date-time in the time zone passed to the constructor, having year-month-day.
+   Missing time units are treated as 0.
+   @return a handle for cancelling the task.
+  */
+  public Timeout schedule(DateTime aDeadline, Runnable aTask){
+    if(aTask == null){
+      throw new IllegalArgumentException("Task is null.");
+    }
+    Timeout result = new Timeout(aDeadline, tickOf(aDeadline, true), aTask);
+    synchronized(this){
+      //the current tick has already been handled
+      file(result, fCurrentTick + 1);
+      ++fSize;
+    }
+    return result;
+  }
+
+  /**
+   Move the wheel forward to the current time, and hand over all tasks which have come due to the executor,
+   in order of their deadline (to the tick).
+   @return the number of tasks handed over.
+  */
+  public int advance(){
+    long nowTick = tickOf(fClock.now(fTimeZone), false);
+    List<Timeout> due = new ArrayList<Timeout>();
+    synchronized(this){
+      while(fCurrentTick < nowTick){
+        fCurrentTick = nextTickToHandle(nowTick);
+        cascade();
+        int slot = (int)fCurrentTick & SLOT_MASK;
+        Timeout timeout = fBuckets[0][slot];
+        fBuckets[0][slot] = null;
+        while(timeout != null){
+          Timeout next = timeout.fNext;
+          timeout.fPrev = timeout.fNext = null;
+          timeout.fState = DUE;
+          due.add(timeout);
+          --fLevelSizes[0];
+          --fSize;
+          timeout = next;
+        }
+      }
+    }
+    for(Timeout timeout : due){
+      run(timeout);
+    }
+    return due.size();
+  }
+
+  /** Return the number of tasks scheduled, and neither run nor cancelled. */
+  public synchronized int size(){
+    return fSize;
+  }
+
+  /**
+   Start a background daemon thread which calls {@link #advance()} once per tick.
+   Has no effect if the ticker is already running.
+  */
+  public synchronized void startTicker(){
+    if(fTicker == null){
+      fTicker = new Ticker();
+      fTicker.start();
+    }
+  }
+
+  /** Stop the background thread started by {@link #startTicker()}. Scheduled tasks are kept. */
+  public synchronized void stopTicker(){
+    if(fTicker != null){
+      fTicker.fIsRunning = false;
+      fTicker.interrupt();
+      fTicker = null;
+    }
+  }
+
+  /** Return <tt>true</tt> only if the background ticker is running. */
+  public synchronized boolean isTickerRunning(){
+    return fTicker != null;
+  }
+
+  /** Intended for debugging only. */
+  @Override public String toString(){
+    return "TimerWheel tick:" + fTickMillis + "ms size:" + size() + " ticker:" + isTickerRunning();
+  }
+
+  /** A task scheduled on a {@link TimerWheel}. */
+  public final class Timeout {
+
+    /** Return the deadline passed to {@link TimerWheel#schedule(DateTime, Runnable)}. */
+    public DateTime getDeadline(){
+      return fDeadline;
+    }
+
+    /**
+     Cancel the task, if it hasn't already come due.
+     @return <tt>true</tt> only if the task was pending, and will now never run.
+    */
+    public boolean cancel(){
+      boolean result = false;
+      synchronized(TimerWheel.this){
+        if(fState == PENDING){
+          unfile(this);
+          --fSize;
+          fState = CANCELLED;
+          result = true;
+        }
+      }
+      return result;
+    }
+
+    /** Return <tt>true</tt> only if {@link #cancel()} has succeeded. */
+    public boolean isCancelled(){
+      synchronized(TimerWheel.this){
+        return fState == CANCELLED;
+      }
+    }
+
+    /** Return <tt>true</tt> only if the task has come due, and has been handed to the executor. */
+    public boolean isDue(){
+      synchronized(TimerWheel.this){
+        return fState == DUE;
+      }
+    }
+
+    /** Intended for debugging only. */
+    @Override public String toString(){
+      return "Timeout deadline:" + fDeadline;
+    }
+
+    // PRIVATE
+
+    private Timeout(DateTime aDeadline, long aTick, Runnable aTask){
+      fDeadline = aDeadline;
+      fTick = aTick;
+      fTask = aTask;
+    }
+    private final DateTime fDeadline;
+    private final long fTick;
+    private final Runnable fTask;
+    /* The remaining fields are guarded by the wheel's lock. */
+    private int fState = PENDING;
+    private int fLevel;
+    private int fSlot;
+    private Timeout fPrev;
+    private Timeout fNext;
+  }
+
+  // PRIVATE
+
+  private final long fTickMillis;
+  private final Clock fClock;
+  private final TimeZone fTimeZone;
+  private final Executor fExecutor;
+
+  /* The remaining fields are guarded by this object's lock. */
+  /** The last tick processed. */
+  private long fCurrentTick;
+  /** The head of a doubly-linked list of tasks, for each level and slot. */
+  private final Timeout[][] fBuckets = new Timeout[NUM_LEVELS][NUM_SLOTS];
+  /** The number of tasks at each level. */
+  private final int[] fLevelSizes = new int[NUM_LEVELS];
+  private int fSize;
+  private Ticker fTicker;
+
+  private static final int SLOT_BITS = 6;
+  private static final int NUM_SLOTS = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = NUM_SLOTS - 1;
+  /** Enough levels to span any difference between two ticks. */
+  private static final int NUM_LEVELS = (64 + SLOT_BITS - 1) / SLOT_BITS;
+
+  private static final int PENDING = 0;
+  private static final int DUE = 1;
+  private static final int CANCELLED = 2;
+
+  private static final Logger fLogger = Util.getLogger(TimerWheel.class);
+
+  private static final ThreadFactory DAEMON_THREADS = new ThreadFactory() {
+    public Thread newThread(Runnable aRunnable) {
+      Thread result = new Thread(aRunnable, "TimerWheel-task");
+      result.setDaemon(true);
+      return result;
+    }
+  };
+
+  private final class Ticker extends Thread {
+    Ticker(){
+      super("TimerWheel-ticker");
+      setDaemon(true);
+    }
+    @Override public void run(){
+      while(fIsRunning){
+        advance();
+        try {
+          Thread.sleep(fTickMillis);
+        }
+        catch(InterruptedException ex){
+          //stopTicker was called
+        }
+      }
+    }
+    volatile boolean fIsRunning = true;
+  }
+
+  /**
+   The tick of the given date-time. The date-time is treated as UTC; this just places all date-times on a single linear scale.
+   Deadlines are rounded up, so that tasks never run early; the current time is rounded down.
+  */
+  private long tickOf(DateTime aDateTime, boolean aRoundUp){
+    Integer nanos = aDateTime.getNanoseconds();
+    long millis = aDateTime.toEpochSecondUtc() * 1000L + (nanos == null ? 0 : nanos.intValue() / 1000000);
+    return Util.floorDiv(aRoundUp ? millis + fTickMillis - 1 : millis, fTickMillis);
+  }
+
+  /**
+   Add the task to the bucket for its tick. The level is given by the highest bit in which the task's tick differs
+   from the current tick; the slot is the task's digit at that level. A tick before <tt>aEarliestTick</tt> is
+   filed for <tt>aEarliestTick</tt>.
+  */
+  private void file(Timeout aTimeout, long aEarliestTick){
+    long tick = Math.max(aTimeout.fTick, aEarliestTick);
+    long diff = tick ^ fCurrentTick;
+    int level = diff == 0 ? 0 : (63 - Long.numberOfLeadingZeros(diff)) / SLOT_BITS;
+    int slot = (int)(tick >>> (level * SLOT_BITS)) & SLOT_MASK;
+    aTimeout.fLevel = level;
+    aTimeout.fSlot = slot;
+    ++fLevelSizes[level];
+    aTimeout.fPrev = null;
+    aTimeout.fNext = fBuckets[level][slot];
+    if(aTimeout.fNext != null){
+      aTimeout.fNext.fPrev = aTimeout;
+    }
+    fBuckets[level][slot] = aTimeout;
+  }
+
+  private void unfile(Timeout aTimeout){
+    --fLevelSizes[aTimeout.fLevel];
+    if(aTimeout.fPrev == null){
+      fBuckets[aTimeout.fLevel][aTimeout.fSlot] = aTimeout.fNext;
+    }
+    else {
+      aTimeout.fPrev.fNext = aTimeout.fNext;
+    }
+    if(aTimeout.fNext != null){
+      aTimeout.fNext.fPrev = aTimeout.fPrev;
+    }
+    aTimeout.fPrev = aTimeout.fNext = null;
+  }
+
+  /**
+   Return the next tick at which something may happen, but no later than <tt>aNowTick</tt>.
+   When the lower levels are empty, no task can come due until the next bucket of the lowest non-empty level
+   begins, so the ticks in between are skipped. This keeps an idle wheel, or one whose tasks are all far off,
+   from stepping through every tick.
+  */
+  private long nextTickToHandle(long aNowTick){
+    long result = aNowTick;
+    int level = 0;
+    while(level < NUM_LEVELS && fLevelSizes[level] == 0){
+      ++level;
+    }
+    if(level == 0){
+      result = fCurrentTick + 1;
+    }
+    else if(level < NUM_LEVELS){
+      long nextBucket = (fCurrentTick | ((1L << (level * SLOT_BITS)) - 1)) + 1;
+      result = Math.min(nextBucket, aNowTick);
+    }
+    return result;
+  }
+
+  /**
+   When the current tick has just entered a new bucket of a higher level, move the tasks of that bucket down.
+   Higher levels go first, so that tasks moved down are never moved twice in the same tick.
+  */
+  private void cascade(){
+    int highestLevel = 0;
+    while(highestLevel + 1 < NUM_LEVELS && (fCurrentTick & ((1L << ((highestLevel + 1) * SLOT_BITS)) - 1)) == 0){
+      ++highestLevel;
+    }
+    for(int level = highestLevel; level >= 1; --level){
+      int slot = (int)(fCurrentTick >>> (level * SLOT_BITS)) & SLOT_MASK;
+      Timeout timeout = fBuckets[level][slot];
+      fBuckets[level][slot] = null;
+      while(timeout != null){
+        Timeout next = timeout.fNext;
+        --fLevelSizes[level];
+        //the current tick is about to be handled
+        file(timeout, fCurrentTick);
+        timeout = next;
+      }
+    }
+  }
+
+  private void run(Timeout aTimeout){
+    if(fExecutor != null){
+      fExecutor.execute(aTimeout.fTask);
+    }
+    else {
+      try {
+        aTimeout.fTask.run();
+      }
+      catch(RuntimeException ex){
+        fLogger.log(Level.SEVERE, "Task scheduled for " + aTimeout.fDeadline + " failed.", ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package hirondelle.date4j;
+
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ Generates strictly increasing timestamps, for stamping events with unique and well-ordered times.
+
+ <P>Two calls to {@link DateTime#now(java.util.TimeZone)} in the same millisecond return equal values, and
+ the system clock can be set backwards. Events stamped in that way can collide, or appear out of order.
+ This class returns a value which is always greater than the one it returned before, across all threads:
+ <ul>
+ <li>the time is read from a {@link Clock}; by default, a {@link Clock.NanoClock}, which has nanosecond resolution,
+ and never goes backwards.
+ <li>if that time isn't greater than the last value handed out (two threads in the same nanosecond, say),
+ then the last value plus 1 nanosecond is returned instead.
+ </ul>
+
+ <P>The last value is held in a single <tt>AtomicLong</tt>, as nanoseconds from the epoch, and is advanced with
+ compare-and-set. No locks are taken, and a thread which loses a race simply tries again with the new value.
+
+ <P>Values are in UTC. (Values converted to a local time zone can go backwards when clocks fall back for
+ daylight savings time.) As for any count of nanoseconds in a <tt>long</tt>, the range ends in the year 2262.
+
+ <P>Example:
+ <PRE>
+  private static final UniqueTimestampGenerator STAMPS = new UniqueTimestampGenerator();
+  ...
+  DateTime eventTime = STAMPS.next();
+ </PRE>
+*/
+public final class UniqueTimestampGenerator {
+
+  /** Constructor, using a new {@link Clock.NanoClock}. */
+  public UniqueTimestampGenerator(){
+    this(new Clock.NanoClock());
+  }
+
+  /**
+   Constructor.
+   @param aClock the source of the current time, read in UTC. With a clock of low resolution, such as
+   {@link Clock#SYSTEM}, values in the same tick of the clock are 1 nanosecond apart.
+  */
+  public UniqueTimestampGenerator(Clock aClock){
+    if(aClock == null){
+      throw new IllegalArgumentException("Clock is null.");
+    }
+    fClock = aClock;
+  }
+
+  /** Return a <tt>DateTime</tt> in UTC, greater than any value returned before by this object. */
+  public DateTime next(){
+    return DateTime.forEpochNanoUtc(nextEpochNanoUtc());
+  }
+
+  /**
+   Return nanoseconds from the epoch, in UTC, greater than any value returned before by this object.
+   For storage or comparison, this form avoids building a <tt>DateTime</tt>.
+  */
+  public long nextEpochNanoUtc(){
+    long now = nowEpochNanoUtc();
+    long result = 0;
+    while(true){
+      long last = fLast.get();
+      result = now > last ? now : last + 1;
+      if(fLast.compareAndSet(last, result)){
+        break;
+      }
+    }
+    return result;
+  }
+
+  /** Return the most recent value handed out, as nanoseconds from the epoch in UTC; 0 if none. */
+  public long getLastEpochNanoUtc(){
+    return fLast.get();
+  }
+
+  // PRIVATE
+
+  private final Clock fClock;
+  private final AtomicLong fLast = new AtomicLong();
+
+  private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+  private long nowEpochNanoUtc(){
+    long result = 0;
+    if(fClock instanceof Clock.NanoClock){
+      //avoids building a DateTime, only to take it apart again
+      result = ((Clock.NanoClock)fClock).nowEpochNanoUtc();
+    }
+    else {
+      result = fClock.now(UTC).toEpochNanoUtc();
+    }
+    return result;
+  }
+}
@@ -41,6 +41,20 @@ final class Util  {
     return result.toString();
   }
 
+  /** Division rounding towards negative infinity, for a positive divisor. */
+  static long floorDiv(long aValue, long aDivisor){
+    long result = aValue / aDivisor;
+    if(aValue % aDivisor < 0){
+      --result;
+    }
+    return result;
+  }
+
+  /** Remainder of {@link #floorDiv(long, long)}; always in the range 0..aDivisor-1, for a positive divisor. */
+  static long floorMod(long aValue, long aDivisor){
+    return aValue - floorDiv(aValue, aDivisor) * aDivisor;
+  }
+
   static Logger getLogger(Class<?> aClass){
     return Logger.getLogger(aClass.getPackage().getName());  
   }